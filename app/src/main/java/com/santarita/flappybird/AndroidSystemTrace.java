@@ -0,0 +1,30 @@
+package com.santarita.flappybird;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Forwards Tracer sections and counters to android.os.Trace, for systrace / Perfetto
+ * recordings. Counters need Android 10 and are dropped on older versions.
+ */
+public final class AndroidSystemTrace implements Tracer.SystemTrace {
+    public static final AndroidSystemTrace INSTANCE = new AndroidSystemTrace();
+
+    private AndroidSystemTrace() {
+    }
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void setCounter(String name, long value) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) Trace.setCounter(name, value);
+    }
+}
@@ -0,0 +1,247 @@
+package com.santarita.flappybird;
+
+import android.graphics.Bitmap;
+
+/**
+ * Manages scrolling backgrounds, ground, and theme switching.
+ */
+public class BackgroundManager {
+    // Theme structure: {Background ID, Pipe Top ID, Pipe Bottom ID}
+    private static final int[][] THEMES = {
+            {R.drawable.bg1, R.drawable.tp3, R.drawable.bp3},    // Day (Green Pipes)
+            {R.drawable.bg2, R.drawable.tp1, R.drawable.bp1},    // Sunset (Orange/Brown Pipes)
+            {R.drawable.bg3, R.drawable.tp2, R.drawable.bp2}     // Night/Snow (Ice/Blue Pipes)
+    };
+    private static final float SCROLL_SPEED = 10f; // Must match Pipe.PIPE_SCROLL_SPEED
+
+    private final SpriteCache sprites;
+    private final int screenWidth;
+    private final int screenHeight;
+
+    private int currentThemeIndex = 1;
+
+    // Background scrolling
+    private Sprite currentBackground;
+    private float backgroundX1 = 0;
+    private float backgroundX2;
+
+    // Ground
+    private Sprite groundSprite;
+    private final float groundHeight;
+    private final float groundY;
+    private float groundX1 = 0;
+    private float groundX2;
+
+    // Render resolution relative to the simulation (see ResolutionScaler)
+    private float renderScale;
+    private Sprite pendingBackground, pendingGround;
+
+    // Pipe sprites of the current theme, scaled to the rendered pipe width and keyed
+    private Sprite topPipeSprite, bottomPipeSprite;
+    private float pendingScale;
+    private int pendingThemeIndex;
+
+    /**
+     * Constructor for BackgroundManager.
+     */
+    public BackgroundManager(SpriteCache sprites, int screenWidth, int screenHeight, float groundHeight) {
+        this(sprites, screenWidth, screenHeight, groundHeight, 1, 1f);
+    }
+
+    /**
+     * Constructor starting on a specific theme (used when restoring a saved game)
+     * and render scale (see ResolutionScaler).
+     */
+    public BackgroundManager(SpriteCache sprites, int screenWidth, int screenHeight, float groundHeight, int themeIndex, float renderScale) {
+        this.sprites = sprites;
+        if (themeIndex >= 0 && themeIndex < THEMES.length) currentThemeIndex = themeIndex;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.groundHeight = groundHeight;
+        this.renderScale = renderScale;
+
+        // Load ground and scale it to cover the width
+        groundSprite = loadGround(renderScale);
+        groundY = screenHeight - groundHeight;
+
+        backgroundX2 = screenWidth;
+        groundX2 = screenWidth;
+
+        loadBackgroundTheme();
+    }
+
+    /**
+     * Loads the background image for the current theme and scales it to fit the screen.
+     */
+    private void loadBackgroundTheme() {
+        // Same size as the new one, so it can be decoded into the old one's memory
+        release(currentBackground);
+        currentBackground = loadBackground(currentThemeIndex, renderScale);
+        loadPipeSprites();
+    }
+
+    private void loadPipeSprites() {
+        int pipeWidth = (int) (PipeEntity.pipeWidthFor(screenWidth) * renderScale);
+        topPipeSprite = CanvasRenderer.wrap(sprites.load(THEMES[currentThemeIndex][1], pipeWidth, 0, true));
+        bottomPipeSprite = CanvasRenderer.wrap(sprites.load(THEMES[currentThemeIndex][2], pipeWidth, 0, true));
+    }
+
+    private Sprite loadBackground(int themeIndex, float scale) {
+        int bgResId = THEMES[themeIndex][0];
+        // Scale background to fill the screen (rounded up so the two copies never leave a seam)
+        return CanvasRenderer.wrap(sprites.load(bgResId, scaledSize(screenWidth, scale), scaledSize(screenHeight, scale), false));
+    }
+
+    private Sprite loadGround(float scale) {
+        return CanvasRenderer.wrap(sprites.load(R.drawable.ground, scaledSize(screenWidth, scale), scaledSize(groundHeight, scale), false));
+    }
+
+    private static int scaledSize(float size, float scale) {
+        return Math.max(1, (int) Math.ceil(size * scale));
+    }
+
+    /**
+     * Builds the background and ground for a new render scale. Slow, so it can run off the
+     * game thread; nothing changes on screen until commitRenderScale().
+     */
+    public void prepareRenderScale(float scale) {
+        int theme = currentThemeIndex;
+        Sprite background = loadBackground(theme, scale);
+        Sprite ground = loadGround(scale);
+        pendingThemeIndex = theme;
+        pendingScale = scale;
+        pendingGround = ground;
+        pendingBackground = background;
+    }
+
+    /**
+     * Swaps in the bitmaps built by prepareRenderScale(). Call while the game loop is locked.
+     */
+    public void commitRenderScale() {
+        if (pendingBackground == null) return;
+        renderScale = pendingScale;
+        release(groundSprite);
+        groundSprite = pendingGround;
+        // The theme may have switched while the bitmaps were being built
+        if (pendingThemeIndex == currentThemeIndex) {
+            release(currentBackground);
+            currentBackground = pendingBackground;
+            loadPipeSprites(); // Small and usually already in the SpriteCache
+        } else {
+            release(pendingBackground);
+            loadBackgroundTheme();
+        }
+        pendingBackground = null;
+        pendingGround = null;
+    }
+
+    /**
+     * Hands the background and ground back to the SpriteCache for reuse. Call when this
+     * manager is being replaced and won't be drawn again.
+     */
+    public void release() {
+        release(currentBackground);
+        release(groundSprite);
+        currentBackground = null;
+        groundSprite = null;
+    }
+
+    private void release(Sprite sprite) {
+        if (sprite != null && sprite.getImage() instanceof Bitmap) sprites.release((Bitmap) sprite.getImage());
+    }
+
+    /**
+     * Changes the theme and reloads the background. (Renamed from changeTheme)
+     */
+    public void switchTheme() {
+        Tracer.begin("BackgroundManager.switchTheme");
+        try {
+            currentThemeIndex = (currentThemeIndex + 1) % THEMES.length;
+            loadBackgroundTheme();
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    /**
+     * The main update method.
+     * @param isGameOver If true, scrolling stops.
+     */
+    public void update(boolean isGameOver) {
+        update(isGameOver, 1f);
+    }
+
+    /**
+     * @param ticks Number of 60 Hz ticks to advance (may be fractional).
+     */
+    public void update(boolean isGameOver, float ticks) {
+        // 1. Stop scrolling if the game is over
+        if (isGameOver) {
+            return;
+        }
+
+        // 2. Background Scrolling
+        backgroundX1 -= SCROLL_SPEED * ticks;
+        backgroundX2 -= SCROLL_SPEED * ticks;
+
+        // GAP FIX: Instead of setting to screenWidth, we set it relative to the OTHER background.
+        // This ensures they stay "glued" together even if frame rates fluctuate.
+        if (backgroundX1 + screenWidth <= 0) {
+            backgroundX1 = backgroundX2 + screenWidth;
+        }
+        if (backgroundX2 + screenWidth <= 0) {
+            backgroundX2 = backgroundX1 + screenWidth;
+        }
+
+        // 3. Ground Scrolling
+        groundX1 -= SCROLL_SPEED * ticks;
+        groundX2 -= SCROLL_SPEED * ticks;
+
+        // GAP FIX for Ground as well
+        if (groundX1 + screenWidth <= 0) {
+            groundX1 = groundX2 + screenWidth;
+        }
+        if (groundX2 + screenWidth <= 0) {
+            groundX2 = groundX1 + screenWidth;
+        }
+    }
+
+    /**
+     * Draws the backgrounds and the ground.
+     * @param renderer The renderer to draw with.
+     */
+    public void draw(Renderer renderer) {
+        if (renderer != null) {
+            // Draw background (two instances for seamless scrolling)
+            // Use Math.ceil or casting to ensure no sub-pixel gaps in rendering
+            renderer.drawSprite(currentBackground, (int)(backgroundX1 * renderScale), 0);
+            renderer.drawSprite(currentBackground, (int)(backgroundX2 * renderScale), 0);
+
+            // Draw ground (two instances for seamless scrolling)
+            renderer.drawSprite(groundSprite, (int)(groundX1 * renderScale), groundY * renderScale);
+            renderer.drawSprite(groundSprite, (int)(groundX2 * renderScale), groundY * renderScale);
+        }
+    }
+
+    public int getCurrentThemeIndex() {
+        return currentThemeIndex;
+    }
+
+    /**
+     * Gets the top pipe sprite of the current theme, scaled to the rendered pipe width and keyed.
+     */
+    public Sprite getTopPipeSprite() {
+        return topPipeSprite;
+    }
+
+    /**
+     * Gets the bottom pipe sprite of the current theme, scaled to the rendered pipe width and keyed.
+     */
+    public Sprite getBottomPipeSprite() {
+        return bottomPipeSprite;
+    }
+
+    public float getGroundY() {
+        return groundY;
+    }
+}
\ No newline at end of file
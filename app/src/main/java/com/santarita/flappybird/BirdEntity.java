@@ -0,0 +1,228 @@
+package com.santarita.flappybird;
+
+import android.graphics.Rect;
+
+public class BirdEntity {
+    private static final float JUMP_VELOCITY = -15f;
+    private static final float GRAVITY = 1f;
+
+    public float x, y;
+    private float velocityY = 0;
+    private final float birdWidth;
+    private final float birdHeight;
+    private boolean isDead = false;
+    private final Rect bounds = new Rect();
+
+    private Sprite[] currentBirdFrames;
+    private CollisionMask[] currentMasks; // Per frame, at simulation scale
+    private int frameIndex = 0;
+    private long lastFrameTime = 0;
+    private static final int FRAME_DURATION = 200;
+    private final int screenHeight;
+
+    // Render resolution relative to the simulation (see ResolutionScaler)
+    private final SpriteCache sprites;
+    private int themeIndex = 0;
+    private float renderScale;
+    private Sprite[] pendingFrames;
+    private float pendingScale;
+    private int pendingThemeIndex;
+
+    private static final int[][] BIRD_THEMES = {
+            {R.drawable.bird1, R.drawable.bird1, R.drawable.bird1},
+            {R.drawable.bird2, R.drawable.bird2, R.drawable.bird2},
+            {R.drawable.bird3, R.drawable.bird3, R.drawable.bird3}
+    };
+
+    public BirdEntity(SpriteCache sprites, int screenWidth, int screenHeight) {
+        this(sprites, screenWidth, screenHeight, 1f);
+    }
+
+    public BirdEntity(SpriteCache sprites, int screenWidth, int screenHeight, float renderScale) {
+        this.screenHeight = screenHeight;
+        this.sprites = sprites;
+        this.renderScale = renderScale;
+
+        // Only the image header is needed for the aspect ratio
+        int[] frameSize = sprites.getSourceSize(BIRD_THEMES[0][0]);
+        birdHeight = screenHeight / 12f;
+        birdWidth = frameSize[0] * (birdHeight / frameSize[1]);
+
+        setTheme(0);
+
+        x = screenWidth / 4f - birdWidth / 2f;
+        y = screenHeight / 2f - birdHeight / 2f;
+    }
+
+    public void setTheme(int themeIndex) {
+        Tracer.begin("BirdEntity.setTheme");
+        try {
+            if (themeIndex < 0 || themeIndex >= BIRD_THEMES.length) themeIndex = 0;
+            this.themeIndex = themeIndex;
+            currentBirdFrames = loadFrames(themeIndex, renderScale);
+
+            int[] themeDrawables = BIRD_THEMES[themeIndex];
+            CollisionMask[] masks = new CollisionMask[themeDrawables.length];
+            for (int i = 0; i < themeDrawables.length; i++) {
+                masks[i] = sprites.loadMask(themeDrawables[i], Math.max(1, (int) birdWidth), Math.max(1, (int) birdHeight));
+            }
+            currentMasks = masks;
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    private Sprite[] loadFrames(int themeIndex, float scale) {
+        int[] themeDrawables = BIRD_THEMES[themeIndex];
+        Sprite[] frames = new Sprite[themeDrawables.length];
+
+        for (int i = 0; i < themeDrawables.length; i++) {
+            frames[i] = CanvasRenderer.wrap(sprites.load(themeDrawables[i], (int) (birdWidth * scale), (int) (birdHeight * scale), true));
+        }
+        return frames;
+    }
+
+    /**
+     * Builds the frames for a new render scale. Slow, so it can run off the game thread;
+     * nothing changes on screen until commitRenderScale().
+     */
+    public void prepareRenderScale(float scale) {
+        int theme = themeIndex;
+        Sprite[] frames = loadFrames(theme, scale);
+        pendingThemeIndex = theme;
+        pendingScale = scale;
+        pendingFrames = frames;
+    }
+
+    /**
+     * Swaps in the frames built by prepareRenderScale(). Call while the game loop is locked.
+     */
+    public void commitRenderScale() {
+        if (pendingFrames == null) return;
+        renderScale = pendingScale;
+        // The theme may have switched while the frames were being built
+        currentBirdFrames = pendingThemeIndex == themeIndex
+                ? pendingFrames
+                : loadFrames(themeIndex, renderScale);
+        pendingFrames = null;
+    }
+
+    public void update() {
+        update(1f);
+    }
+
+    /**
+     * Advances the bird by a number of 60 Hz ticks (may be fractional or more than one).
+     * Uses the closed form of the per-tick "velocityY += g; y += velocityY" step, so any
+     * split of the same time span ends at the same place.
+     */
+    public void update(float ticks) {
+        if (isDead) {
+            if (y + birdHeight < screenHeight) {
+                float gravity = GRAVITY * 0.5f;
+                y += velocityY * ticks + gravity * ticks * (ticks + 1) * 0.5f;
+                velocityY += gravity * ticks;
+            } else {
+                y = screenHeight - birdHeight;
+                velocityY = 0;
+            }
+            return;
+        }
+        y += velocityY * ticks + GRAVITY * ticks * (ticks + 1) * 0.5f;
+        velocityY += GRAVITY * ticks;
+        if (y < 0) {
+            y = 0;
+            velocityY = 0;
+        }
+        updateAnimation();
+    }
+
+    /**
+     * Flaps the wings. Called by update(); call it directly when something else moves the bird.
+     */
+    public void updateAnimation() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastFrameTime > FRAME_DURATION) {
+            frameIndex = (frameIndex + 1) % currentBirdFrames.length;
+            lastFrameTime = currentTime;
+        }
+    }
+
+    public void draw(Renderer renderer) {
+        draw(renderer, 255);
+    }
+
+    /**
+     * @param alpha Below 255 to draw a translucent ghost.
+     */
+    public void draw(Renderer renderer, int alpha) {
+        if (renderer != null && currentBirdFrames != null) {
+            renderer.drawSprite(currentBirdFrames[frameIndex], x * renderScale, y * renderScale, alpha);
+        }
+    }
+
+    public void jump() {
+        if (!isDead) velocityY = JUMP_VELOCITY;
+    }
+
+    /**
+     * The full sprite rectangle. No padding needed any more: collidesWith() checks the
+     * actual pixels, so the "empty corners" of the image never count as hits.
+     */
+    public Rect getBounds() {
+        // Reused every tick to keep the game loop allocation free
+        bounds.set(
+                (int) x,
+                (int) y,
+                (int) x + currentMasks[frameIndex].getWidth(),
+                (int) y + currentMasks[frameIndex].getHeight()
+        );
+        return bounds;
+    }
+
+    /**
+     * Pixel-accurate test against a solid rectangle (e.g. a pipe).
+     */
+    public boolean collidesWith(Rect rect) {
+        Rect box = getBounds();
+        if (!Rect.intersects(box, rect)) return false;
+        return currentMasks[frameIndex].overlapsRect(
+                rect.left - box.left, rect.top - box.top, rect.right - box.left, rect.bottom - box.top);
+    }
+
+    /**
+     * Pixel-accurate test with the bird's top-left corner at (left, top) instead of (x, y).
+     */
+    public boolean collidesWithAt(Rect rect, int left, int top) {
+        CollisionMask mask = currentMasks[frameIndex];
+        if (rect.right <= left || rect.left >= left + mask.getWidth()
+                || rect.bottom <= top || rect.top >= top + mask.getHeight()) {
+            return false;
+        }
+        return mask.overlapsRect(rect.left - left, rect.top - top, rect.right - left, rect.bottom - top);
+    }
+
+    // --- Motion of a living bird over the next t ticks: y(t) = y + getPathB() * t + getPathA() * t^2 ---
+    public float getPathA() { return GRAVITY * 0.5f; }
+    public float getPathB() { return velocityY + GRAVITY * 0.5f; }
+    public float yAt(float t) { return y + (getPathA() * t + getPathB()) * t; }
+    public int getMaskWidth() { return currentMasks[frameIndex].getWidth(); }
+    public int getMaskHeight() { return currentMasks[frameIndex].getHeight(); }
+
+    /**
+     * Puts the bird back where a saved game left it.
+     */
+    public void restore(float x, float y, float velocityY, boolean dead) {
+        this.x = x;
+        this.y = y;
+        this.velocityY = velocityY;
+        this.isDead = dead;
+    }
+
+    public float getVelocityY() { return velocityY; }
+    public boolean isDead() { return isDead; }
+    public boolean hasLanded() { return isDead && velocityY == 0 && y >= screenHeight - birdHeight; }
+    public void setDead(boolean dead) { isDead = dead; }
+    public float getBirdHeight() { return birdHeight; }
+    public float getBirdWidth() { return birdWidth; }
+}
\ No newline at end of file
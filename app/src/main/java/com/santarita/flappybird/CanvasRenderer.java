@@ -0,0 +1,134 @@
+package com.santarita.flappybird;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Renderer drawing onto an android.graphics.Canvas. One instance is reused every frame;
+ * setCanvas() points it at the frame's canvas.
+ */
+public class CanvasRenderer implements Renderer {
+    private Canvas canvas;
+    private final Paint alphaPaint = new Paint();
+    private final Paint fillPaint = new Paint();
+    private final Rect source = new Rect();
+    private final RectF destination = new RectF();
+    private int drawCalls = 0;
+
+    public void setCanvas(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * Makes a sprite drawable by any Renderer out of a bitmap.
+     */
+    public static Sprite wrap(final Bitmap bitmap) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        return new Sprite(bitmap, width, height, argb -> bitmap.getPixels(argb, 0, width, 0, 0, width, height));
+    }
+
+    /**
+     * Rasterizes the digits and the labels in the style, shadow included, into one sheet.
+     * Allocates; call once per style, not per frame.
+     */
+    public static GlyphAtlas createGlyphAtlas(TextStyle style, String... labels) {
+        Paint paint = new Paint(paintFor(style));
+        paint.setTextAlign(Paint.Align.LEFT); // GlyphAtlas does the aligning
+        Paint.FontMetrics metrics = paint.getFontMetrics();
+        int padding = (int) Math.ceil(style.shadowRadius) + 2; // Room for the shadow and overhangs
+        int cellHeight = (int) Math.ceil(metrics.descent - metrics.ascent) + 2 * padding;
+
+        int count = GlyphAtlas.DIGITS + labels.length;
+        String[] texts = new String[count];
+        int[] cellLeft = new int[count];
+        int[] cellWidth = new int[count];
+        float[] advance = new float[count];
+        int sheetWidth = 0;
+        for (int i = 0; i < count; i++) {
+            texts[i] = i < GlyphAtlas.DIGITS ? String.valueOf((char) ('0' + i)) : labels[i - GlyphAtlas.DIGITS];
+            advance[i] = paint.measureText(texts[i]);
+            cellLeft[i] = sheetWidth;
+            cellWidth[i] = (int) Math.ceil(advance[i]) + 2 * padding;
+            sheetWidth += cellWidth[i];
+        }
+
+        Bitmap sheet = Bitmap.createBitmap(sheetWidth, cellHeight, Bitmap.Config.ARGB_8888);
+        Canvas sheetCanvas = new Canvas(sheet);
+        for (int i = 0; i < count; i++) {
+            sheetCanvas.drawText(texts[i], cellLeft[i] + padding, padding - metrics.ascent, paint);
+        }
+        return new GlyphAtlas(style, wrap(sheet), cellLeft, cellWidth, advance, cellHeight, padding, metrics.ascent);
+    }
+
+    @Override public int getWidth() { return canvas.getWidth(); }
+    @Override public int getHeight() { return canvas.getHeight(); }
+
+    @Override public void save() { canvas.save(); }
+    @Override public void scale(float factor) { canvas.scale(factor, factor); }
+    @Override public void restore() { canvas.restore(); }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y) {
+        drawCalls++;
+        canvas.drawBitmap((Bitmap) sprite.getImage(), x, y, null);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y, int alpha) {
+        drawCalls++;
+        Paint paint = null;
+        if (alpha < 255) {
+            alphaPaint.setAlpha(alpha);
+            paint = alphaPaint;
+        }
+        canvas.drawBitmap((Bitmap) sprite.getImage(), x, y, paint);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float left, float top, float right, float bottom) {
+        drawCalls++;
+        destination.set(left, top, right, bottom);
+        canvas.drawBitmap((Bitmap) sprite.getImage(), null, destination, null);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, int srcLeft, int srcTop, int srcRight, int srcBottom, float x, float y) {
+        drawCalls++;
+        source.set(srcLeft, srcTop, srcRight, srcBottom);
+        destination.set(x, y, x + (srcRight - srcLeft), y + (srcBottom - srcTop));
+        canvas.drawBitmap((Bitmap) sprite.getImage(), source, destination, null);
+    }
+
+    @Override
+    public void fillRect(float left, float top, float right, float bottom, int argb) {
+        drawCalls++;
+        fillPaint.setColor(argb);
+        canvas.drawRect(left, top, right, bottom, fillPaint);
+    }
+
+    @Override
+    public void drawText(CharSequence text, float x, float y, TextStyle style) {
+        drawCalls++;
+        canvas.drawText(text, 0, text.length(), x, y, paintFor(style));
+    }
+
+    @Override public int getDrawCallCount() { return drawCalls; }
+    @Override public void resetDrawCallCount() { drawCalls = 0; }
+
+    private static Paint paintFor(TextStyle style) {
+        if (style.backendCache instanceof Paint) return (Paint) style.backendCache;
+        Paint paint = new Paint();
+        paint.setColor(style.color);
+        paint.setTextSize(style.size);
+        paint.setFakeBoldText(style.bold);
+        paint.setTextAlign(style.align == TextStyle.Align.CENTER ? Paint.Align.CENTER
+                : style.align == TextStyle.Align.RIGHT ? Paint.Align.RIGHT : Paint.Align.LEFT);
+        if (style.shadowRadius > 0) paint.setShadowLayer(style.shadowRadius, 0, 0, style.shadowColor);
+        style.backendCache = paint;
+        return paint;
+    }
+}
@@ -0,0 +1,21 @@
+package com.santarita.flappybird;
+
+import android.os.Debug;
+
+/**
+ * Per-thread allocation counts from the Android runtime, for TickAllocationMonitor on a device.
+ * Counting slows every allocation down, so it is only switched on while a monitor exists
+ * (see GameThread.CHECK_ALLOCATIONS). The count is an int and wraps after 2 GB; the monitor
+ * only looks at differences within a tick, so that doesn't matter.
+ */
+@SuppressWarnings("deprecation") // The Debug allocation counters are deprecated but still work on ART
+public final class DebugAllocationCounter implements TickAllocationMonitor.AllocationCounter {
+    public DebugAllocationCounter() {
+        Debug.startAllocCounting();
+    }
+
+    @Override
+    public long currentThreadAllocatedBytes() {
+        return Debug.getThreadAllocSize();
+    }
+}
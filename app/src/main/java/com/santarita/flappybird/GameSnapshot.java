@@ -0,0 +1,194 @@
+package com.santarita.flappybird;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Compact, versioned binary snapshot of a game session.
+ * The buffer is allocated once and rewritten in place (it only grows for long
+ * deterministic runs), so taking a snapshot in onPause() is just a handful of
+ * primitive writes.
+ *
+ * Layout (little endian):
+ *   int magic, short version, byte state, byte themeIndex,
+ *   int screenWidth, int screenHeight, int score, int pipesPassedInTheme,
+ *   int msSinceLastPipe, float birdX, float birdY, float birdVelocityY,
+ *   byte birdDead, byte pipeCount,
+ *   pipeCount * { float x, float topPipeHeight, byte passed },
+ *   byte hasWorld, and if set:
+ *   long worldSeed, int worldSpawnX, int worldTicks, int jumpCount, jumpCount * int jumpTick
+ *
+ * A deterministic run is saved as its seed and inputs rather than its positions, and
+ * rebuilt by replaying them, so it stays bit-identical to a run that was never paused.
+ */
+public class GameSnapshot {
+    private static final int MAGIC = 0x464C4259; // "FLBY"
+    static final short VERSION = 2;
+
+    // Pipes spawn every 2s and scroll off in well under that many, so this is plenty
+    static final int MAX_PIPES = 16;
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 1 + 4 * 5 + 4 * 3 + 1 + 1;
+    private static final int PIPE_RECORD_SIZE = 4 + 4 + 1;
+    private static final int WORLD_HEADER_SIZE = 8 + 4 + 4 + 4;
+    static final int SIZE = HEADER_SIZE + MAX_PIPES * PIPE_RECORD_SIZE + 1 + WORLD_HEADER_SIZE + 64 * 4;
+
+    private byte[] data = new byte[SIZE];
+    private ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    private int length = 0;
+    private boolean valid = false;
+
+    // --- Decoded fields (filled by read()) ---
+    public GameView.GameState state;
+    public int themeIndex;
+    public int screenWidth, screenHeight;
+    public int score;
+    public int pipesPassedInTheme;
+    public int msSinceLastPipe;
+    public float birdX, birdY, birdVelocityY;
+    public boolean birdDead;
+    public int pipeCount;
+    public final float[] pipeX = new float[MAX_PIPES];
+    public final float[] pipeTopHeight = new float[MAX_PIPES];
+    public final boolean[] pipePassed = new boolean[MAX_PIPES];
+    public boolean hasWorld;
+    public long worldSeed;
+    public int worldSpawnX;
+    public int worldTicks;
+    public int jumpCount;
+    public int[] jumpTicks = new int[64];
+
+    /**
+     * Starts a new snapshot. Call writePipe() for each pipe, then end().
+     */
+    public void begin(GameView.GameState state, int themeIndex, int screenWidth, int screenHeight,
+                      int score, int pipesPassedInTheme, int msSinceLastPipe,
+                      float birdX, float birdY, float birdVelocityY, boolean birdDead) {
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) state.ordinal());
+        buffer.put((byte) themeIndex);
+        buffer.putInt(screenWidth);
+        buffer.putInt(screenHeight);
+        buffer.putInt(score);
+        buffer.putInt(pipesPassedInTheme);
+        buffer.putInt(msSinceLastPipe);
+        buffer.putFloat(birdX);
+        buffer.putFloat(birdY);
+        buffer.putFloat(birdVelocityY);
+        buffer.put((byte) (birdDead ? 1 : 0));
+        buffer.put((byte) 0); // pipe count, patched in end()
+        pipeCount = 0;
+        hasWorld = false;
+        valid = false;
+    }
+
+    /**
+     * Appends one pipe. Pipes beyond MAX_PIPES are dropped (they would be off screen anyway).
+     */
+    public void writePipe(float x, float topPipeHeight, boolean passed) {
+        if (pipeCount >= MAX_PIPES) return;
+        buffer.putFloat(x);
+        buffer.putFloat(topPipeHeight);
+        buffer.put((byte) (passed ? 1 : 0));
+        pipeCount++;
+    }
+
+    /**
+     * Records the deterministic run behind the snapshot, after the pipes. Without it the run
+     * is restored from the positions with the float physics.
+     * @param jumps Ticks at which the bird jumped, ascending; the first count are used.
+     */
+    public void writeWorld(long seed, int spawnX, int ticks, int[] jumps, int count) {
+        ensureRemaining(1 + WORLD_HEADER_SIZE + count * 4);
+        buffer.put((byte) 1);
+        buffer.putLong(seed);
+        buffer.putInt(spawnX);
+        buffer.putInt(ticks);
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) buffer.putInt(jumps[i]);
+        hasWorld = true;
+    }
+
+    public void end() {
+        if (!hasWorld) buffer.put((byte) 0);
+        buffer.put(HEADER_SIZE - 1, (byte) pipeCount);
+        length = buffer.position();
+        valid = true;
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        int position = buffer.position();
+        data = Arrays.copyOf(data, Math.max(data.length * 2, position + bytes));
+        buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(position);
+    }
+
+    /**
+     * A copy of the snapshot, suitable for Bundle.putByteArray(). The backing array is
+     * rewritten by the next begin(), so it is never handed out.
+     */
+    public byte[] toByteArray() {
+        return valid ? Arrays.copyOf(data, length) : null;
+    }
+
+    /**
+     * Decodes a snapshot produced by toByteArray().
+     * @return false if the data is missing, truncated or from another version.
+     */
+    public boolean read(byte[] source) {
+        valid = false;
+        if (source == null || source.length < HEADER_SIZE) return false;
+        if (source != data) {
+            buffer.clear();
+            ensureRemaining(source.length);
+            System.arraycopy(source, 0, data, 0, source.length);
+        }
+
+        buffer.clear();
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) return false;
+
+        int stateOrdinal = buffer.get();
+        GameView.GameState[] states = GameView.GameState.values();
+        if (stateOrdinal < 0 || stateOrdinal >= states.length) return false;
+        state = states[stateOrdinal];
+        themeIndex = buffer.get();
+        screenWidth = buffer.getInt();
+        screenHeight = buffer.getInt();
+        score = buffer.getInt();
+        pipesPassedInTheme = buffer.getInt();
+        msSinceLastPipe = buffer.getInt();
+        birdX = buffer.getFloat();
+        birdY = buffer.getFloat();
+        birdVelocityY = buffer.getFloat();
+        birdDead = buffer.get() != 0;
+        pipeCount = buffer.get() & 0xFF;
+        if (pipeCount > MAX_PIPES || source.length < HEADER_SIZE + pipeCount * PIPE_RECORD_SIZE) return false;
+
+        for (int i = 0; i < pipeCount; i++) {
+            pipeX[i] = buffer.getFloat();
+            pipeTopHeight[i] = buffer.getFloat();
+            pipePassed[i] = buffer.get() != 0;
+        }
+
+        int end = HEADER_SIZE + pipeCount * PIPE_RECORD_SIZE;
+        if (source.length < end + 1) return false;
+        hasWorld = buffer.get() != 0;
+        if (hasWorld) {
+            if (source.length < end + 1 + WORLD_HEADER_SIZE) return false;
+            worldSeed = buffer.getLong();
+            worldSpawnX = buffer.getInt();
+            worldTicks = buffer.getInt();
+            jumpCount = buffer.getInt();
+            if (worldTicks < 0 || jumpCount < 0 || jumpCount > worldTicks
+                    || source.length < end + 1 + WORLD_HEADER_SIZE + jumpCount * 4) return false;
+            if (jumpTicks.length < jumpCount) jumpTicks = new int[jumpCount];
+            for (int i = 0; i < jumpCount; i++) jumpTicks[i] = buffer.getInt();
+        }
+        length = buffer.position();
+        valid = true;
+        return true;
+    }
+}
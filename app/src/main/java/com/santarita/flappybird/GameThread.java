@@ -0,0 +1,212 @@
+package com.santarita.flappybird;
+
+import android.graphics.Canvas;
+import android.util.Log;
+import android.view.SurfaceHolder;
+
+/**
+ * GameThread is responsible for managing the main game loop.
+ * It calls the update and draw methods on the GameView at the target FPS while
+ * the game is animating, and otherwise sleeps until a new frame is requested.
+ */
+public class GameThread extends Thread {
+    private final SurfaceHolder surfaceHolder;
+    private final GameView gameView;
+    private volatile boolean isRunning;
+    private volatile boolean isPaused;
+
+    // On-demand rendering: set by requestRender(), consumed by the loop
+    private final Object renderLock = new Object();
+    private boolean renderRequested = true;
+
+    // Target FPS and frame time calculation
+    static final int MAX_FPS = 60;
+    private static final int FRAME_PERIOD = 1000 / MAX_FPS;
+
+    // Debug: measure the real update() and draw() per tick with the runtime's allocation counters,
+    // logging a report whenever a tick goes over budget
+    private static final boolean CHECK_ALLOCATIONS = false;
+    private static final long ALLOCATION_BUDGET_BYTES = 256;
+    private final TickAllocationMonitor allocationMonitor = CHECK_ALLOCATIONS
+            ? new TickAllocationMonitor(new DebugAllocationCounter(), ALLOCATION_BUDGET_BYTES, stateNames()) : null;
+
+    /**
+     * Constructor for the GameThread.
+     * @param surfaceHolder The holder for the surface.
+     * @param gameView The view containing the game logic and drawing.
+     */
+    public GameThread(SurfaceHolder surfaceHolder, GameView gameView) {
+        this.surfaceHolder = surfaceHolder;
+        this.gameView = gameView;
+        this.isPaused = false;
+    }
+
+    /**
+     * Sets the state of the game loop (running or paused).
+     * @param running True to run the loop, false to stop.
+     */
+    public void setRunning(boolean running) {
+        isRunning = running;
+        wakeUp();
+    }
+
+    /**
+     * Pauses the game loop.
+     */
+    public void pause() {
+        isPaused = true;
+    }
+
+    /**
+     * Resumes the game loop.
+     */
+    public void resumeGame() {
+        isPaused = false;
+        requestRender();
+    }
+
+    /**
+     * Marks the frame as dirty so an idle loop draws (at least) one more frame.
+     * Safe to call from any thread.
+     */
+    public void requestRender() {
+        synchronized (renderLock) {
+            renderRequested = true;
+            renderLock.notifyAll();
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (renderLock) {
+            renderLock.notifyAll();
+        }
+    }
+
+    private static String[] stateNames() {
+        GameView.GameState[] states = GameView.GameState.values();
+        String[] names = new String[states.length];
+        for (int i = 0; i < states.length; i++) names[i] = states[i].name();
+        return names;
+    }
+
+    private void tickWithAllocationCheck(Canvas canvas) {
+        int state = gameView.getGameState().ordinal();
+        allocationMonitor.beginPhase();
+        gameView.update();
+        allocationMonitor.endPhase(TickAllocationMonitor.Phase.UPDATE);
+        allocationMonitor.beginPhase();
+        gameView.draw(canvas);
+        allocationMonitor.endPhase(TickAllocationMonitor.Phase.DRAW);
+        if (allocationMonitor.endTick(state)) {
+            Log.w("GameThread", allocationMonitor.report());
+        }
+    }
+
+    private void tick(Canvas canvas) {
+        // Update game state
+        Tracer.begin("update");
+        try {
+            this.gameView.update();
+        } finally {
+            Tracer.end();
+        }
+        // Draw the game state onto the canvas
+        Tracer.begin("draw");
+        try {
+            this.gameView.draw(canvas);
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    /**
+     * The main method for the thread, executing the game loop.
+     */
+    @Override
+    public void run() {
+        long startTime;
+        long timeMillis;
+        long waitTime;
+        boolean animating = true;
+
+        while (isRunning) {
+            synchronized (renderLock) {
+                // Idle until the game animates again or something invalidates the frame
+                while (isRunning && (isPaused || (!animating && !renderRequested))) {
+                    try {
+                        renderLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                renderRequested = false;
+            }
+
+            if (isRunning) {
+                startTime = System.currentTimeMillis();
+                long workNanos = 0;
+                Canvas canvas = null;
+                Tracer.begin("frame");
+
+                try {
+                    // Get the canvas to draw on, locking the surface
+                    Tracer.begin("lockCanvas");
+                    try {
+                        canvas = this.surfaceHolder.lockCanvas();
+                    } finally {
+                        Tracer.end();
+                    }
+                    synchronized (surfaceHolder) {
+                        long workStart = System.nanoTime();
+                        if (allocationMonitor != null) {
+                            tickWithAllocationCheck(canvas);
+                        } else {
+                            tick(canvas);
+                        }
+                        workNanos = System.nanoTime() - workStart;
+                    }
+                } catch (Exception e) {
+                    // Handle exceptions during drawing/locking
+                } finally {
+                    try {
+                        if (canvas != null) {
+                            // Unlock the surface and post the canvas contents
+                            Tracer.begin("unlockCanvasAndPost");
+                            try {
+                                surfaceHolder.unlockCanvasAndPost(canvas);
+                            } finally {
+                                Tracer.end();
+                            }
+                        }
+                    } finally {
+                        Tracer.end();
+                    }
+                }
+                Tracer.counter("drawCalls", gameView.getLastDrawCallCount());
+
+                // Static screens don't need another frame until requestRender()
+                animating = gameView.needsContinuousRendering();
+                if (!animating) continue;
+
+                // Frame-time feedback for the adaptive render resolution. Only update and draw count:
+                // lockCanvas() and unlockCanvasAndPost() block on vsync and free buffers, not load
+                gameView.onFrameRendered(workNanos);
+
+                // Calculate time taken for the loop
+                timeMillis = System.currentTimeMillis() - startTime;
+                waitTime = FRAME_PERIOD - timeMillis;
+
+                try {
+                    // Pause the thread to meet the target FPS
+                    if (waitTime > 0) {
+                        //noinspection BusyWait
+                        sleep(waitTime);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
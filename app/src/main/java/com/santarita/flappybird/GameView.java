@@ -0,0 +1,1311 @@
+package com.santarita.flappybird;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF; // Used for rounded buttons
+import android.graphics.Rect;
+import android.graphics.Typeface; // For styling
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import androidx.annotation.NonNull;
+import android.graphics.Bitmap; // Required for Bitmap
+import android.os.PowerManager;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class GameView extends SurfaceView implements SurfaceHolder.Callback {
+    // Game Components
+    private GameThread thread;
+    private BirdEntity bird;
+    private BackgroundManager backgroundManager;
+    private final List<PipeEntity> pipes = new ArrayList<>();
+    private final SweptCollision sweep = new SweptCollision();
+    private boolean contactWithGround = false;
+
+    // --- 1. EXPANDED GAME STATES ---
+    public enum GameState {
+        MENU, CREDITS, HIGH_SCORES, READY, PLAYING, PAUSED, GAME_OVER
+    }
+    // Start in MENU instead of READY
+    private GameState gameState = GameState.MENU;
+
+    private int score = 0;
+    private int highScore = 0;
+    private SharedPreferences prefs;
+
+    private int pipesPassedInTheme = 0;
+    private static final int PIPES_PER_THEME_CHANGE = 4;
+
+    // Pipe Spawning
+    private long lastPipeTime = 0;
+    private final Random pipeRandom = new Random(); // Shared by every spawn, so spawning allocates no Random
+    private static final int PIPE_INTERVAL_MS = 2000;
+
+    // Reference to MainActivity
+    private final MainActivity mainActivity;
+
+    // Drawing and Text
+    private final Paint messagePaint, menuButtonPaint, titlePaint, buttonBgPaint, bigScorePaint;
+    private final GlyphAtlas scoreGlyphs, messageGlyphs;
+    private static final int LABEL_READY = 0, LABEL_SCORE = 1, LABEL_BEST = 2; // In messageGlyphs
+    private static final int PAUSE_BUTTON_COLOR = Color.argb(150, 0, 0, 0);
+    private static final int PAUSE_ICON_COLOR = Color.WHITE;
+    private final Rect pauseButtonBounds;
+
+    // --- NEW: MENU BACKGROUND VARIABLE ---
+    private Bitmap menuBackground;
+
+    // Processed sprites, persisted across launches
+    private SpriteCache spriteCache;
+
+    // Pre-rendered overlay for MENU, CREDITS, HIGH_SCORES, PAUSED and GAME_OVER
+    private UiLayerCache uiLayerCache;
+
+    // --- 2. MENU BUTTON BOUNDS ---
+    private RectF btnPlay, btnRace, btnScores, btnCredits, btnExit, btnPhysics, btnDemo, btnBack;
+
+    private int screenWidth, screenHeight;
+    private float groundHeight;
+
+    // --- SAVE STATE: snapshot taken on pause, applied when the surface comes back ---
+    private final GameSnapshot snapshot = new GameSnapshot();
+    private boolean hasSnapshot = false;
+    private boolean pendingRestore = false;
+
+    // --- ADAPTIVE RESOLUTION: the surface buffer and sprites are rendered at renderScale ---
+    // (the simulation always runs in view pixels, so gameplay doesn't depend on it)
+    private final ResolutionScaler resolutionScaler = new ResolutionScaler(GameThread.MAX_FPS);
+    private float renderScale = 1f;
+    private volatile boolean rescaling = false;
+    // One long-lived thread, so rescales don't leave a trace ring behind each time (see Tracer)
+    private final ExecutorService rescaleExecutor = Executors.newSingleThreadExecutor(
+            task -> new Thread(task, "ResolutionScaler"));
+    private volatile int surfaceGeneration = 0; // Bumped by surfaceCreated(); a rescale only commits for its own surface
+
+    // --- DETERMINISTIC PHYSICS: optional integer simulation, identical on every device ---
+    // When set, each run is simulated by a DeterministicWorld and the entities only mirror it.
+    // Chosen on the main menu and kept in the preferences
+    private boolean deterministicPhysics;
+    private static final String PREF_DETERMINISTIC_PHYSICS = "deterministic_physics";
+    private DeterministicWorld world;
+    private float worldTicks = 0; // Fractional ticks not yet stepped
+    private boolean pendingJump = false;
+    // Ticks at which the bird jumped; with the seed they rebuild the run after process death
+    private int[] worldJumps = new int[64];
+    private int worldJumpCount = 0;
+
+    // --- ATTRACT MODE: behind the main menu, an Autopilot plays its own DeterministicWorld ---
+    // Renders the menu continuously, so it is a menu setting and starts off in battery saver
+    private boolean attractMode;
+    private static final String PREF_ATTRACT_MODE = "attract_mode";
+    private DeterministicWorld attractWorld; // Null until the menu is next shown
+    private final Autopilot autopilot = new Autopilot();
+    private float attractTicks = 0;
+    private long attractSeed = 0;
+    private static final int AUTOPILOT_STATS_INTERVAL = 60; // Decisions
+
+    // --- RACE: the opponent's run, replayed from their inputs and drawn as a ghost ---
+    private RaceClient raceClient;
+    private BirdEntity ghostBird;
+    private static final int GHOST_ALPHA = 110;
+    private static final int GHOST_FADE_STEP = 4; // Alpha lost per update once the opponent has left
+    private int ghostAlpha;
+
+    // How a race stands once the local bird is dead; the opponent may still be flying
+    private enum RaceResult { UNDECIDED, WON, LOST, TIED }
+    private RaceResult raceResult = RaceResult.UNDECIDED;
+    private int raceGhostScore = 0;
+
+    // --- RENDERING: frames are drawn through a Renderer so they can also be drawn off-screen ---
+    private final CanvasRenderer canvasRenderer = new CanvasRenderer();
+    private final CanvasRenderer uiLayerRenderer = new CanvasRenderer(); // Draws into the UI layer
+    private int lastDrawCalls = 0;
+
+    // --- TELEMETRY: per-run analytics, recorded only from the game thread ---
+    private final Telemetry telemetry;
+    private volatile boolean runStartPending = false; // Set by restartGame() on the UI thread
+    private volatile boolean jumpPending = false;     // Set by jump() on the UI thread
+    private static final int FRAME_STATS_INTERVAL = 60;
+    private int statFrames = 0;
+    private long statFrameNanos = 0, statWorstFrameNanos = 0;
+    private int statDrawCalls = 0, statMostDrawCalls = 0;
+
+    // Debug: timeline of every frame (see Tracer), written to files/trace.json whenever the app goes to the background
+    private static final boolean CAPTURE_TRACE = false;
+    // Debug: forward the same sections to android.os.Trace for on-device systrace / Perfetto recordings
+    private static final boolean SYSTEM_TRACE = false;
+
+    public GameView(Context context) {
+        super(context);
+        getHolder().addCallback(this);
+        setFocusable(true);
+
+        this.mainActivity = (MainActivity) context;
+
+        // Load High Score
+        prefs = context.getSharedPreferences("FlappyPrefs", Context.MODE_PRIVATE);
+        highScore = prefs.getInt("high_score", 0);
+        deterministicPhysics = prefs.getBoolean(PREF_DETERMINISTIC_PHYSICS, false);
+        PowerManager power = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        attractMode = prefs.getBoolean(PREF_ATTRACT_MODE, power == null || !power.isPowerSaveMode());
+
+        telemetry = new Telemetry(new File(context.getFilesDir(), "telemetry"));
+        if (CAPTURE_TRACE) Tracer.startCapture();
+        Tracer.setSystemTrace(SYSTEM_TRACE ? AndroidSystemTrace.INSTANCE : null);
+
+        // --- PAINTS SETUP ---
+        // Text drawn every frame is pre-rasterized, so drawing it allocates nothing
+        TextStyle scoreStyle = new TextStyle(60, Color.WHITE, TextStyle.Align.RIGHT, true, 5, Color.BLACK);
+        TextStyle messageStyle = new TextStyle(50, Color.WHITE, TextStyle.Align.CENTER, false, 5, Color.BLACK);
+        scoreGlyphs = CanvasRenderer.createGlyphAtlas(scoreStyle);
+        messageGlyphs = CanvasRenderer.createGlyphAtlas(messageStyle, "Tap to Jump!", "Score: ", "Best: ");
+
+        messagePaint = new Paint();
+        messagePaint.setColor(Color.WHITE);
+        messagePaint.setTextSize(50);
+        messagePaint.setTextAlign(Paint.Align.CENTER);
+        messagePaint.setShadowLayer(5, 0, 0, Color.BLACK);
+
+        // Title Paint for "Floaty Head"
+        titlePaint = new Paint();
+        titlePaint.setColor(Color.rgb(255, 215, 0)); // Gold color
+        titlePaint.setTextSize(100);
+        titlePaint.setTypeface(Typeface.DEFAULT_BOLD);
+        titlePaint.setTextAlign(Paint.Align.CENTER);
+        titlePaint.setShadowLayer(10, 5, 5, Color.BLACK);
+
+        // Huge number on the BEST SCORE screen
+        bigScorePaint = new Paint(titlePaint);
+        bigScorePaint.setColor(Color.WHITE);
+        bigScorePaint.setTextSize(150);
+
+        // Button Background Paint
+        buttonBgPaint = new Paint();
+        buttonBgPaint.setColor(Color.rgb(70, 130, 180)); // Steel Blue
+        buttonBgPaint.setStyle(Paint.Style.FILL);
+        buttonBgPaint.setAntiAlias(true);
+
+        // Button Text Paint
+        menuButtonPaint = new Paint();
+        menuButtonPaint.setColor(Color.WHITE);
+        menuButtonPaint.setTextSize(50);
+        menuButtonPaint.setTextAlign(Paint.Align.CENTER);
+        menuButtonPaint.setFakeBoldText(true);
+
+
+        pauseButtonBounds = new Rect(0, 0, 0, 0);
+    }
+
+    @Override
+    public void surfaceCreated(@NonNull SurfaceHolder holder) {
+        // A new surface starts back at full resolution; a rescale still running was for the old one
+        synchronized (holder) {
+            surfaceGeneration++;
+            screenWidth = getWidth();
+            screenHeight = getHeight();
+            resolutionScaler.reset();
+            if (renderScale != 1f) {
+                renderScale = 1f;
+                holder.setSizeFromLayout();
+            }
+        }
+
+        // Pause Button Layout
+        int buttonSize = screenWidth / 10;
+        int padding = 20;
+        pauseButtonBounds.set(padding, padding, buttonSize + padding, buttonSize + padding);
+
+        groundHeight = screenHeight / 10f;
+
+        // --- 3. INITIALIZE MENU BUTTONS ---
+        float btnWidth = screenWidth * 0.5f;
+        float btnHeight = screenHeight * 0.07f;
+        float centerX = screenWidth / 2f;
+        float startY = screenHeight * 0.3f;
+        float gap = btnHeight * 1.25f;
+
+        btnPlay = new RectF(centerX - btnWidth/2, startY, centerX + btnWidth/2, startY + btnHeight);
+        btnRace = new RectF(centerX - btnWidth/2, startY + gap, centerX + btnWidth/2, startY + btnHeight + gap);
+        btnScores = new RectF(centerX - btnWidth/2, startY + gap*2, centerX + btnWidth/2, startY + btnHeight + gap*2);
+        btnCredits = new RectF(centerX - btnWidth/2, startY + gap*3, centerX + btnWidth/2, startY + btnHeight + gap*3);
+        btnExit = new RectF(centerX - btnWidth/2, startY + gap*4, centerX + btnWidth/2, startY + btnHeight + gap*4);
+        btnPhysics = new RectF(centerX - btnWidth*0.8f, startY + gap*5, centerX + btnWidth*0.8f, startY + btnHeight + gap*5);
+        btnDemo = new RectF(centerX - btnWidth*0.8f, startY + gap*6, centerX + btnWidth*0.8f, startY + btnHeight + gap*6);
+
+        // Back Button (for Credits/Score screens)
+        btnBack = new RectF(centerX - btnWidth/2, screenHeight * 0.8f, centerX + btnWidth/2, screenHeight * 0.8f + btnHeight);
+
+        if (spriteCache == null || !spriteCache.isFor(screenWidth, screenHeight)) {
+            if (spriteCache != null) spriteCache.shutdown();
+            spriteCache = new SpriteCache(getResources(), new File(getContext().getCacheDir(), "sprites"),
+                    screenWidth, screenHeight, installStamp());
+            spriteCache.pruneStale();
+        }
+
+        // --- NEW: LOAD MENU BACKGROUND IMAGE ---
+        // The old surface's images can be reused when the size didn't change
+        if (backgroundManager != null) backgroundManager.release();
+        spriteCache.release(menuBackground);
+        menuBackground = spriteCache.load(R.drawable.menu_bg, screenWidth, screenHeight, false);
+        // -------------------------------------
+
+        if (uiLayerCache != null) uiLayerCache.recycle();
+        uiLayerCache = new UiLayerCache(screenWidth, screenHeight);
+
+        if (pendingRestore) {
+            // Start directly on the saved theme so nothing is decoded twice
+            backgroundManager = new BackgroundManager(spriteCache, screenWidth, screenHeight, groundHeight, snapshot.themeIndex, renderScale);
+        } else {
+            backgroundManager = new BackgroundManager(spriteCache, screenWidth, screenHeight, groundHeight);
+        }
+        bird = new BirdEntity(spriteCache, screenWidth, screenHeight);
+        attractWorld = null; // Its pipes were built for the old surface
+
+        // Ensure bird matches theme
+        bird.setTheme(backgroundManager.getCurrentThemeIndex());
+
+        if (pendingRestore) {
+            applySnapshot();
+            pendingRestore = false;
+        }
+
+        thread = new GameThread(getHolder(), this);
+        thread.setRunning(true);
+        thread.start();
+    }
+
+    /**
+     * Changes with every install or update of the app, so the sprite cache can't outlive the
+     * drawables it was built from.
+     */
+    private long installStamp() {
+        try {
+            return getContext().getPackageManager().getPackageInfo(getContext().getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void surfaceChanged(@NonNull SurfaceHolder holder, int format, int width, int height) {
+        requestRender();
+    }
+
+    @Override
+    public void surfaceDestroyed(@NonNull SurfaceHolder holder) {
+        boolean retry = true;
+        thread.setRunning(false);
+        while (retry) {
+            try {
+                thread.join();
+                retry = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Entities are rebuilt in surfaceCreated(), so bring the session back from the snapshot
+        pendingRestore = hasSnapshot;
+    }
+
+    public void update() {
+        update(1f);
+    }
+
+    /**
+     * Advances the game by a number of 60 Hz ticks. Collisions are swept over the whole
+     * step, so larger steps (low tick rates, fast-forwarded simulations) can't tunnel.
+     */
+    public void update(float ticks) {
+        recordInputTelemetry();
+
+        // Scroll background in MENU and READY states for visual appeal
+        // (CREDITS/HIGH_SCORES are rendered on demand, so their dimmed background stays still)
+        boolean shouldScroll = (gameState == GameState.PLAYING || gameState == GameState.MENU || gameState == GameState.READY);
+        backgroundManager.update(!shouldScroll, ticks);
+
+        if (gameState == GameState.PLAYING && world != null) {
+            updateWorld(ticks);
+        } else if (gameState == GameState.PLAYING) {
+            // Only advance up to the moment of impact, so the bird stops exactly where it hit
+            float contact = findFirstContact(ticks);
+            float step = contact == SweptCollision.NO_CONTACT ? ticks : contact;
+            bird.update(step);
+            updatePipes(step);
+            if (contact != SweptCollision.NO_CONTACT) onBirdHit();
+            spawnPipes();
+        } else if (gameState == GameState.GAME_OVER) {
+            bird.update(ticks); // Let bird fall
+            if (raceClient != null) updateRaceResult();
+        }
+        else if (gameState == GameState.MENU && attractMode) {
+            updateAttract(ticks);
+        }
+    }
+
+    /**
+     * Whether the next frame will differ from the current one without any input.
+     * When false, GameThread sleeps until requestRender() is called.
+     */
+    public boolean needsContinuousRendering() {
+        switch (gameState) {
+            case READY:
+            case PLAYING:
+                return true;
+            case MENU:
+                return attractMode;
+            case GAME_OVER:
+                return !bird.hasLanded() || (raceClient != null && raceResult == RaceResult.UNDECIDED);
+            default:
+                return false;
+        }
+    }
+
+    private void requestRender() {
+        if (thread != null) thread.requestRender();
+    }
+
+    // --- ADAPTIVE RESOLUTION ---
+
+    /**
+     * Called by GameThread with the time each animated frame spent in update() and draw(),
+     * not counting the waits for a buffer in lockCanvas() and unlockCanvasAndPost().
+     */
+    public void onFrameRendered(long frameNanos) {
+        recordFrameTelemetry(frameNanos);
+        if (rescaling || !resolutionScaler.onFrame(frameNanos)) return;
+        rescaling = true;
+        final float scale = resolutionScaler.getScale();
+        final int generation = surfaceGeneration;
+        rescaleExecutor.execute(() -> {
+            boolean handedOff = false;
+            try {
+                rescale(scale, generation);
+                handedOff = true; // rescaleDone() clears the flag once the buffer is resized
+            } catch (RuntimeException | OutOfMemoryError e) {
+                // Keep the current scale; the next level change tries again
+                Log.w("GameView", "Could not rescale to " + scale, e);
+            } finally {
+                if (!handedOff) rescaling = false;
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the sprites for a new render scale off the game thread, swaps them in
+     * between two frames, then resizes the surface buffer to match. Gives up if the
+     * surface was recreated meanwhile, since it started over at full resolution.
+     */
+    private void rescale(float scale, int generation) {
+        int width, height;
+        SpriteCache cache;
+        synchronized (getHolder()) {
+            if (generation != surfaceGeneration) {
+                rescaleDone(scale, generation);
+                return;
+            }
+            width = screenWidth;
+            height = screenHeight;
+            cache = spriteCache;
+        }
+        int bufferWidth = Math.max(1, Math.round(width * scale));
+        int bufferHeight = Math.max(1, Math.round(height * scale));
+
+        Bitmap scaledMenuBg = cache.load(R.drawable.menu_bg, bufferWidth, bufferHeight, false);
+        UiLayerCache scaledUiLayer = new UiLayerCache(bufferWidth, bufferHeight);
+
+        while (true) {
+            BirdEntity targetBird = bird;
+            BackgroundManager targetBackground = backgroundManager;
+            BirdEntity targetGhost = ghostBird;
+            targetBackground.prepareRenderScale(scale);
+            targetBird.prepareRenderScale(scale);
+            if (targetGhost != null) targetGhost.prepareRenderScale(scale);
+
+            synchronized (getHolder()) {
+                if (generation != surfaceGeneration) {
+                    // The new surface's entities and layers were built at full resolution
+                    cache.release(scaledMenuBg);
+                    scaledUiLayer.recycle();
+                    break;
+                }
+                // restartGame() may have replaced the entities in the meantime; build for the new ones
+                if (targetBird != bird || targetBackground != backgroundManager || targetGhost != ghostBird) continue;
+
+                backgroundManager.commitRenderScale();
+                bird.commitRenderScale();
+                if (ghostBird != null) ghostBird.commitRenderScale();
+                for (PipeEntity pipe : pipes) pipe.setRenderScale(scale);
+                spriteCache.release(menuBackground);
+                menuBackground = scaledMenuBg;
+                if (uiLayerCache != null) uiLayerCache.recycle();
+                uiLayerCache = scaledUiLayer;
+                renderScale = scale;
+            }
+            break;
+        }
+        rescaleDone(scale, generation);
+    }
+
+    private void rescaleDone(float scale, int generation) {
+        post(() -> {
+            if (generation == surfaceGeneration) {
+                if (scale == 1f) {
+                    getHolder().setSizeFromLayout();
+                } else {
+                    getHolder().setFixedSize(Math.max(1, Math.round(screenWidth * scale)),
+                            Math.max(1, Math.round(screenHeight * scale)));
+                }
+            }
+            rescaling = false;
+        });
+    }
+
+    private void updatePipes(float ticks) {
+        Iterator<PipeEntity> iterator = pipes.iterator();
+        while (iterator.hasNext()) {
+            PipeEntity pipe = iterator.next();
+            pipe.update(ticks);
+
+            if (pipe.getX() + pipe.getWidth() < 0) {
+                iterator.remove();
+            }
+
+            if (!pipe.isPassed() && pipe.getX() < bird.x) {
+                pipe.setPassed(true);
+                onPipePassed();
+            }
+        }
+    }
+
+    private void onPipePassed() {
+        score++;
+        telemetry.record(Telemetry.SCORE, score, backgroundManager.getCurrentThemeIndex(), 0);
+        mainActivity.playScoreSound();
+        pipesPassedInTheme++;
+
+        if (score > highScore) {
+            highScore = score;
+            prefs.edit().putInt("high_score", highScore).apply();
+        }
+
+        if (pipesPassedInTheme >= PIPES_PER_THEME_CHANGE) {
+            pipesPassedInTheme = 0;
+            backgroundManager.switchTheme();
+            bird.setTheme(backgroundManager.getCurrentThemeIndex());
+            telemetry.record(Telemetry.THEME, backgroundManager.getCurrentThemeIndex());
+        }
+    }
+
+    /**
+     * Steps the deterministic world in whole ticks and mirrors it into the entities.
+     * World units become screen pixels only here, right before drawing.
+     */
+    private void updateWorld(float ticks) {
+        worldTicks += ticks;
+        while (worldTicks >= 1f && gameState == GameState.PLAYING) {
+            worldTicks -= 1f;
+            if (pendingJump) recordJump((int) world.getTick());
+            int events = world.step(pendingJump);
+            if (raceClient != null) raceClient.recordTick(pendingJump);
+            pendingJump = false;
+
+            followPipes(world, events);
+
+            if ((events & DeterministicWorld.EVENT_SCORED) != 0) onPipePassed();
+            if ((events & DeterministicWorld.EVENT_DIED) != 0) {
+                syncFromWorld();
+                recordDeath(world.hasHitGround());
+                gameState = GameState.GAME_OVER;
+                mainActivity.onGameOver();
+            }
+        }
+        syncFromWorld();
+    }
+
+    private void recordJump(int tick) {
+        if (worldJumpCount == worldJumps.length) worldJumps = Arrays.copyOf(worldJumps, worldJumpCount * 2);
+        worldJumps[worldJumpCount++] = tick;
+    }
+
+    /**
+     * The world drops its oldest pipes first and appends new ones, so the list can follow it.
+     */
+    private void followPipes(DeterministicWorld source, int events) {
+        boolean spawned = (events & DeterministicWorld.EVENT_SPAWNED) != 0;
+        int kept = source.getPipeCount() - (spawned ? 1 : 0);
+        while (pipes.size() > kept) pipes.remove(0);
+        if (spawned) {
+            int index = source.getPipeCount() - 1;
+            float scale = screenHeight / (float) DeterministicWorld.WORLD_HEIGHT;
+            pipes.add(new PipeEntity(screenWidth, screenHeight,
+                    backgroundManager.getTopPipeSprite(), backgroundManager.getBottomPipeSprite(),
+                    source.getPipeX(index) * (scale / DeterministicWorld.ONE),
+                    source.getPipeTop(index) * scale, renderScale));
+        }
+    }
+
+    private void syncFromWorld() {
+        if (raceClient != null) syncGhost();
+        syncFromWorld(world);
+    }
+
+    private void syncFromWorld(DeterministicWorld source) {
+        float scale = screenHeight / (float) DeterministicWorld.WORLD_HEIGHT;
+        float unit = scale / DeterministicWorld.ONE;
+
+        // The sprite is centred on the world's hitbox; its width depends on the image's aspect ratio
+        float birdCenterX = (DeterministicWorld.BIRD_X + DeterministicWorld.BIRD_SIZE / 2f) * scale;
+        bird.restore(birdCenterX - bird.getBirdWidth() / 2f, source.getBirdY() * unit,
+                source.getBirdVelocity() * unit, source.isDead());
+        bird.updateAnimation();
+
+        for (int i = 0; i < pipes.size(); i++) {
+            PipeEntity pipe = pipes.get(i);
+            pipe.x = source.getPipeX(i) * unit;
+            pipe.setWidth(DeterministicWorld.PIPE_WIDTH * scale);
+        }
+    }
+
+    // --- ATTRACT MODE ---
+
+    /**
+     * Lets the autopilot play behind the menu. Its runs only move the entities: no score,
+     * sounds or run telemetry, and a new course starts as soon as it dies.
+     */
+    private void updateAttract(float ticks) {
+        if (attractWorld == null || attractWorld.isDead()) {
+            attractWorld = new DeterministicWorld(++attractSeed, getPipeSpawnX());
+            attractTicks = 0;
+            pipes.clear();
+        }
+        attractTicks += ticks;
+        while (attractTicks >= 1f && !attractWorld.isDead()) {
+            attractTicks -= 1f;
+            followPipes(attractWorld, attractWorld.step(autopilot.decide(attractWorld)));
+            if (autopilot.getDecisions() >= AUTOPILOT_STATS_INTERVAL) {
+                telemetry.record(Telemetry.AUTOPILOT, Math.round(autopilot.getAverageDepth()),
+                        (int) (autopilot.getAverageNanos() / 1000), (int) autopilot.getOverruns());
+                autopilot.resetStats();
+            }
+        }
+        syncFromWorld(attractWorld);
+    }
+
+    /**
+     * Whether the autopilot plays behind the main menu. Off, the menu is drawn over its
+     * static background and only re-rendered on input. Saved in the preferences; toggled
+     * from the main menu.
+     */
+    public void setAttractMode(boolean enabled) {
+        prefs.edit().putBoolean(PREF_ATTRACT_MODE, enabled).apply();
+        synchronized (getHolder()) {
+            attractMode = enabled;
+            attractWorld = null;
+            pipes.clear();
+            if (uiLayerCache != null) uiLayerCache.invalidate();
+        }
+        requestRender();
+    }
+
+    /**
+     * Places the opponent's bird where their run was at this tick, a little in the past so
+     * there are usually inputs to interpolate between.
+     */
+    private void syncGhost() {
+        raceClient.advanceGhost();
+        float scale = screenHeight / (float) DeterministicWorld.WORLD_HEIGHT;
+        float tick = world.getTick() + worldTicks - RaceClient.INTERPOLATION_DELAY_TICKS;
+        float birdCenterX = (DeterministicWorld.BIRD_X + DeterministicWorld.BIRD_SIZE / 2f) * scale;
+        ghostBird.restore(birdCenterX - ghostBird.getBirdWidth() / 2f, raceClient.getGhostY(tick) * scale,
+                0, raceClient.isGhostDead());
+        ghostBird.updateAnimation();
+        if (raceClient.hasPeerLeft()) ghostAlpha = Math.max(0, ghostAlpha - GHOST_FADE_STEP);
+    }
+
+    /**
+     * Settles the race once the opponent has died, gone, or passed the local score, and
+     * redraws the game over screen whenever the opponent's score or the result changes.
+     */
+    private void updateRaceResult() {
+        raceClient.advanceGhost();
+        int ghostScore = raceClient.getGhostScore();
+        RaceResult result;
+        if (ghostScore > score) {
+            result = RaceResult.LOST;
+        } else if (raceClient.isGhostDead()) {
+            result = ghostScore < score ? RaceResult.WON : RaceResult.TIED;
+        } else if (raceClient.hasPeerLeft() || !raceClient.isRunning()) {
+            result = RaceResult.WON; // Left, or lost to the network: nothing more will arrive
+        } else {
+            result = RaceResult.UNDECIDED;
+        }
+        if (result != raceResult || ghostScore != raceGhostScore) {
+            raceResult = result;
+            raceGhostScore = ghostScore;
+            uiLayerCache.invalidate();
+        }
+    }
+
+    /**
+     * Starts a race on the course the relay picked. The client must already have started
+     * (see RaceClient.awaitStart()); GameView closes it when the race ends.
+     */
+    public void startRace(RaceClient client) {
+        synchronized (getHolder()) {
+            restartGame();
+            raceClient = client;
+            world = new DeterministicWorld(client.getSeed(), client.getSpawnX());
+            ghostBird = new BirdEntity(spriteCache, screenWidth, screenHeight, renderScale);
+            ghostBird.setTheme(backgroundManager.getCurrentThemeIndex());
+            ghostAlpha = GHOST_ALPHA;
+            raceResult = RaceResult.UNDECIDED;
+            raceGhostScore = 0;
+        }
+        requestRender();
+    }
+
+    /**
+     * Called from the UI thread as well as the game thread, which updates and draws the race
+     * under the holder lock, so the race is detached under it too.
+     */
+    private void endRace() {
+        synchronized (getHolder()) {
+            if (raceClient == null) return;
+            raceClient.close();
+            raceClient = null;
+            ghostBird = null;
+        }
+    }
+
+    /**
+     * Runs started after this use the integer simulation (see DeterministicWorld). Saved in
+     * the preferences; toggled from the main menu.
+     */
+    public void setDeterministicPhysics(boolean enabled) {
+        deterministicPhysics = enabled;
+        prefs.edit().putBoolean(PREF_DETERMINISTIC_PHYSICS, enabled).apply();
+        synchronized (getHolder()) {
+            if (uiLayerCache != null) uiLayerCache.invalidate(); // The menu shows the setting
+        }
+        requestRender();
+    }
+
+    /**
+     * Where a DeterministicWorld must spawn pipes so they appear off this screen's right edge.
+     */
+    public int getPipeSpawnX() {
+        return DeterministicWorld.spawnXFor(DeterministicWorld.visibleWidth(screenWidth, screenHeight));
+    }
+
+    /**
+     * Seed of the current deterministic run, or 0 when running the float physics.
+     */
+    public long getWorldSeed() {
+        return world != null ? world.getSeed() : 0;
+    }
+
+    private void jump() {
+        jumpPending = true;
+        if (world != null) {
+            pendingJump = true; // Applied on the next tick
+        } else {
+            bird.jump();
+        }
+    }
+
+    /**
+     * Sweeps the bird's motion over the next step against the ground and every pipe.
+     * @return Time of the first impact in ticks, or SweptCollision.NO_CONTACT.
+     *         contactWithGround tells what was hit.
+     */
+    private float findFirstContact(float ticks) {
+        float groundTop = screenHeight - groundHeight;
+        float first = sweep.quadraticEntry(bird.getPathA(), bird.getPathB(), bird.y + bird.getBirdHeight(),
+                groundTop, Float.POSITIVE_INFINITY, 0, ticks);
+        contactWithGround = first != SweptCollision.NO_CONTACT;
+
+        for (int i = 0; i < pipes.size(); i++) {
+            // Only contacts earlier than the best one so far matter
+            float window = first == SweptCollision.NO_CONTACT ? ticks : first;
+            float t = pipes.get(i).sweepCollision(bird, sweep, window);
+            if (t != SweptCollision.NO_CONTACT && (first == SweptCollision.NO_CONTACT || t < first)) {
+                first = t;
+                contactWithGround = false;
+            }
+        }
+        return first;
+    }
+
+    private void onBirdHit() {
+        if (contactWithGround) {
+            bird.y = screenHeight - groundHeight - bird.getBirdHeight();
+        }
+        bird.setDead(true);
+        recordDeath(contactWithGround);
+        gameState = GameState.GAME_OVER;
+        mainActivity.onGameOver();
+    }
+
+    // --- TELEMETRY ---
+
+    private void recordInputTelemetry() {
+        if (runStartPending) {
+            runStartPending = false;
+            telemetry.record(Telemetry.RUN_START, backgroundManager.getCurrentThemeIndex(), world != null ? 1 : 0, screenHeight);
+        }
+        if (jumpPending) {
+            jumpPending = false;
+            telemetry.record(Telemetry.JUMP, (int) bird.y, score, 0);
+        }
+    }
+
+    private void recordDeath(boolean onGround) {
+        telemetry.record(Telemetry.DEATH, onGround ? Telemetry.CAUSE_GROUND : Telemetry.CAUSE_PIPE, (int) bird.x, (int) bird.y);
+    }
+
+    private void recordFrameTelemetry(long frameNanos) {
+        statFrames++;
+        statFrameNanos += frameNanos;
+        statWorstFrameNanos = Math.max(statWorstFrameNanos, frameNanos);
+        statDrawCalls += lastDrawCalls;
+        statMostDrawCalls = Math.max(statMostDrawCalls, lastDrawCalls);
+        if (statFrames < FRAME_STATS_INTERVAL) return;
+        telemetry.record(Telemetry.FRAME_STATS, (int) (statFrameNanos / statFrames / 1000),
+                (int) (statWorstFrameNanos / 1000), Math.round(renderScale * 100));
+        telemetry.record(Telemetry.DRAW_CALLS, statDrawCalls / statFrames, statMostDrawCalls, 0);
+        statFrames = 0;
+        statFrameNanos = 0;
+        statWorstFrameNanos = 0;
+        statDrawCalls = 0;
+        statMostDrawCalls = 0;
+    }
+
+    /**
+     * Stops background work for good. Call from Activity.onDestroy().
+     */
+    public void release() {
+        endRace();
+        rescaleExecutor.shutdown();
+        telemetry.close();
+    }
+
+    private void spawnPipes() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastPipeTime > PIPE_INTERVAL_MS) {
+            pipes.add(new PipeEntity(
+                    screenWidth,
+                    screenHeight,
+                    backgroundManager.getTopPipeSprite(),
+                    backgroundManager.getBottomPipeSprite(),
+                    pipeRandom,
+                    renderScale));
+            lastPipeTime = currentTime;
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        super.draw(canvas);
+        if (canvas == null) return;
+        canvasRenderer.setCanvas(canvas);
+        render(canvasRenderer);
+    }
+
+    /**
+     * Draws the current frame with any Renderer, e.g. a SoftwareRenderer the size of the
+     * surface buffer to capture a golden image or count draw calls.
+     */
+    public void render(Renderer renderer) {
+        renderer.resetDrawCallCount();
+        // Right after a resolution change the buffer and the sprites can briefly disagree
+        float fit = renderer.getWidth() / (screenWidth * renderScale);
+        if (Math.abs(fit - 1f) > 0.01f) {
+            renderer.save();
+            renderer.scale(fit);
+            drawFrame(renderer);
+            renderer.restore();
+        } else {
+            drawFrame(renderer);
+        }
+        lastDrawCalls = renderer.getDrawCallCount();
+    }
+
+    /**
+     * Draw calls issued by the last frame.
+     */
+    public int getLastDrawCallCount() {
+        return lastDrawCalls;
+    }
+
+    private void drawFrame(Renderer renderer) {
+        // 1. Always Draw Background
+        // --- NEW LOGIC: The static menu background is baked into the UI layer, others scroll ---
+        if (gameState != GameState.MENU || menuBackground == null || attractMode) {
+            backgroundManager.draw(renderer);
+        }
+        // ---------------------------------------------------------------------
+
+        // 2. State Specific Drawing
+        switch (gameState) {
+            case MENU:
+                if (attractMode) {
+                    for (PipeEntity pipe : pipes) pipe.draw(renderer);
+                    bird.draw(renderer);
+                }
+                drawUiLayer(renderer);
+                break;
+            case CREDITS:
+            case HIGH_SCORES:
+                drawUiLayer(renderer);
+                break;
+            case READY:
+                bird.draw(renderer);
+                scaleToRenderResolution(renderer);
+                drawHUD(renderer);
+                drawReadyMessage(renderer);
+                renderer.restore();
+                break;
+            case PLAYING:
+            case PAUSED:
+                for (PipeEntity pipe : pipes) pipe.draw(renderer);
+                if (ghostBird != null && ghostAlpha > 0) ghostBird.draw(renderer, ghostAlpha);
+                bird.draw(renderer);
+                scaleToRenderResolution(renderer);
+                drawHUD(renderer);
+                renderer.restore();
+                if (gameState == GameState.PAUSED) drawUiLayer(renderer);
+                break;
+            case GAME_OVER:
+                for (PipeEntity pipe : pipes) pipe.draw(renderer);
+                if (ghostBird != null && ghostAlpha > 0) ghostBird.draw(renderer, ghostAlpha);
+                bird.draw(renderer);
+                scaleToRenderResolution(renderer);
+                drawHUD(renderer);
+                renderer.restore();
+                drawUiLayer(renderer);
+                break;
+        }
+    }
+
+    /**
+     * Text and shapes are laid out in view pixels; call renderer.restore() when done.
+     */
+    private void scaleToRenderResolution(Renderer renderer) {
+        renderer.save();
+        renderer.scale(renderScale);
+    }
+
+    /**
+     * The same for drawing straight to a Canvas (the cached UI layer); call canvas.restore()
+     * when done.
+     */
+    private void scaleToRenderResolution(Canvas canvas) {
+        canvas.save();
+        canvas.scale(renderScale, renderScale);
+    }
+
+    /**
+     * Blits the overlay of the current static screen, re-rendering it only when
+     * the state, score or high score changed since it was cached.
+     */
+    private void drawUiLayer(Renderer renderer) {
+        if (!uiLayerCache.isValid(gameState, score, highScore)) {
+            Canvas layerCanvas = uiLayerCache.beginRender(gameState, score, highScore);
+            if (gameState == GameState.MENU && menuBackground != null && !attractMode) {
+                layerCanvas.drawBitmap(menuBackground, 0, 0, null);
+            }
+            scaleToRenderResolution(layerCanvas);
+            uiLayerRenderer.setCanvas(layerCanvas);
+            switch (gameState) {
+                case MENU:
+                    drawMenu(layerCanvas);
+                    break;
+                case CREDITS:
+                    drawCredits(layerCanvas);
+                    break;
+                case HIGH_SCORES:
+                    drawHighScores(layerCanvas);
+                    break;
+                case PAUSED:
+                    drawPauseMenu(layerCanvas);
+                    break;
+                case GAME_OVER:
+                    drawGameOver(layerCanvas, uiLayerRenderer);
+                    break;
+                default:
+                    break;
+            }
+            layerCanvas.restore();
+        }
+        uiLayerCache.draw(renderer);
+    }
+
+    // --- 4. NEW DRAWING HELPER METHODS ---
+
+    private void drawMenu(Canvas canvas) {
+        // Draw Title "Floaty Head"
+        canvas.drawText("Floaty Head", screenWidth / 2f, screenHeight * 0.25f, titlePaint);
+
+        // Draw Buttons
+        drawButton(canvas, btnPlay, "PLAY");
+        drawButton(canvas, btnRace, "RACE");
+        drawButton(canvas, btnScores, "BEST SCORE");
+        drawButton(canvas, btnCredits, "CREDITS");
+        drawButton(canvas, btnExit, "EXIT");
+        drawButton(canvas, btnPhysics, deterministicPhysics ? "PHYSICS: DETERMINISTIC" : "PHYSICS: CLASSIC");
+        drawButton(canvas, btnDemo, attractMode ? "MENU DEMO: ON" : "MENU DEMO: OFF");
+    }
+
+    private void drawCredits(Canvas canvas) {
+        canvas.drawColor(Color.argb(150, 0, 0, 0)); // Dim background
+        canvas.drawText("CREDITS", screenWidth / 2f, screenHeight * 0.2f, titlePaint);
+
+        float startY = screenHeight * 0.4f;
+        float lineHeight = 70;
+
+        canvas.drawText("Created by:", screenWidth / 2f, startY, messagePaint);
+        canvas.drawText("John Claire Abatayo", screenWidth / 2f, startY + lineHeight, messagePaint);
+
+        canvas.drawText("Tools:", screenWidth / 2f, startY + lineHeight * 3, messagePaint);
+        canvas.drawText("Android Studio", screenWidth / 2f, startY + lineHeight * 4, messagePaint);
+        canvas.drawText("Java", screenWidth / 2f, startY + lineHeight * 5, messagePaint);
+
+        drawButton(canvas, btnBack, "BACK");
+    }
+
+    private void drawHighScores(Canvas canvas) {
+        canvas.drawColor(Color.argb(150, 0, 0, 0));
+        canvas.drawText("BEST SCORE", screenWidth / 2f, screenHeight * 0.3f, titlePaint);
+
+        // Draw actual score number huge
+        canvas.drawText(String.valueOf(highScore), screenWidth / 2f, screenHeight * 0.5f, bigScorePaint);
+
+        drawButton(canvas, btnBack, "BACK");
+    }
+
+    private void drawButton(Canvas canvas, RectF rect, String text) {
+        // Draw rounded rectangle
+        canvas.drawRoundRect(rect, 20, 20, buttonBgPaint);
+
+        // Draw centered text
+        Paint.FontMetrics fm = menuButtonPaint.getFontMetrics();
+        float height = fm.descent - fm.ascent;
+        float y = rect.centerY() + (height / 2) - fm.descent;
+        canvas.drawText(text, rect.centerX(), y, menuButtonPaint);
+    }
+
+    private void drawHUD(Renderer renderer) {
+        // Draw Score
+        scoreGlyphs.drawNumber(renderer, score, screenWidth - 40, 100);
+
+        // Draw Pause Button icon
+        if (gameState != GameState.GAME_OVER) {
+            renderer.fillRect(pauseButtonBounds.left, pauseButtonBounds.top, pauseButtonBounds.right, pauseButtonBounds.bottom, PAUSE_BUTTON_COLOR);
+            float lineW = pauseButtonBounds.width() * 0.15f;
+            float lineH = pauseButtonBounds.height() * 0.4f;
+            float centerX = pauseButtonBounds.centerX();
+            float centerY = pauseButtonBounds.centerY();
+            renderer.fillRect(centerX - lineW * 2, centerY - lineH, centerX - lineW, centerY + lineH, PAUSE_ICON_COLOR);
+            renderer.fillRect(centerX + lineW, centerY - lineH, centerX + lineW * 2, centerY + lineH, PAUSE_ICON_COLOR);
+        }
+    }
+
+    private void drawReadyMessage(Renderer renderer) {
+        messageGlyphs.drawLabel(renderer, LABEL_READY, screenWidth / 2f, screenHeight / 2f);
+    }
+
+    private void drawPauseMenu(Canvas canvas) {
+        canvas.drawColor(Color.argb(100, 0, 0, 0));
+        canvas.drawText("PAUSED", screenWidth / 2f, screenHeight * 0.3f, titlePaint);
+
+        // Re-use logic for centered menu text, but simple for now
+        float buttonY = screenHeight / 2f;
+        float menuLineSpacing = 100;
+        canvas.drawText("RESUME", screenWidth / 2f, buttonY + 50, menuButtonPaint);
+        canvas.drawText("RESTART", screenWidth / 2f, buttonY + 50 + menuLineSpacing, menuButtonPaint);
+        canvas.drawText("MAIN MENU", screenWidth / 2f, buttonY + 50 + 2 * menuLineSpacing, menuButtonPaint);
+    }
+
+    private void drawGameOver(Canvas canvas, Renderer renderer) {
+        canvas.drawText("Game Over!", screenWidth / 2f, screenHeight * 0.3f, titlePaint);
+        messageGlyphs.draw(renderer, LABEL_SCORE, score, screenWidth / 2f, screenHeight * 0.45f);
+        messageGlyphs.draw(renderer, LABEL_BEST, highScore, screenWidth / 2f, screenHeight * 0.52f);
+        if (raceClient != null) {
+            canvas.drawText("OPPONENT: " + raceGhostScore + "  " + raceResultText(), screenWidth / 2f, screenHeight * 0.6f, messagePaint);
+        }
+
+        // Simple text buttons for Game Over
+        float centerY = screenHeight * 0.7f;
+        canvas.drawText("PLAY AGAIN", screenWidth / 2f, centerY, menuButtonPaint);
+        canvas.drawText("MAIN MENU", screenWidth / 2f, centerY + 120, menuButtonPaint);
+    }
+
+    private String raceResultText() {
+        switch (raceResult) {
+            case WON: return "YOU WIN!";
+            case LOST: return "YOU LOSE";
+            case TIED: return "TIE";
+            default: return "STILL FLYING...";
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        super.performClick();
+        return true;
+    }
+
+    // --- 5. TOUCH EVENT HANDLING ---
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            float x = event.getX();
+            float y = event.getY();
+
+            switch (gameState) {
+                case MENU:
+                    if (btnPlay.contains(x, y)) {
+                        restartGame(); // Reset everything
+                    } else if (btnRace.contains(x, y)) {
+                        mainActivity.showRaceDialog(); // Calls startRace() once an opponent joins
+                    } else if (btnScores.contains(x, y)) {
+                        gameState = GameState.HIGH_SCORES;
+                    } else if (btnCredits.contains(x, y)) {
+                        gameState = GameState.CREDITS;
+                    } else if (btnExit.contains(x, y)) {
+                        mainActivity.onGameExit();
+                    } else if (btnPhysics.contains(x, y)) {
+                        setDeterministicPhysics(!deterministicPhysics);
+                    } else if (btnDemo.contains(x, y)) {
+                        setAttractMode(!attractMode);
+                    }
+                    break;
+
+                case CREDITS:
+                case HIGH_SCORES:
+                    if (btnBack.contains(x, y)) {
+                        gameState = GameState.MENU;
+                    }
+                    break;
+
+                case READY:
+                    gameState = GameState.PLAYING;
+                    jump();
+                    mainActivity.playFlapSound();
+                    mainActivity.onGameRestart();
+                    break;
+
+                case PLAYING:
+                    if (pauseButtonBounds.contains((int) x, (int) y)) {
+                        // No need to stop the thread: PAUSED is rendered on demand
+                        gameState = GameState.PAUSED;
+                        mainActivity.onGamePause();
+                        requestRender();
+                        return true;
+                    }
+                    jump();
+                    mainActivity.playFlapSound();
+                    break;
+
+                case PAUSED:
+                    float buttonY = screenHeight / 2f;
+                    // Approximate touch zones for text buttons
+                    if (y > buttonY && y < buttonY + 100) { // Resume
+                        gameState = GameState.PLAYING;
+                        thread.resumeGame();
+                        mainActivity.onGameRestart();
+                    } else if (y > buttonY + 100 && y < buttonY + 200) { // Restart
+                        restartGame();
+                        thread.resumeGame();
+                    } else if (y > buttonY + 200 && y < buttonY + 300) { // Main Menu
+                        endRace();
+                        gameState = GameState.MENU;
+                        thread.resumeGame();
+                    }
+                    break;
+
+                case GAME_OVER:
+                    float goCenterY = screenHeight * 0.7f;
+                    // Play Again
+                    if (y > goCenterY - 60 && y < goCenterY + 60) {
+                        restartGame();
+                    }
+                    // Main Menu
+                    else if (y > goCenterY + 60 && y < goCenterY + 180) {
+                        endRace();
+                        gameState = GameState.MENU;
+                    }
+                    break;
+            }
+            // Any tap may have changed what is on screen
+            requestRender();
+            return true;
+        }
+        return false;
+    }
+
+    private void restartGame() {
+        endRace(); // A race is a single run
+        attractWorld = null; // The menu starts a fresh demo after this run
+        score = 0;
+        pipesPassedInTheme = 0;
+        pipes.clear();
+        bird = new BirdEntity(spriteCache, screenWidth, screenHeight, renderScale);
+
+        // Reset background to theme 1 or keep current? Let's reset for fresh start.
+        // We reuse the existing BackgroundManager but trigger a reload if needed
+        synchronized (getHolder()) {
+            // The new images load into the old ones' memory, so the game thread mustn't draw them meanwhile
+            backgroundManager.release();
+            backgroundManager = new BackgroundManager(spriteCache, screenWidth, screenHeight, groundHeight, 1, renderScale);
+        }
+        bird.setTheme(backgroundManager.getCurrentThemeIndex());
+
+        world = deterministicPhysics ? new DeterministicWorld(System.nanoTime(), getPipeSpawnX()) : null;
+        worldTicks = 0;
+        pendingJump = false;
+        worldJumpCount = 0;
+
+        runStartPending = true;
+        gameState = GameState.READY;
+        mainActivity.onGameRestart();
+    }
+
+    public void pause() {
+        if (thread != null) thread.pause();
+        synchronized (getHolder()) {
+            if (gameState == GameState.PLAYING) gameState = GameState.PAUSED;
+            writeSnapshot();
+        }
+        telemetry.flush(); // The process may be killed while in the background
+        if (CAPTURE_TRACE) writeTrace();
+    }
+
+    /**
+     * Exports the capture so far in the background; capturing goes on.
+     */
+    private void writeTrace() {
+        final File file = new File(getContext().getFilesDir(), "trace.json");
+        Thread writer = new Thread(() -> {
+            try {
+                int events = Tracer.writeChromeTrace(file);
+                Log.i("GameView", "Wrote " + events + " trace events to " + file);
+            } catch (IOException e) {
+                Log.w("GameView", "Could not write the trace", e);
+            }
+        }, "TraceWriter");
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    public void resume() {
+        if (thread != null) thread.resumeGame();
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    // --- SAVE STATE ---
+
+    /**
+     * @return The latest snapshot for onSaveInstanceState(), or null if there is no game to resume.
+     */
+    public byte[] getSavedState() {
+        return hasSnapshot ? snapshot.toByteArray() : null;
+    }
+
+    /**
+     * Loads a snapshot saved before process death. It is applied once the surface exists.
+     */
+    public void restoreState(byte[] data) {
+        hasSnapshot = snapshot.read(data) && snapshot.state == GameState.PAUSED;
+        pendingRestore = hasSnapshot;
+    }
+
+    private void writeSnapshot() {
+        // A restored snapshot that hasn't been applied yet is still the real state
+        if (pendingRestore) return;
+
+        hasSnapshot = gameState == GameState.PAUSED && bird != null;
+        if (!hasSnapshot) return;
+
+        long sinceLastPipe = Math.max(0, Math.min(System.currentTimeMillis() - lastPipeTime, PIPE_INTERVAL_MS));
+        snapshot.begin(gameState, backgroundManager.getCurrentThemeIndex(), screenWidth, screenHeight,
+                score, pipesPassedInTheme, (int) sinceLastPipe,
+                bird.x, bird.y, bird.getVelocityY(), bird.isDead());
+        for (PipeEntity pipe : pipes) {
+            snapshot.writePipe(pipe.getX(), pipe.getTopPipeHeight(), pipe.isPassed());
+        }
+        if (world != null) {
+            snapshot.writeWorld(world.getSeed(), world.getSpawnX(), (int) world.getTick(), worldJumps, worldJumpCount);
+        }
+        snapshot.end();
+    }
+
+    private void applySnapshot() {
+        // Rescale in case the surface size changed (e.g. rotation or multi-window)
+        float scaleX = snapshot.screenWidth > 0 ? (float) screenWidth / snapshot.screenWidth : 1f;
+        float scaleY = snapshot.screenHeight > 0 ? (float) screenHeight / snapshot.screenHeight : 1f;
+
+        score = snapshot.score;
+        pipesPassedInTheme = snapshot.pipesPassedInTheme;
+        bird.restore(snapshot.birdX * scaleX, snapshot.birdY * scaleY, snapshot.birdVelocityY * scaleY, snapshot.birdDead);
+
+        pipes.clear();
+        if (snapshot.pipeCount > 0) {
+            // Pipe sprites are shared across all restored pipes
+            Sprite top = backgroundManager.getTopPipeSprite();
+            Sprite bottom = backgroundManager.getBottomPipeSprite();
+            for (int i = 0; i < snapshot.pipeCount; i++) {
+                PipeEntity pipe = new PipeEntity(screenWidth, screenHeight, top, bottom,
+                        snapshot.pipeX[i] * scaleX, snapshot.pipeTopHeight[i] * scaleY, renderScale);
+                pipe.setPassed(snapshot.pipePassed[i]);
+                pipes.add(pipe);
+            }
+        }
+
+        lastPipeTime = System.currentTimeMillis() - snapshot.msSinceLastPipe;
+        // The peer of a race is gone by now, so a race carries on as a solo deterministic run
+        endRace();
+        if (snapshot.hasWorld) replayWorld();
+        else world = null; // The snapshot holds screen positions, so the run carries on with the float physics
+        gameState = GameState.PAUSED;
+    }
+
+    /**
+     * Rebuilds a deterministic run from its seed and jumps. The world is the same on every
+     * device, so this ends exactly where the run was saved, whatever the new screen size.
+     */
+    private void replayWorld() {
+        world = new DeterministicWorld(snapshot.worldSeed, snapshot.worldSpawnX);
+        worldTicks = 0;
+        pendingJump = false;
+        worldJumpCount = 0;
+        pipes.clear();
+        int next = 0;
+        for (int tick = 0; tick < snapshot.worldTicks; tick++) {
+            boolean jump = next < snapshot.jumpCount && snapshot.jumpTicks[next] == tick;
+            if (jump) {
+                recordJump(tick);
+                next++;
+            }
+            followPipes(world, world.step(jump));
+        }
+        score = world.getScore();
+        syncFromWorld(world);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.santarita.flappybird;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.SharedPreferences;
+import android.media.MediaPlayer;
+import android.os.Bundle;
+import android.text.InputType;
+import android.view.WindowInsets;
+import android.view.WindowInsetsController;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.Toast;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MainActivity extends Activity {
+    private static final String KEY_GAME_SNAPSHOT = "game_snapshot";
+
+    // --- RACE: relay and room are remembered for the next race ---
+    private static final String PREF_RACE_RELAY = "race_relay";
+    private static final String PREF_RACE_ROOM = "race_room";
+    private static final long RACE_JOIN_TIMEOUT_MS = 60_000;
+    private static final long RACE_POLL_MS = 250;
+
+    private GameView gameView;
+    private MusicPlayer musicPlayer;
+    private boolean musicStarted = false; // The music starts with the first game
+    private MediaPlayer gameOverSoundPlayer;
+    private MediaPlayer scoreSoundPlayer;
+    // --- 1. Declare the Flap Sound Player ---
+    private MediaPlayer flapSoundPlayer;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        gameView = new GameView(this);
+        if (savedInstanceState != null) {
+            // Resume a paused game after the process was killed in the background
+            gameView.restoreState(savedInstanceState.getByteArray(KEY_GAME_SNAPSHOT));
+        }
+        setContentView(gameView);
+        gameView.setKeepScreenOn(true);
+
+        // Decodes ahead on its own threads, so the first game starts the music without a stall
+        musicPlayer = new MusicPlayer(getResources(), R.raw.background_music);
+
+        // Initialize Game Over Sound
+        try {
+            gameOverSoundPlayer = MediaPlayer.create(this, R.raw.game_over_sound);
+            if (gameOverSoundPlayer != null) gameOverSoundPlayer.setLooping(false);
+        } catch (Exception e) {}
+
+        // Initialize Score Sound
+        try {
+            scoreSoundPlayer = MediaPlayer.create(this, R.raw.point_sound);
+        } catch (Exception e) {}
+
+        // --- 2. Initialize Flap Sound ---
+        try {
+            // Make sure your file is named 'flap_sound' in res/raw/
+            flapSoundPlayer = MediaPlayer.create(this, R.raw.flap_sound);
+        } catch (Exception e) {
+            // Handle missing file
+        }
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+        super.onWindowFocusChanged(hasFocus);
+        if (hasFocus) {
+            setImmersiveMode();
+        }
+    }
+
+    private void setImmersiveMode() {
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.R) {
+            WindowInsetsController controller = getWindow().getInsetsController();
+            if (controller != null) {
+                controller.hide(WindowInsets.Type.statusBars() | WindowInsets.Type.navigationBars());
+                controller.setSystemBarsBehavior(WindowInsetsController.BEHAVIOR_SHOW_TRANSIENT_BARS_BY_SWIPE);
+            }
+        }
+    }
+
+    private void startMusic() {
+        musicStarted = true;
+        musicPlayer.play();
+    }
+
+    public void playScoreSound() {
+        if (scoreSoundPlayer != null) {
+            Tracer.begin("playScoreSound");
+            try {
+                if (scoreSoundPlayer.isPlaying()) {
+                    scoreSoundPlayer.seekTo(0);
+                }
+                scoreSoundPlayer.start();
+            } finally {
+                Tracer.end();
+            }
+        }
+    }
+
+    // --- 3. Add Method to Play Flap Sound ---
+    public void playFlapSound() {
+        if (flapSoundPlayer != null) {
+            Tracer.begin("playFlapSound");
+            try {
+                // Reset to start if the user taps quickly
+                if (flapSoundPlayer.isPlaying()) {
+                    flapSoundPlayer.seekTo(0);
+                }
+                flapSoundPlayer.start();
+            } finally {
+                Tracer.end();
+            }
+        }
+    }
+
+    public void onGameOver() {
+        Tracer.begin("onGameOver sounds");
+        try {
+            if (musicPlayer != null && musicPlayer.isPlaying()) musicPlayer.pause();
+            if (gameOverSoundPlayer != null) {
+                gameOverSoundPlayer.seekTo(0);
+                gameOverSoundPlayer.start();
+            }
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    public void onGamePause() {
+        if (musicPlayer != null && musicPlayer.isPlaying()) musicPlayer.pause();
+    }
+
+    public void onGameRestart() {
+        Tracer.begin("onGameRestart sounds");
+        try {
+            if (gameOverSoundPlayer != null && gameOverSoundPlayer.isPlaying()) {
+                gameOverSoundPlayer.pause();
+                gameOverSoundPlayer.seekTo(0);
+            }
+            if (!musicStarted) startMusic();
+            else if (!musicPlayer.isPlaying()) musicPlayer.play();
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    // --- RACE ---
+
+    /**
+     * Asks for the relay (host or host:port) and a room, then waits in the background for an
+     * opponent to join the same room. Called from the RACE button on the main menu.
+     */
+    public void showRaceDialog() {
+        final SharedPreferences prefs = getSharedPreferences("FlappyPrefs", MODE_PRIVATE);
+        final EditText relay = new EditText(this);
+        relay.setHint("Relay (host or host:port)");
+        relay.setSingleLine(true);
+        relay.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_URI);
+        relay.setText(prefs.getString(PREF_RACE_RELAY, ""));
+        final EditText room = new EditText(this);
+        room.setHint("Room number");
+        room.setInputType(InputType.TYPE_CLASS_NUMBER);
+        room.setText(prefs.getString(PREF_RACE_ROOM, "1"));
+
+        LinearLayout form = new LinearLayout(this);
+        form.setOrientation(LinearLayout.VERTICAL);
+        form.setPadding(48, 16, 48, 0);
+        form.addView(relay);
+        form.addView(room);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Race")
+                .setMessage("Both players enter the same relay and room.")
+                .setView(form)
+                .setPositiveButton("JOIN", (dialog, which) -> {
+                    String relayText = relay.getText().toString().trim();
+                    String roomText = room.getText().toString().trim();
+                    prefs.edit().putString(PREF_RACE_RELAY, relayText).putString(PREF_RACE_ROOM, roomText).apply();
+                    joinRace(relayText, roomText);
+                })
+                .setNegativeButton("CANCEL", null)
+                .show();
+    }
+
+    private void joinRace(String relayText, String roomText) {
+        String host = relayText;
+        int port = RaceProtocol.DEFAULT_PORT;
+        int room;
+        try {
+            int colon = relayText.lastIndexOf(':');
+            if (colon >= 0) {
+                host = relayText.substring(0, colon);
+                port = Integer.parseInt(relayText.substring(colon + 1));
+            }
+            room = Integer.parseInt(roomText);
+        } catch (NumberFormatException e) {
+            Toast.makeText(this, "Check the port and room number", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (host.isEmpty() || port <= 0 || port > 0xFFFF) {
+            Toast.makeText(this, "Enter the relay's address", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        final AlertDialog waiting = new AlertDialog.Builder(this)
+                .setMessage("Waiting for an opponent in room " + room + "...")
+                .setCancelable(false)
+                .setNegativeButton("CANCEL", (dialog, which) -> cancelled.set(true))
+                .show();
+
+        final String raceHost = host;
+        final int racePort = port;
+        final int spawnX = gameView.getPipeSpawnX();
+        // Resolving the host and waiting for the relay are network calls, so off the UI thread
+        new Thread(() -> {
+            RaceClient client = new RaceClient(raceHost, racePort, room, spawnX);
+            boolean started = false;
+            try {
+                client.start();
+                long deadline = System.currentTimeMillis() + RACE_JOIN_TIMEOUT_MS;
+                while (!started && client.isRunning() && !cancelled.get() && System.currentTimeMillis() < deadline) {
+                    started = client.awaitStart(RACE_POLL_MS);
+                }
+            } catch (IOException e) {
+                // Unknown host or no network; reported below like a timeout
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final boolean paired = started && !cancelled.get();
+            if (!paired) client.close(); // Tells the relay to stop holding the room for us
+
+            runOnUiThread(() -> {
+                if (waiting.isShowing()) waiting.dismiss();
+                if (paired && !isFinishing()) {
+                    gameView.startRace(client);
+                } else if (paired) {
+                    client.close();
+                } else if (!cancelled.get()) {
+                    Toast.makeText(this, "No opponent joined room " + room, Toast.LENGTH_LONG).show();
+                }
+            });
+        }, "RaceJoin").start();
+    }
+
+    public void onGameExit() {
+        if (musicPlayer != null && musicPlayer.isPlaying()) musicPlayer.pause();
+        finish();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        gameView.pause();
+        if (musicPlayer != null && musicPlayer.isPlaying()) musicPlayer.pause();
+        if (gameOverSoundPlayer != null && gameOverSoundPlayer.isPlaying()) gameOverSoundPlayer.pause();
+        if (scoreSoundPlayer != null && scoreSoundPlayer.isPlaying()) scoreSoundPlayer.pause();
+        // --- Pause Flap Player ---
+        if (flapSoundPlayer != null && flapSoundPlayer.isPlaying()) flapSoundPlayer.pause();
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        byte[] snapshot = gameView.getSavedState();
+        if (snapshot != null) outState.putByteArray(KEY_GAME_SNAPSHOT, snapshot);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        gameView.resume();
+        // A game interrupted by onPause() comes back PAUSED, so keep the music off until RESUME is tapped
+        if (gameView.getGameState() == GameView.GameState.PAUSED) return;
+        if (musicStarted && !musicPlayer.isPlaying() && (gameOverSoundPlayer == null || !gameOverSoundPlayer.isPlaying())) {
+            musicPlayer.play();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        gameView.release();
+        if (musicPlayer != null) { musicPlayer.release(); musicPlayer = null; }
+        if (gameOverSoundPlayer != null) { gameOverSoundPlayer.stop(); gameOverSoundPlayer.release(); gameOverSoundPlayer = null; }
+        if (scoreSoundPlayer != null) { scoreSoundPlayer.release(); scoreSoundPlayer = null; }
+
+        // --- 4. Release Flap Player ---
+        if (flapSoundPlayer != null) {
+            flapSoundPlayer.release();
+            flapSoundPlayer = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,279 @@
+package com.santarita.flappybird;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.Resources;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Looping background music from a raw resource. MediaCodec decodes it ahead into a
+ * MusicStream on the stream's thread, and an output thread writes it to a streaming
+ * AudioTrack. Nothing is decoded or opened on the calling thread, so creating the player
+ * and starting the music don't stall the UI.
+ *
+ * pause() and play() pause and resume the AudioTrack itself, so they take effect at once and
+ * resume on the next sample; meanwhile the decoder fills the ring and sleeps.
+ */
+public class MusicPlayer {
+    private static final String TAG = "MusicPlayer";
+    private static final int RING_SAMPLES = 1 << 16;  // ~0.75 s of 44.1 kHz stereo
+    private static final int CHUNK_SAMPLES = 2048;    // Per AudioTrack write
+
+    private final DecoderSource source;
+    private final MusicStream stream;
+    private final Thread output;
+    private volatile boolean running = true;
+
+    // Guarded by this
+    private AudioTrack track;
+    private boolean playing = false;
+
+    public MusicPlayer(Resources resources, int resId) {
+        source = new DecoderSource(resources, resId);
+        stream = new MusicStream(source, RING_SAMPLES, true);
+        output = new Thread(this::outputLoop, "MusicOutput");
+        output.setPriority(Thread.MAX_PRIORITY);
+        output.setDaemon(true);
+        stream.start();
+        output.start();
+    }
+
+    public synchronized void play() {
+        playing = true;
+        if (track != null) track.play();
+    }
+
+    public synchronized void pause() {
+        playing = false;
+        if (track != null) track.pause();
+    }
+
+    public synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Stops both threads; the player can't be used afterwards.
+     */
+    public void release() {
+        running = false;
+        synchronized (this) {
+            playing = false;
+            if (track != null) track.stop(); // Unblocks a pending write
+        }
+        stream.close();
+    }
+
+    private void outputLoop() {
+        short[] chunk = new short[CHUNK_SAMPLES];
+        AudioTrack audio = null;
+        try {
+            while (running) {
+                int count = stream.read(chunk, 0, chunk.length);
+                if (count == 0) {
+                    if (stream.getError() != null) Log.w(TAG, "Music decoding failed", stream.getError());
+                    break;
+                }
+                // The source knows its format once the first samples are out
+                if (audio == null && (audio = createTrack()) == null) break;
+                // Blocks while the track is full, including while it is paused
+                for (int offset = 0; offset < count && running; ) {
+                    int done = audio.write(chunk, offset, count - offset);
+                    if (done <= 0) break;
+                    offset += done;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                track = null;
+            }
+            if (audio != null) audio.release();
+        }
+    }
+
+    private AudioTrack createTrack() {
+        int channelConfig;
+        if (source.channels == 1) channelConfig = AudioFormat.CHANNEL_OUT_MONO;
+        else if (source.channels == 2) channelConfig = AudioFormat.CHANNEL_OUT_STEREO;
+        else {
+            Log.w(TAG, "Unsupported channel count " + source.channels);
+            return null;
+        }
+        int minBytes = AudioTrack.getMinBufferSize(source.sampleRate, channelConfig, AudioFormat.ENCODING_PCM_16BIT);
+        AudioTrack audio = new AudioTrack(AudioManager.STREAM_MUSIC, source.sampleRate, channelConfig,
+                AudioFormat.ENCODING_PCM_16BIT, Math.max(minBytes, CHUNK_SAMPLES * 2 * 2), AudioTrack.MODE_STREAM);
+        if (audio.getState() != AudioTrack.STATE_INITIALIZED) {
+            audio.release();
+            Log.w(TAG, "Could not create the audio track");
+            return null;
+        }
+        synchronized (this) {
+            if (!running) {
+                audio.release();
+                return null;
+            }
+            track = audio;
+            if (playing) audio.play();
+        }
+        return audio;
+    }
+
+    /**
+     * Decodes the resource with MediaExtractor and MediaCodec on the stream's decoder thread.
+     * The encoder delay and padding the container reports (MP3 and AAC priming samples) are
+     * trimmed from every pass, so consecutive passes join without a gap.
+     */
+    private static final class DecoderSource implements MusicStream.PcmSource {
+        private static final long TIMEOUT_US = 10_000;
+        private static final String KEY_ENCODER_DELAY = "encoder-delay";     // Frames
+        private static final String KEY_ENCODER_PADDING = "encoder-padding"; // Frames
+
+        private final Resources resources;
+        private final int resId;
+        private final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        private MediaExtractor extractor;
+        private MediaCodec codec;
+        private boolean inputDone, outputDone;
+
+        volatile int sampleRate, channels;
+        private int delaySamples, paddingSamples;
+        private int skip; // Samples still to drop at the start of this pass
+
+        // Decoded samples not handed out yet; the last paddingSamples are held back until
+        // more arrive, and dropped at the end of the pass
+        private short[] pending = new short[0];
+        private int pendingCount = 0;
+
+        DecoderSource(Resources resources, int resId) {
+            this.resources = resources;
+            this.resId = resId;
+        }
+
+        @Override
+        public int read(short[] buffer, int offset, int length) throws IOException {
+            if (codec == null) open();
+            while (true) {
+                int ready = pendingCount - paddingSamples;
+                if (ready > 0) {
+                    int count = Math.min(ready, length);
+                    System.arraycopy(pending, 0, buffer, offset, count);
+                    pendingCount -= count;
+                    System.arraycopy(pending, count, pending, 0, pendingCount);
+                    return count;
+                }
+                if (outputDone) return -1;
+                feedInput();
+                drainOutput();
+            }
+        }
+
+        @Override
+        public void rewind() {
+            extractor.seekTo(0, MediaExtractor.SEEK_TO_CLOSEST_SYNC);
+            codec.flush();
+            inputDone = false;
+            outputDone = false;
+            pendingCount = 0;
+            skip = delaySamples;
+        }
+
+        @Override
+        public void close() {
+            if (codec != null) {
+                codec.stop();
+                codec.release();
+                codec = null;
+            }
+            if (extractor != null) {
+                extractor.release();
+                extractor = null;
+            }
+        }
+
+        private void open() throws IOException {
+            extractor = new MediaExtractor();
+            try (AssetFileDescriptor file = resources.openRawResourceFd(resId)) {
+                extractor.setDataSource(file.getFileDescriptor(), file.getStartOffset(), file.getLength());
+            }
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat candidate = extractor.getTrackFormat(i);
+                String mime = candidate.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    extractor.selectTrack(i);
+                    format = candidate;
+                    break;
+                }
+            }
+            if (format == null) throw new IOException("No audio track in resource " + resId);
+
+            sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            int delay = format.containsKey(KEY_ENCODER_DELAY) ? format.getInteger(KEY_ENCODER_DELAY) : 0;
+            int padding = format.containsKey(KEY_ENCODER_PADDING) ? format.getInteger(KEY_ENCODER_PADDING) : 0;
+            delaySamples = delay * channels;
+            paddingSamples = padding * channels;
+            skip = delaySamples;
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+        }
+
+        private void feedInput() {
+            if (inputDone) return;
+            int index = codec.dequeueInputBuffer(TIMEOUT_US);
+            if (index < 0) return;
+            ByteBuffer input = codec.getInputBuffer(index);
+            int size = extractor.readSampleData(input, 0);
+            if (size < 0) {
+                codec.queueInputBuffer(index, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                inputDone = true;
+            } else {
+                codec.queueInputBuffer(index, 0, size, extractor.getSampleTime(), 0);
+                extractor.advance();
+            }
+        }
+
+        private void drainOutput() {
+            int index = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+            if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                MediaFormat format = codec.getOutputFormat();
+                sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                return;
+            }
+            if (index < 0) return;
+
+            ByteBuffer output = codec.getOutputBuffer(index);
+            output.position(info.offset);
+            output.limit(info.offset + info.size);
+            ShortBuffer samples = output.order(ByteOrder.nativeOrder()).asShortBuffer();
+            int dropped = Math.min(skip, samples.remaining());
+            samples.position(dropped);
+            skip -= dropped;
+
+            int count = samples.remaining();
+            if (pending.length < pendingCount + count) {
+                // Grows to one output buffer plus the padding during the first pass, then stays
+                short[] grown = new short[pendingCount + count];
+                System.arraycopy(pending, 0, grown, 0, pendingCount);
+                pending = grown;
+            }
+            samples.get(pending, pendingCount, count);
+            pendingCount += count;
+            codec.releaseOutputBuffer(index, false);
+            if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) outputDone = true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.santarita.flappybird;
+
+import android.graphics.Rect;
+import java.util.Random;
+
+public class PipeEntity {
+    // REMOVED fixed pixel constants (400, 600) to fix difficulty on different screens
+    private static final float PIPE_SCROLL_SPEED = 10f;
+
+    public float x;
+    private final float topPipeHeight;
+    private final float pipeGap;
+    private float pipeWidth;
+
+    private final Sprite topPipeSprite;
+    private final Sprite bottomPipeSprite;
+
+    private boolean passed = false;
+    private final int screenHeight;
+
+    // Render resolution relative to the simulation (see ResolutionScaler)
+    private float renderScale;
+
+    // Reused by draw() and checkCollision() so the game loop doesn't allocate
+    private final Rect topPipeBounds = new Rect();
+    private final Rect bottomPipeBounds = new Rect();
+
+    /**
+     * @param topSprite Top pipe image, already scaled to the rendered pipe width and color keyed
+     *                  (see BackgroundManager.getTopPipeSprite()). Shared between pipes.
+     * @param random Source of the gap height, owned by the caller and reused for every pipe.
+     */
+    public PipeEntity(int screenWidth, int screenHeight, Sprite topSprite, Sprite bottomSprite, Random random, float renderScale) {
+        this(screenWidth, screenHeight, topSprite, bottomSprite, screenWidth, randomTopPipeHeight(screenHeight, random), renderScale);
+    }
+
+    /**
+     * Creates a pipe at a known position, e.g. when restoring a saved game.
+     */
+    public PipeEntity(int screenWidth, int screenHeight, Sprite topSprite, Sprite bottomSprite, float x, float topPipeHeight, float renderScale) {
+        Tracer.begin("new PipeEntity");
+        try {
+            this.screenHeight = screenHeight;
+            this.renderScale = renderScale;
+
+            // Define a fixed pipe width
+            pipeWidth = pipeWidthFor(screenWidth);
+
+            // --- FIX 1: DYNAMIC GAP SIZE ---
+            // Make the gap 25% of the screen height.
+            // This ensures the gap is always passable regardless of screen resolution.
+            this.pipeGap = screenHeight * 0.25f;
+
+            // Sprites come scaled and keyed from the SpriteCache; they are stretched into place when drawn
+            this.topPipeSprite = topSprite;
+            this.bottomPipeSprite = bottomSprite;
+
+            this.x = x;
+            this.topPipeHeight = topPipeHeight;
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    public static float pipeWidthFor(int screenWidth) {
+        return screenWidth / 6f;
+    }
+
+    private static float randomTopPipeHeight(int screenHeight, Random random) {
+        // --- FIX 2: SAFER RANDOM RANGES ---
+        // Ensure the gap doesn't spawn too high or too low
+        int minPipeHeight = (int) (screenHeight * 0.15f); // Minimum pipe length
+        int maxPipeHeight = (int) (screenHeight * 0.6f);  // Maximum pipe length
+
+        // Randomly choose the bottom of the top pipe
+        return minPipeHeight + random.nextInt(maxPipeHeight - minPipeHeight);
+    }
+
+    public void update() {
+        update(1f);
+    }
+
+    public void update(float ticks) {
+        x -= PIPE_SCROLL_SPEED * ticks;
+    }
+
+    public void draw(Renderer renderer) {
+        if (renderer != null) {
+            updateBounds(renderScale);
+
+            // Draw Top Pipe
+            renderer.drawSprite(topPipeSprite, topPipeBounds.left, topPipeBounds.top, topPipeBounds.right, topPipeBounds.bottom);
+
+            // Draw Bottom Pipe
+            renderer.drawSprite(bottomPipeSprite, bottomPipeBounds.left, bottomPipeBounds.top, bottomPipeBounds.right, bottomPipeBounds.bottom);
+        }
+    }
+
+    private void updateBounds(float scale) {
+        topPipeBounds.set((int) (x * scale), 0, (int) ((x + pipeWidth) * scale), (int) (topPipeHeight * scale));
+        float bottomPipeY = topPipeHeight + pipeGap;
+        bottomPipeBounds.set((int) (x * scale), (int) (bottomPipeY * scale), (int) ((x + pipeWidth) * scale), (int) (screenHeight * scale));
+    }
+
+    public boolean checkCollision(BirdEntity bird) {
+        updateBounds(1f);
+
+        return bird.collidesWith(topPipeBounds) || bird.collidesWith(bottomPipeBounds);
+    }
+
+    /**
+     * Continuous version of checkCollision() for the bird's motion over the next update.
+     * Both the pipe and the (living) bird are at their start-of-step positions.
+     * @return First time (in ticks, within [0, ticks]) at which the bird's pixels touch the pipe,
+     *         or SweptCollision.NO_CONTACT.
+     */
+    public float sweepCollision(BirdEntity bird, SweptCollision sweep, float ticks) {
+        updateBounds(1f);
+        float top = sweepRect(bird, sweep, topPipeBounds, ticks);
+        float bottom = sweepRect(bird, sweep, bottomPipeBounds, ticks);
+        if (top == SweptCollision.NO_CONTACT) return bottom;
+        if (bottom == SweptCollision.NO_CONTACT) return top;
+        return Math.min(top, bottom);
+    }
+
+    private float sweepRect(BirdEntity bird, SweptCollision sweep, Rect rect, float ticks) {
+        // In the pipe's frame the bird moves right at the scroll speed
+        float birdWidth = bird.getMaskWidth();
+        float birdHeight = bird.getMaskHeight();
+        float xStart = sweep.linearEntry(bird.x, PIPE_SCROLL_SPEED, rect.left - birdWidth, rect.right, 0, ticks);
+        if (xStart == SweptCollision.NO_CONTACT) return SweptCollision.NO_CONTACT;
+        float xEnd = sweep.linearExit(bird.x, PIPE_SCROLL_SPEED, rect.left - birdWidth, rect.right, xStart, ticks);
+
+        // Bounding boxes first touch at t; from there walk the path in sub-pixel steps for the exact pixel contact
+        float t = sweep.quadraticEntry(bird.getPathA(), bird.getPathB(), bird.y,
+                rect.top - birdHeight, rect.bottom, xStart, xEnd);
+        if (t == SweptCollision.NO_CONTACT) return SweptCollision.NO_CONTACT;
+
+        float maxSpeed = Math.max(PIPE_SCROLL_SPEED, Math.max(Math.abs(bird.getPathB() + 2 * bird.getPathA() * t),
+                Math.abs(bird.getPathB() + 2 * bird.getPathA() * xEnd)));
+        float dt = 1f / Math.max(1f, maxSpeed);
+        for (; t <= xEnd; t += dt) {
+            if (bird.collidesWithAt(rect, (int) (bird.x + PIPE_SCROLL_SPEED * t), (int) bird.yAt(t))) return t;
+        }
+        return bird.collidesWithAt(rect, (int) (bird.x + PIPE_SCROLL_SPEED * xEnd), (int) bird.yAt(xEnd))
+                ? xEnd : SweptCollision.NO_CONTACT;
+    }
+
+    public float getX() { return x; }
+    public float getWidth() { return pipeWidth; }
+    public float getTopPipeHeight() { return topPipeHeight; }
+    public boolean isPassed() { return passed; }
+    /** Existing pipes keep their bitmaps; they are stretched to the new scale when drawn. */
+    public void setRenderScale(float renderScale) { this.renderScale = renderScale; }
+    public void setWidth(float pipeWidth) { this.pipeWidth = pipeWidth; }
+    public void setPassed(boolean passed) { this.passed = passed; }
+}
\ No newline at end of file
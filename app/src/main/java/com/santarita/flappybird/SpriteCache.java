@@ -0,0 +1,352 @@
+package com.santarita.flappybird;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads sprites already decoded, scaled and color keyed for this screen.
+ * Processed pixels are persisted to app storage, so later launches map the raw pixel file
+ * and copy it straight into a bitmap instead of decoding, scaling and keying the PNG again.
+ * Color keyed sprites (bird frames, pipes) are small and shared between entities, so they
+ * are also kept in memory for the session; full-screen images are not. Instead their owners
+ * release() them when they are replaced (theme switches, restarts, render scale changes), and
+ * the next load of the same size reads or decodes into that memory instead of allocating.
+ *
+ * Images are decoded close to the target size (see decode()), and opaque ones as 16-bit
+ * RGB_565, so loading never holds a full-resolution copy of an image.
+ *
+ * Files are keyed by asset name, target size, color keying, pixel format, screen size,
+ * ASSET_VERSION and the app's install stamp. The stamp changes with every install or update,
+ * so new drawables never meet sprites processed from the old ones. Files for another screen
+ * size, asset version or install are deleted by pruneStale().
+ */
+public class SpriteCache {
+    // Bump whenever the processing below changes (changed drawables are covered by the install stamp)
+    static final int ASSET_VERSION = 2;
+
+    private static final int MAGIC = 0x53505258; // "SPRX"
+    private static final int HEADER_SIZE = 4 * 4; // magic, width, height, config
+    private static final String EXTENSION = ".px";
+    private static final int MAX_REUSABLE = 4; // Released bitmaps kept for reuse
+
+    private final Resources resources;
+    private final File directory;
+    private final int screenWidth, screenHeight;
+    private final String suffix;
+    private final Map<String, Bitmap> memory = new HashMap<>();
+    private final Map<Integer, int[]> sourceSizes = new HashMap<>();
+    private final Map<String, CollisionMask> masks = new HashMap<>();
+    private final List<Bitmap> reusable = new ArrayList<>();  // Oldest first
+    private final Set<Bitmap> writing = new HashSet<>();      // Still being copied to a file
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    /**
+     * @param installStamp Changes whenever the APK (and so its drawables) does, e.g.
+     *                     PackageInfo.lastUpdateTime.
+     */
+    public SpriteCache(Resources resources, File directory, int screenWidth, int screenHeight, long installStamp) {
+        this.resources = resources;
+        this.directory = directory;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.suffix = "_s" + screenWidth + "x" + screenHeight + "_v" + ASSET_VERSION
+                + "_i" + Long.toString(installStamp, 36) + EXTENSION;
+        if (!directory.exists()) directory.mkdirs();
+    }
+
+    /**
+     * @param width Target width in pixels.
+     * @param height Target height in pixels, or 0 to keep the source aspect ratio.
+     * @param colorKey True to make near-black pixels transparent. Other images are
+     *                 decoded as RGB_565 unless they have an alpha channel.
+     */
+    public synchronized Bitmap load(int resId, int width, int height, boolean colorKey) {
+        width = Math.max(1, width);
+        if (height <= 0) {
+            int[] size = getSourceSize(resId);
+            height = Math.round(size[1] * (width / (float) size[0]));
+        }
+        height = Math.max(1, height);
+
+        String key = resources.getResourceEntryName(resId) + "_" + width + "x" + height
+                + (colorKey ? "_k" : "_o") + suffix;
+        Bitmap sprite = colorKey ? memory.get(key) : null;
+        if (sprite != null) return sprite;
+
+        File file = new File(directory, key);
+        Tracer.begin("SpriteCache.readFile");
+        try {
+            sprite = readFile(file);
+        } finally {
+            Tracer.end();
+        }
+        if (sprite == null) {
+            Tracer.begin("SpriteCache.decode");
+            try {
+                sprite = decode(resId, width, height, colorKey);
+            } finally {
+                Tracer.end();
+            }
+            writeFileAsync(file, sprite);
+        }
+        if (colorKey) memory.put(key, sprite);
+        return sprite;
+    }
+
+    /**
+     * Collision mask of the color keyed sprite at this size, built once per session.
+     */
+    public synchronized CollisionMask loadMask(int resId, int width, int height) {
+        String key = resId + "_" + width + "x" + height;
+        CollisionMask mask = masks.get(key);
+        if (mask == null) {
+            Bitmap sprite = load(resId, width, height, true);
+            int[] argb = new int[sprite.getWidth() * sprite.getHeight()];
+            sprite.getPixels(argb, 0, sprite.getWidth(), 0, 0, sprite.getWidth(), sprite.getHeight());
+            mask = CollisionMask.fromArgb(argb, sprite.getWidth(), sprite.getHeight());
+            masks.put(key, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * Hands back a bitmap from load() that won't be drawn again. A later load of the same size
+     * and format may reuse its memory. Color keyed sprites are shared, so they are left alone.
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        if (memory.containsValue(bitmap) || writing.contains(bitmap) || reusable.contains(bitmap)) return;
+        if (reusable.size() >= MAX_REUSABLE) reusable.remove(0);
+        reusable.add(bitmap);
+    }
+
+    private Bitmap takeReusable(int width, int height, Bitmap.Config config) {
+        for (int i = reusable.size() - 1; i >= 0; i--) {
+            Bitmap bitmap = reusable.get(i);
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+                return reusable.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads only the image header.
+     * @return {width, height} of the image file in pixels, before any density scaling.
+     */
+    public synchronized int[] getSourceSize(int resId) {
+        int[] size = sourceSizes.get(resId);
+        if (size == null) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            options.inScaled = false;
+            Tracer.begin("SpriteCache.decodeBounds");
+            try {
+                BitmapFactory.decodeResource(resources, resId, options);
+            } finally {
+                Tracer.end();
+            }
+            size = new int[]{options.outWidth, options.outHeight};
+            sourceSizes.put(resId, size);
+        }
+        return size;
+    }
+
+    public boolean isFor(int screenWidth, int screenHeight) {
+        return this.screenWidth == screenWidth && this.screenHeight == screenHeight;
+    }
+
+    /**
+     * Finishes pending writes in the background and stops the writer thread.
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * Deletes cached files built for another screen size, asset version or install.
+     */
+    public void pruneStale() {
+        writer.execute(() -> {
+            File[] files = directory.listFiles();
+            if (files == null) return;
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(EXTENSION) && !name.endsWith(suffix)) file.delete();
+            }
+        });
+    }
+
+    /**
+     * Drops the in-memory copies (files stay on disk).
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+        reusable.clear();
+    }
+
+    /**
+     * Decodes at about the target size instead of full resolution: power-of-two subsampling
+     * while the image stays at least as large as the target, then the decoder's own density
+     * scaling to the target width. Only a target-sized copy is made when the aspect ratio
+     * changes too (full-screen backgrounds).
+     */
+    private Bitmap decode(int resId, int width, int height, boolean colorKey) {
+        int[] size = getSourceSize(resId);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(size[0], size[1], width, height);
+        int sampledWidth = Math.max(1, size[0] / options.inSampleSize);
+        int sampledHeight = Math.max(1, size[1] / options.inSampleSize);
+        if (sampledWidth != width) {
+            options.inDensity = sampledWidth;
+            options.inTargetDensity = width;
+        } else {
+            options.inScaled = false;
+        }
+        // The decoder still picks ARGB_8888 for images with alpha
+        options.inPreferredConfig = colorKey ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
+        options.inMutable = true; // Keyed in place, and reusable once released
+        if (Math.round(sampledHeight * (width / (float) sampledWidth)) == height) {
+            options.inBitmap = takeReusable(width, height, options.inPreferredConfig);
+        }
+
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        } catch (IllegalArgumentException e) {
+            // The image didn't fit the reused bitmap after all (e.g. it has alpha)
+            if (options.inBitmap == null) throw e;
+            reusable.add(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        }
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+            if (scaled != bitmap) bitmap.recycle();
+            bitmap = scaled;
+        }
+        return colorKey ? makeTransparent(bitmap) : bitmap;
+    }
+
+    /**
+     * Largest power of two that keeps both sides at least the target size.
+     */
+    static int sampleSize(int sourceWidth, int sourceHeight, int width, int height) {
+        int sample = 1;
+        while (sourceWidth / (sample * 2) >= width && sourceHeight / (sample * 2) >= height) sample *= 2;
+        return sample;
+    }
+
+    private Bitmap readFile(File file) {
+        if (!file.exists()) return null;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             FileChannel channel = in.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.remaining() < HEADER_SIZE || mapped.getInt() != MAGIC) return null;
+
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            Bitmap.Config config = configFromCode(mapped.getInt());
+            if (config == null || width <= 0 || height <= 0) return null;
+
+            Bitmap bitmap = takeReusable(width, height, config);
+            if (bitmap == null) bitmap = Bitmap.createBitmap(width, height, config);
+            if (mapped.remaining() < bitmap.getByteCount()) {
+                bitmap.recycle();
+                return null;
+            }
+            bitmap.copyPixelsFromBuffer(mapped);
+            return bitmap;
+        } catch (IOException | RuntimeException e) {
+            // Corrupt or truncated entry, rebuild it
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeFileAsync(final File file, final Bitmap sprite) {
+        final int code = codeFromConfig(sprite.getConfig());
+        if (code < 0) return;
+        writing.add(sprite);
+        writer.execute(() -> {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + sprite.getByteCount()).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(sprite.getWidth());
+            buffer.putInt(sprite.getHeight());
+            buffer.putInt(code);
+            sprite.copyPixelsToBuffer(buffer);
+            buffer.flip();
+            synchronized (SpriteCache.this) {
+                writing.remove(sprite);
+            }
+
+            // Write to a temp file first so a crash never leaves a half-written entry
+            File temp = new File(file.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp);
+                 FileChannel channel = out.getChannel()) {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            } catch (IOException e) {
+                temp.delete();
+                return;
+            }
+            if (!temp.renameTo(file)) temp.delete();
+        });
+    }
+
+    private static int codeFromConfig(Bitmap.Config config) {
+        if (config == Bitmap.Config.ARGB_8888) return 0;
+        if (config == Bitmap.Config.RGB_565) return 1;
+        return -1;
+    }
+
+    private static Bitmap.Config configFromCode(int code) {
+        switch (code) {
+            case 0: return Bitmap.Config.ARGB_8888;
+            case 1: return Bitmap.Config.RGB_565;
+            default: return null;
+        }
+    }
+
+    /**
+     * Near-black pixels become transparent (the sprites have black backgrounds).
+     * Keys the bitmap in place when it is mutable.
+     */
+    private static Bitmap makeTransparent(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        Bitmap newBitmap = bitmap.isMutable() && bitmap.getConfig() == Bitmap.Config.ARGB_8888
+                ? bitmap : Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        newBitmap.setHasAlpha(true); // A decoded opaque image is drawn ignoring alpha otherwise
+        int[] pixels = new int[width * height];
+        bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+        for (int i = 0; i < pixels.length; i++) {
+            int pixel = pixels[i];
+            int r = Color.red(pixel);
+            int g = Color.green(pixel);
+            int b = Color.blue(pixel);
+            if (r < 15 && g < 15 && b < 15) pixels[i] = Color.TRANSPARENT;
+        }
+        newBitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+        return newBitmap;
+    }
+}
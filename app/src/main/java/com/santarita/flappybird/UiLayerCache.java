@@ -0,0 +1,66 @@
+package com.santarita.flappybird;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+/**
+ * Offscreen layer holding the pre-rendered overlay of a static UI screen
+ * (menu, credits, best score, pause and game over).
+ * The overlay is rasterized once and then composited with a single blit per frame
+ * until the state or the numbers shown on it change.
+ */
+public class UiLayerCache {
+    private final Bitmap layer;
+    private final Canvas layerCanvas;
+    private final Sprite layerSprite;
+
+    // What the layer currently contains
+    private GameView.GameState cachedState = null;
+    private int cachedScore = -1;
+    private int cachedHighScore = -1;
+
+    public UiLayerCache(int screenWidth, int screenHeight) {
+        layer = Bitmap.createBitmap(screenWidth, screenHeight, Bitmap.Config.ARGB_8888);
+        layerCanvas = new Canvas(layer);
+        layerSprite = CanvasRenderer.wrap(layer);
+    }
+
+    /**
+     * @return True if the layer already holds the overlay for this state and these numbers.
+     */
+    public boolean isValid(GameView.GameState state, int score, int highScore) {
+        return state == cachedState && score == cachedScore && highScore == cachedHighScore;
+    }
+
+    /**
+     * Clears the layer and returns a canvas to render the new overlay into.
+     */
+    public Canvas beginRender(GameView.GameState state, int score, int highScore) {
+        layer.eraseColor(Color.TRANSPARENT);
+        layerSprite.invalidatePixels();
+        cachedState = state;
+        cachedScore = score;
+        cachedHighScore = highScore;
+        return layerCanvas;
+    }
+
+    /**
+     * Composites the cached overlay onto the frame.
+     */
+    public void draw(Renderer renderer) {
+        renderer.drawSprite(layerSprite, 0, 0);
+    }
+
+    /**
+     * Forces the next frame to re-render the overlay.
+     */
+    public void invalidate() {
+        cachedState = null;
+    }
+
+    public void recycle() {
+        invalidate();
+        layer.recycle();
+    }
+}
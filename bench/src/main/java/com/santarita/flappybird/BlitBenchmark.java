@@ -0,0 +1,51 @@
+package com.santarita.flappybird;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH version of SpriteBlitBenchmark: the same gameplay-shaped frame through
+ * SoftwareRenderer, with and without the RLE blitters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlitBenchmark {
+    @Param({"true", "false"})
+    public boolean rle;
+
+    private SoftwareRenderer renderer;
+    private Sprite pipe, bird;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        renderer = new SoftwareRenderer(SpriteBlitBenchmark.SCREEN_WIDTH, SpriteBlitBenchmark.SCREEN_HEIGHT);
+        renderer.setUseRle(rle);
+        pipe = SpriteBlitBenchmark.pipeSprite(180, 1000);
+        bird = SpriteBlitBenchmark.birdSprite(128, 96);
+        // Encoding is lazy; keep it out of the first measured frame
+        pipe.getRle();
+        bird.getRle();
+    }
+
+    @Benchmark
+    public int[] drawFrame() {
+        SpriteBlitBenchmark.drawFrame(renderer, pipe, bird, frame++ & 1023);
+        return renderer.getPixels();
+    }
+}
@@ -0,0 +1,49 @@
+package com.santarita.flappybird;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Verifies a new seeded course per invocation, with the transition cache warm across
+ * courses (as in a batch run) or without one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseVerifierBenchmark {
+    @Param({"100"})
+    public int pipes;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private CourseVerifier verifier;
+    private CourseVerifier.Result result;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        verifier = new CourseVerifier(cached ? new CourseVerifier.TransitionCache() : null);
+        result = new CourseVerifier.Result(pipes);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        verifier.verify(++seed, pipes, result);
+        return result.isPassable();
+    }
+}
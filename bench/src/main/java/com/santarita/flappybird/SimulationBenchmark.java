@@ -0,0 +1,54 @@
+package com.santarita.flappybird;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one DeterministicWorld tick, and of one Autopilot decision on a live run. The
+ * autopilot is time-boxed, so its score mostly shows how often it finishes under budget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    private static final int TAP_INTERVAL = 18; // Ticks; roughly level flight
+
+    private DeterministicWorld world, piloted;
+    private Autopilot autopilot;
+    private long seed;
+    private int tick;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = new DeterministicWorld(++seed);
+        piloted = new DeterministicWorld(seed);
+        autopilot = new Autopilot();
+    }
+
+    @Benchmark
+    public int step() {
+        // A fixed tap rhythm dies against the first pipes it misses; restarts are rare
+        if (world.isDead()) world = new DeterministicWorld(++seed);
+        return world.step(tick++ % TAP_INTERVAL == 0);
+    }
+
+    @Benchmark
+    public int autopilotTick() {
+        if (piloted.isDead()) piloted = new DeterministicWorld(++seed);
+        return piloted.step(autopilot.decide(piloted));
+    }
+}
@@ -0,0 +1,123 @@
+package com.santarita.flappybird;
+
+import java.util.Arrays;
+
+/**
+ * Compares SoftwareRenderer's RLE and plain ARGB blitters on a desktop JVM:
+ *   java com.santarita.flappybird.SpriteBlitBenchmark [frames]
+ * Draws a frame shaped like gameplay (three pipe pairs stretched vertically, the bird at
+ * 1:1, translucent and scaled) with synthetic sprites of the game's sizes, checks both paths give the
+ * same pixels, then prints memory and time per frame for each.
+ */
+public class SpriteBlitBenchmark {
+    static final int SCREEN_WIDTH = 1080;
+    static final int SCREEN_HEIGHT = 1920;
+    private static final int SKY = 0xFF4EC0CA;
+    private static final int WARMUP_FRAMES = 300;
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Sprite pipe = pipeSprite(180, 1000);
+        Sprite bird = birdSprite(128, 96);
+
+        System.out.printf("%-6s %10s %10s %6s%n", "sprite", "argb B", "rle B", "ratio");
+        printMemory("pipe", pipe);
+        printMemory("bird", bird);
+
+        SoftwareRenderer argb = new SoftwareRenderer(SCREEN_WIDTH, SCREEN_HEIGHT);
+        SoftwareRenderer rle = new SoftwareRenderer(SCREEN_WIDTH, SCREEN_HEIGHT);
+        argb.setUseRle(false);
+        rle.setUseRle(true);
+
+        // Covers pipes clipped at both screen edges
+        for (int frame = 0; frame < 400; frame += 7) {
+            drawFrame(argb, pipe, bird, frame);
+            drawFrame(rle, pipe, bird, frame);
+            if (!Arrays.equals(argb.getPixels(), rle.getPixels())) {
+                System.out.println("MISMATCH: RLE and ARGB frames differ at frame " + frame);
+                System.exit(1);
+            }
+        }
+        System.out.println("frames match");
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            drawFrame(argb, pipe, bird, i);
+            drawFrame(rle, pipe, bird, i);
+        }
+        double argbMicros = time(argb, pipe, bird, frames);
+        double rleMicros = time(rle, pipe, bird, frames);
+        System.out.printf("argb: %8.1f us/frame%n", argbMicros);
+        System.out.printf("rle:  %8.1f us/frame (%.2fx)%n", rleMicros, argbMicros / rleMicros);
+    }
+
+    private static void printMemory(String name, Sprite sprite) {
+        int argbBytes = sprite.getWidth() * sprite.getHeight() * 4;
+        int rleBytes = sprite.getRle().getByteCount();
+        System.out.printf("%-6s %10d %10d %5.0f%%%n", name, argbBytes, rleBytes, 100.0 * rleBytes / argbBytes);
+    }
+
+    private static double time(SoftwareRenderer renderer, Sprite pipe, Sprite bird, int frames) {
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) drawFrame(renderer, pipe, bird, i);
+        return (System.nanoTime() - start) / 1000.0 / frames;
+    }
+
+    static void drawFrame(SoftwareRenderer renderer, Sprite pipe, Sprite bird, int frame) {
+        renderer.clear(SKY);
+        int scroll = frame % 400;
+        for (int i = 0; i < 3; i++) {
+            float x = SCREEN_WIDTH - scroll + i * 400 - 200;
+            float gapTop = 500 + i * 150;
+            renderer.drawSprite(pipe, x, 0, x + pipe.getWidth(), gapTop);
+            renderer.drawSprite(pipe, x, gapTop + 450, x + pipe.getWidth(), SCREEN_HEIGHT);
+        }
+        renderer.drawSprite(bird, 300, 800 + frame % 200);
+        renderer.drawSprite(bird, 340, 900, 110); // Race ghost
+        // Sheet cells, like GlyphAtlas text, at 1:1 and under a render scale
+        renderer.drawSprite(bird, 40, 10, 100, 80, 700, 200);
+        renderer.save();
+        renderer.scale(1.5f);
+        renderer.drawSprite(bird, 40, 10, 100, 80, 500, 200);
+        renderer.restore();
+        renderer.drawSprite(bird, 300, 300, 300 + bird.getWidth() * 1.5f, 300 + bird.getHeight() * 1.5f);
+    }
+
+    /**
+     * Opaque body with a transparent margin and a one pixel anti-aliased edge each side.
+     */
+    static Sprite pipeSprite(int width, int height) {
+        int[] argb = new int[width * height];
+        int margin = 8;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int color;
+                if (x < margin || x >= width - margin) {
+                    color = 0;
+                } else if (x == margin || x == width - margin - 1) {
+                    color = 0x80000000 | 0x2E7D32;
+                } else {
+                    color = 0xFF000000 | (x * 255 / width) << 8 | 0x20;
+                }
+                argb[y * width + x] = color;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    /**
+     * Opaque ellipse on a transparent background, with a soft edge.
+     */
+    static Sprite birdSprite(int width, int height) {
+        int[] argb = new int[width * height];
+        float rx = width / 2f, ry = height / 2f;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float dx = (x + 0.5f - rx) / rx, dy = (y + 0.5f - ry) / ry;
+                float distance = (float) Math.sqrt(dx * dx + dy * dy);
+                int alpha = distance <= 0.95f ? 255 : distance >= 1f ? 0 : (int) ((1f - distance) / 0.05f * 255);
+                argb[y * width + x] = alpha << 24 | 0xF8C020;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+}
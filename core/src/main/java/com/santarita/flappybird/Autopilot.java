@@ -0,0 +1,228 @@
+package com.santarita.flappybird;
+
+/**
+ * Plays a DeterministicWorld by itself, for the attract mode behind the menu and as a demo or
+ * benchmark driver.
+ *
+ * Every tick, decide() searches ahead over tap / no tap sequences, best first: the next node
+ * expanded is the one closest to the upcoming gap's centre, with deeper nodes preferred, so the
+ * search dives towards a path that survives HORIZON_TICKS. It stops there, when the node pool
+ * is used up, or when the time budget runs out, and takes the first move of the deepest
+ * surviving path. Nodes live in preallocated arrays reset every tick, so deciding allocates
+ * nothing; the clock is read every CLOCK_CHECK_INTERVAL expansions.
+ *
+ * Only pipes already in the world are considered. A pipe spawns far enough right that it can't
+ * reach the bird within the horizon, so the pipes still to come don't matter.
+ *
+ *   java com.santarita.flappybird.Autopilot [ticks] [budget us]
+ * plays headless and prints the search statistics.
+ */
+public class Autopilot {
+    public static final long DEFAULT_BUDGET_NANOS = 500_000;
+    public static final int HORIZON_TICKS = 90; // Under the ~113 ticks a new pipe takes to reach the bird
+    private static final int POOL_SIZE = 4096;
+    private static final int CLOCK_CHECK_INTERVAL = 16; // Expansions (power of two)
+    private static final int DEPTH_WEIGHT = 12;         // World units of distance worth one tick of depth
+    private static final int MAX_PIPES = 16;
+
+    private final long budgetNanos;
+
+    // Node pool: one entry per simulated state
+    private final int[] nodeY = new int[POOL_SIZE];        // Fixed point
+    private final int[] nodeVelocity = new int[POOL_SIZE]; // Fixed point
+    private final int[] nodeDepth = new int[POOL_SIZE];
+    private final int[] nodeCost = new int[POOL_SIZE];
+    private final boolean[] nodeFirstJump = new boolean[POOL_SIZE];
+    private int nodeCount;
+    // Binary min-heap of node indices, by cost
+    private final int[] heap = new int[POOL_SIZE];
+    private int heapSize;
+
+    // The world's pipes when the search started
+    private final int[] pipeX = new int[MAX_PIPES];
+    private final int[] pipeTop = new int[MAX_PIPES];
+    private int pipeCount;
+
+    // Stats
+    private long decisions, overruns, depthTotal, nanosTotal, worstNanos;
+    private int lastDepth;
+
+    public Autopilot() {
+        this(DEFAULT_BUDGET_NANOS);
+    }
+
+    public Autopilot(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * @return Whether to tap before the world's next step.
+     */
+    public boolean decide(DeterministicWorld world) {
+        Tracer.begin("Autopilot.decide");
+        try {
+            return search(world);
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    private boolean search(DeterministicWorld world) {
+        long start = System.nanoTime();
+        pipeCount = Math.min(world.getPipeCount(), MAX_PIPES);
+        for (int i = 0; i < pipeCount; i++) {
+            pipeX[i] = world.getPipeX(i);
+            pipeTop[i] = world.getPipeTop(i);
+        }
+
+        nodeCount = 0;
+        heapSize = 0;
+        int best = -1;
+        addChild(world.getBirdY(), world.getBirdVelocity(), 0, false, false);
+        addChild(world.getBirdY(), world.getBirdVelocity(), 0, true, true);
+
+        int expansions = 0;
+        while (heapSize > 0) {
+            if ((++expansions & (CLOCK_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - start > budgetNanos) break;
+            int node = pop();
+            if (best < 0 || nodeDepth[node] > nodeDepth[best]
+                    || (nodeDepth[node] == nodeDepth[best] && nodeCost[node] < nodeCost[best])) {
+                best = node;
+            }
+            if (nodeDepth[node] >= HORIZON_TICKS) break;
+            if (nodeCount + 2 > POOL_SIZE) break;
+            addChild(nodeY[node], nodeVelocity[node], nodeDepth[node], false, nodeFirstJump[node]);
+            addChild(nodeY[node], nodeVelocity[node], nodeDepth[node], true, nodeFirstJump[node]);
+        }
+
+        boolean jump;
+        if (best >= 0) {
+            jump = nodeFirstJump[best];
+            lastDepth = nodeDepth[best];
+        } else {
+            // Every move dies; flap if falling towards the ground
+            jump = world.getBirdVelocity() > 0;
+            lastDepth = 0;
+        }
+
+        long nanos = System.nanoTime() - start;
+        decisions++;
+        depthTotal += lastDepth;
+        nanosTotal += nanos;
+        worstNanos = Math.max(worstNanos, nanos);
+        if (nanos > budgetNanos) overruns++;
+        return jump;
+    }
+
+    /**
+     * Simulates one DeterministicWorld step from a state and queues the result if it survives.
+     */
+    private void addChild(int y, int velocity, int depth, boolean jump, boolean firstJump) {
+        if (jump) velocity = DeterministicWorld.JUMP_VELOCITY;
+        velocity += DeterministicWorld.GRAVITY;
+        y += velocity;
+        if (y < 0) {
+            y = 0;
+            velocity = 0;
+        }
+        int childDepth = depth + 1;
+        if (DeterministicWorld.touchesGround(y)) return;
+        int scroll = childDepth * DeterministicWorld.SCROLL_SPEED;
+        for (int i = 0; i < pipeCount; i++) {
+            if (DeterministicWorld.hitsPipe(y, pipeX[i] - scroll, pipeTop[i])) return;
+        }
+
+        int node = nodeCount++;
+        nodeY[node] = y;
+        nodeVelocity[node] = velocity;
+        nodeDepth[node] = childDepth;
+        nodeFirstJump[node] = firstJump;
+        nodeCost[node] = Math.abs(y / DeterministicWorld.ONE - targetY(scroll)) - childDepth * DEPTH_WEIGHT;
+        push(node);
+    }
+
+    /**
+     * Bird height (whole units) centred in the first gap not yet behind the bird, after the pipes scrolled.
+     */
+    private int targetY(int scroll) {
+        int birdLeft = (DeterministicWorld.BIRD_X + DeterministicWorld.BIRD_PADDING) * DeterministicWorld.ONE;
+        for (int i = 0; i < pipeCount; i++) {
+            if (pipeX[i] - scroll + DeterministicWorld.PIPE_WIDTH * DeterministicWorld.ONE > birdLeft) {
+                return pipeTop[i] + (DeterministicWorld.PIPE_GAP - DeterministicWorld.BIRD_SIZE) / 2;
+            }
+        }
+        return (DeterministicWorld.WORLD_HEIGHT - DeterministicWorld.BIRD_SIZE) / 2;
+    }
+
+    private void push(int node) {
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (nodeCost[heap[parent]] <= nodeCost[node]) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = node;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && nodeCost[heap[child + 1]] < nodeCost[heap[child]]) child++;
+            if (nodeCost[heap[child]] >= nodeCost[last]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    // --- STATS ---
+
+    public long getDecisions() { return decisions; }
+    /** Decisions that took longer than the budget, e.g. because of a GC pause or a descheduled thread. */
+    public long getOverruns() { return overruns; }
+    /** Ticks ahead the last decision's path survives. */
+    public int getLastDepth() { return lastDepth; }
+    public float getAverageDepth() { return decisions > 0 ? depthTotal / (float) decisions : 0; }
+    public long getAverageNanos() { return decisions > 0 ? nanosTotal / decisions : 0; }
+    public long getWorstNanos() { return worstNanos; }
+
+    public void resetStats() {
+        decisions = 0;
+        overruns = 0;
+        depthTotal = 0;
+        nanosTotal = 0;
+        worstNanos = 0;
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 600_000;
+        long budget = args.length > 1 ? Long.parseLong(args[1]) * 1000 : DEFAULT_BUDGET_NANOS;
+
+        Autopilot autopilot = new Autopilot(budget);
+        DeterministicWorld world = new DeterministicWorld(1);
+        int runs = 1, deaths = 0, bestScore = 0, jumps = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            if (tick == ticks / 10) autopilot.resetStats(); // Leave out JIT warm-up
+            boolean jump = autopilot.decide(world);
+            if (jump) jumps++;
+            world.step(jump);
+            if (world.isDead()) {
+                deaths++;
+                bestScore = Math.max(bestScore, world.getScore());
+                world = new DeterministicWorld(++runs);
+            }
+        }
+        bestScore = Math.max(bestScore, world.getScore());
+
+        System.out.printf("%d ticks, %d runs, %d deaths, best score %d, %d taps%n", ticks, runs, deaths, bestScore, jumps);
+        System.out.printf("decision: average %d us, worst %d us, budget %d us, %d overruns%n",
+                autopilot.getAverageNanos() / 1000, autopilot.getWorstNanos() / 1000, budget / 1000, autopilot.getOverruns());
+        System.out.printf("search depth: average %.1f ticks (horizon %d)%n", autopilot.getAverageDepth(), HORIZON_TICKS);
+    }
+}
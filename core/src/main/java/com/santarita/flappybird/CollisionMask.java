@@ -0,0 +1,76 @@
+package com.santarita.flappybird;
+
+/**
+ * One bit per pixel of a sprite, set where the sprite is opaque.
+ * Rows are packed into longs so an overlap test against a rectangle is a few
+ * word-wide ANDs per overlapping row.
+ */
+public class CollisionMask {
+    // Pixels at least this opaque count as solid
+    static final int ALPHA_THRESHOLD = 128;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    private CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * height];
+    }
+
+    /**
+     * Builds the mask from a color keyed sprite's alpha channel.
+     * @param argb Row-major, width * height pixels.
+     */
+    public static CollisionMask fromArgb(int[] argb, int width, int height) {
+        CollisionMask mask = new CollisionMask(width, height);
+
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int base = y * mask.wordsPerRow;
+            for (int x = 0; x < width; x++) {
+                if ((argb[row + x] >>> 24) >= ALPHA_THRESHOLD) {
+                    mask.bits[base + (x >>> 6)] |= 1L << (x & 63);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Tests the mask against a rectangle given in mask coordinates (right/bottom exclusive).
+     * @return True if any solid pixel lies inside the rectangle.
+     */
+    public boolean overlapsRect(int left, int top, int right, int bottom) {
+        if (left < 0) left = 0;
+        if (top < 0) top = 0;
+        if (right > width) right = width;
+        if (bottom > height) bottom = height;
+        if (left >= right || top >= bottom) return false;
+
+        int firstWord = left >>> 6;
+        int lastWord = (right - 1) >>> 6;
+        long firstMask = -1L << (left & 63);
+        long lastMask = -1L >>> (63 - ((right - 1) & 63));
+
+        for (int y = top; y < bottom; y++) {
+            int base = y * wordsPerRow;
+            if (firstWord == lastWord) {
+                if ((bits[base + firstWord] & firstMask & lastMask) != 0) return true;
+                continue;
+            }
+            if ((bits[base + firstWord] & firstMask) != 0) return true;
+            for (int w = firstWord + 1; w < lastWord; w++) {
+                if (bits[base + w] != 0) return true;
+            }
+            if ((bits[base + lastWord] & lastMask) != 0) return true;
+        }
+        return false;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
@@ -0,0 +1,661 @@
+package com.santarita.flappybird;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Checks that seeded DeterministicWorld courses can be flown from start to end.
+ *
+ * DeterministicWorld moves in whole world units (all of its constants are multiples of ONE),
+ * so the states the bird can be in after any tick are an exact finite set of (y, velocity)
+ * pairs. They are kept as one bitset of heights per velocity. Each tick, every row is
+ * shifted by its new velocity for "no tap", all rows are OR'ed and shifted once for "tap",
+ * and the heights outside the ground and the current pipe's gap are masked off. If a pipe
+ * empties the set, that pipe can't be reached from the previous one whatever the player does.
+ *
+ * For each pipe the verifier also reports the margin: the narrowest band of heights still
+ * alive while the bird is inside it. A small margin means a pipe that needs precise taps.
+ *
+ * Run on a desktop JVM, e.g.
+ *   java com.santarita.flappybird.CourseVerifier --courses 100000 --pipes 200
+ * which spreads the seeds over all cores and prints the impossible transitions and the
+ * tightest margins. Pipe-to-pipe results are shared between courses (see TransitionCache),
+ * so long runs get faster as the cache fills. CourseVerifierTest checks the verifier against
+ * simulated players.
+ */
+public class CourseVerifier {
+    // Heights the bird can be alive at: the ground check kills at y + BIRD_SIZE >= ground top
+    static final int MAX_Y = DeterministicWorld.WORLD_HEIGHT - DeterministicWorld.GROUND_HEIGHT
+            - DeterministicWorld.BIRD_SIZE - 1;
+    static final int START_Y = DeterministicWorld.WORLD_HEIGHT / 2 - DeterministicWorld.BIRD_SIZE / 2;
+    private static final int WORDS = (MAX_Y + 1 + 63) >>> 6;
+
+    private static final int GRAVITY = DeterministicWorld.GRAVITY / DeterministicWorld.ONE;
+    private static final int JUMP_VELOCITY = DeterministicWorld.JUMP_VELOCITY / DeterministicWorld.ONE + GRAVITY;
+    private static final int SCROLL_SPEED = DeterministicWorld.SCROLL_SPEED / DeterministicWorld.ONE;
+    static final int INTERVAL = DeterministicWorld.PIPE_INTERVAL_TICKS;
+    // Speeding up from the jump velocity, the bird falls at least v^2 / 2 - JUMP_VELOCITY^2 / 2
+    // units before reaching v, so it hits the ground before this speed
+    private static final int MIN_VELOCITY = JUMP_VELOCITY;
+    private static final int MAX_VELOCITY = (int) Math.ceil(Math.sqrt(2.0 * MAX_Y + MIN_VELOCITY * MIN_VELOCITY)) + 1;
+    private static final int ROWS = MAX_VELOCITY - MIN_VELOCITY + 1;
+
+    // Ticks after its spawn during which a pipe overlaps the bird's hitbox horizontally
+    static final int BIRD_LEFT = DeterministicWorld.BIRD_X + DeterministicWorld.BIRD_PADDING;
+    private static final int BIRD_RIGHT = DeterministicWorld.BIRD_X + DeterministicWorld.BIRD_SIZE
+            - DeterministicWorld.BIRD_PADDING;
+    private static final int FIRST_OVERLAP = Math.floorDiv(DeterministicWorld.PIPE_SPAWN_X - BIRD_RIGHT, SCROLL_SPEED) + 1;
+    static final int LAST_OVERLAP = -Math.floorDiv(-(DeterministicWorld.PIPE_SPAWN_X
+            + DeterministicWorld.PIPE_WIDTH - BIRD_LEFT), SCROLL_SPEED) - 1;
+
+    static {
+        if (DeterministicWorld.GRAVITY % DeterministicWorld.ONE != 0
+                || DeterministicWorld.JUMP_VELOCITY % DeterministicWorld.ONE != 0
+                || DeterministicWorld.SCROLL_SPEED % DeterministicWorld.ONE != 0) {
+            throw new IllegalStateException("CourseVerifier needs whole-unit physics");
+        }
+        if (LAST_OVERLAP >= FIRST_OVERLAP + INTERVAL) {
+            throw new IllegalStateException("CourseVerifier needs pipes that never overlap the bird together");
+        }
+    }
+
+    /**
+     * Pipe-to-pipe results shared by the verifiers of a run.
+     *
+     * Once the bird has cleared a pipe, the reachable states turn out to depend only on that
+     * pipe's height, not on the pipes before it: the gap between pipes is long enough for the
+     * set to spread over every state the pipe lets through. So the first exit set seen for each
+     * height is kept, along with where it has spread to when the next pipe arrives, and the
+     * result of flying from there through a pipe of each next height is computed once.
+     * verify() uses a stored transition only when its own states are exactly the stored exit
+     * set, so cached results are the same as simulated ones.
+     *
+     * Entries are written racily by several threads; they are pure functions of the stored exit
+     * sets, and those are published once with compareAndSet, so every writer stores the same value.
+     */
+    public static final class TransitionCache {
+        private static final int FIRST_TOP = DeterministicWorld.MIN_PIPE_HEIGHT;
+        private static final int TOPS = DeterministicWorld.MAX_PIPE_HEIGHT - DeterministicWorld.MIN_PIPE_HEIGHT;
+        // Transition entries: 0 if unknown, else KNOWN | CANONICAL_EXIT? | (margin + 1) << 2
+        private static final int KNOWN = 1;
+        private static final int CANONICAL_EXIT = 2;
+
+        private final AtomicReferenceArray<long[][]> exitSets = new AtomicReferenceArray<>(TOPS);
+        private final AtomicReferenceArray<long[][]> entrySets = new AtomicReferenceArray<>(TOPS); // By previous pipe
+        private final AtomicIntegerArray transitions = new AtomicIntegerArray(TOPS * TOPS);
+        private final AtomicIntegerArray firstTransitions = new AtomicIntegerArray(TOPS); // From the start
+
+        static boolean covers(int top) {
+            return top >= FIRST_TOP && top < FIRST_TOP + TOPS;
+        }
+
+        static boolean exitIsCanonical(int entry) { return (entry & CANONICAL_EXIT) != 0; }
+        static int margin(int entry) { return (entry >>> 2) - 1; }
+
+        int getTransition(int fromTop, int toTop) {
+            return transitions.get((fromTop - FIRST_TOP) * TOPS + toTop - FIRST_TOP);
+        }
+
+        void putTransition(int fromTop, int toTop, int margin, boolean canonicalExit) {
+            transitions.set((fromTop - FIRST_TOP) * TOPS + toTop - FIRST_TOP, entry(margin, canonicalExit));
+        }
+
+        int getFirstTransition(int top) {
+            return firstTransitions.get(top - FIRST_TOP);
+        }
+
+        void putFirstTransition(int top, int margin, boolean canonicalExit) {
+            firstTransitions.set(top - FIRST_TOP, entry(margin, canonicalExit));
+        }
+
+        private static int entry(int margin, boolean canonicalExit) {
+            return KNOWN | (canonicalExit ? CANONICAL_EXIT : 0) | (margin + 1) << 2;
+        }
+
+        long[][] getExitSet(int top) {
+            return exitSets.get(top - FIRST_TOP);
+        }
+
+        long[][] getEntrySet(int previousTop) {
+            return entrySets.get(previousTop - FIRST_TOP);
+        }
+
+        void putEntrySet(int previousTop, long[][] rows) {
+            entrySets.compareAndSet(previousTop - FIRST_TOP, null, copy(rows));
+        }
+
+        private static long[][] copy(long[][] rows) {
+            long[][] copy = new long[ROWS][];
+            for (int v = 0; v < ROWS; v++) copy[v] = rows[v].clone();
+            return copy;
+        }
+
+        /**
+         * Whether the rows are the stored exit set for this height, storing a copy if there is none yet.
+         */
+        boolean matchExitSet(int top, long[][] rows) {
+            long[][] stored = exitSets.get(top - FIRST_TOP);
+            if (stored == null) {
+                if (exitSets.compareAndSet(top - FIRST_TOP, null, copy(rows))) return true;
+                stored = exitSets.get(top - FIRST_TOP);
+            }
+            for (int v = 0; v < ROWS; v++) {
+                if (!Arrays.equals(stored[v], rows[v])) return false;
+            }
+            return true;
+        }
+    }
+
+    // One bitset of heights per velocity, for the current tick and the one being computed
+    private long[][] rows = new long[ROWS][WORDS];
+    private long[][] next = new long[ROWS][WORDS];
+    // Words of each row that may be non-zero (low > high when empty); the sets are mostly
+    // one interval of heights per velocity, so this skips most of each row
+    private int[] rowLow = new int[ROWS], rowHigh = new int[ROWS];
+    private int[] nextLow = new int[ROWS], nextHigh = new int[ROWS];
+    private final long[] union = new long[WORDS];
+
+    private final TransitionCache cache;
+    private long cachedPipes, simulatedPipes;
+
+    public CourseVerifier() {
+        this(null);
+    }
+
+    /**
+     * @param cache Shared by the verifiers of one run, or null to simulate every pipe.
+     */
+    public CourseVerifier(TransitionCache cache) {
+        this.cache = cache;
+        Arrays.fill(rowLow, WORDS);
+        Arrays.fill(rowHigh, -1);
+        Arrays.fill(nextLow, WORDS);
+        Arrays.fill(nextHigh, -1);
+    }
+
+    /**
+     * What verify() found for one course. Reused between courses.
+     */
+    public static class Result {
+        public int pipeCount;
+        public final int[] pipeTops;
+        public final int[] margins;           // Per pipe, world units; -1 if the pipe is impossible
+        public final int[] impossiblePipes;   // Pipes no state survives, in order
+        public int impossibleCount;
+        public int tightestPipe, tightestMargin;
+
+        public Result(int maxPipes) {
+            pipeTops = new int[maxPipes];
+            margins = new int[maxPipes];
+            impossiblePipes = new int[maxPipes];
+        }
+
+        public boolean isPassable() {
+            return impossibleCount == 0;
+        }
+    }
+
+    /**
+     * Fills tops with the pipe heights DeterministicWorld spawns for the seed.
+     */
+    public static void generateCourse(long seed, int[] tops, int count) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) tops[i] = DeterministicWorld.nextPipeTop(random);
+    }
+
+    public void verify(long seed, int pipeCount, Result result) {
+        generateCourse(seed, result.pipeTops, pipeCount);
+        verify(result.pipeTops, pipeCount, result);
+    }
+
+    /**
+     * Follows the reachable states from the start to the last pipe of the course, one pipe at
+     * a time. A pipe that empties the set is recorded as impossible and then ignored, so the
+     * pipes after it are still checked from the heights the bird could have been at.
+     */
+    public void verify(int[] pipeTops, int pipeCount, Result result) {
+        if (result.pipeTops != pipeTops) System.arraycopy(pipeTops, 0, result.pipeTops, 0, pipeCount);
+        result.pipeCount = pipeCount;
+        result.impossibleCount = 0;
+        result.tightestPipe = -1;
+        result.tightestMargin = Integer.MAX_VALUE;
+
+        reset();
+        int canonicalTop = -1; // When set, the states are the cache's exit set for this height and rows is stale
+        for (int pipe = 0; pipe < pipeCount; pipe++) {
+            int top = pipeTops[pipe];
+            boolean cacheable = cache != null && TransitionCache.covers(top);
+            int margin;
+            if (canonicalTop >= 0 && cacheable) {
+                int entry = cache.getTransition(canonicalTop, top);
+                if (entry != 0 && TransitionCache.exitIsCanonical(entry)) {
+                    record(result, pipe, TransitionCache.margin(entry));
+                    canonicalTop = top;
+                    cachedPipes++;
+                    continue;
+                }
+                long[][] entrySet = cache.getEntrySet(canonicalTop);
+                if (entrySet != null) {
+                    load(entrySet);
+                } else {
+                    load(cache.getExitSet(canonicalTop));
+                    flyToPipe(pipe);
+                    cache.putEntrySet(canonicalTop, rows);
+                }
+                margin = flyThroughPipe(pipe, top);
+                boolean canonical = cache.matchExitSet(top, rows);
+                cache.putTransition(canonicalTop, top, margin, canonical);
+                canonicalTop = canonical ? top : -1;
+            } else if (pipe == 0 && cacheable) {
+                // Every course starts from the same state, so the first pipe only depends on its height
+                int entry = cache.getFirstTransition(top);
+                if (entry != 0 && TransitionCache.exitIsCanonical(entry)) {
+                    record(result, pipe, TransitionCache.margin(entry));
+                    canonicalTop = top;
+                    cachedPipes++;
+                    continue;
+                }
+                flyToPipe(pipe);
+                margin = flyThroughPipe(pipe, top);
+                boolean canonical = cache.matchExitSet(top, rows);
+                cache.putFirstTransition(top, margin, canonical);
+                canonicalTop = canonical ? top : -1;
+            } else {
+                if (canonicalTop >= 0) load(cache.getExitSet(canonicalTop));
+                flyToPipe(pipe);
+                margin = flyThroughPipe(pipe, top);
+                canonicalTop = cacheable && cache.matchExitSet(top, rows) ? top : -1;
+            }
+            record(result, pipe, margin);
+            simulatedPipes++;
+        }
+
+        for (int i = 0; i < pipeCount; i++) {
+            if (result.margins[i] >= 0 && result.margins[i] < result.tightestMargin) {
+                result.tightestMargin = result.margins[i];
+                result.tightestPipe = i;
+            }
+        }
+    }
+
+    private static void record(Result result, int pipe, int margin) {
+        result.margins[pipe] = margin;
+        if (margin < 0) result.impossiblePipes[result.impossibleCount++] = pipe;
+    }
+
+    /**
+     * Advances from just after the previous pipe to just before the bird reaches this one.
+     */
+    private void flyToPipe(int pipe) {
+        int spawnTick = pipe * INTERVAL;
+        int firstTick = pipe == 0 ? 0 : spawnTick - INTERVAL + LAST_OVERLAP + 1;
+        for (int tick = firstTick; tick < spawnTick + FIRST_OVERLAP; tick++) advance(0, MAX_Y);
+    }
+
+    /**
+     * Advances through the ticks the bird overlaps the pipe.
+     * @return The pipe's margin, or -1 if no state gets through it.
+     */
+    private int flyThroughPipe(int pipe, int top) {
+        int low = top - DeterministicWorld.BIRD_PADDING;
+        int high = top + DeterministicWorld.PIPE_GAP - DeterministicWorld.BIRD_SIZE + DeterministicWorld.BIRD_PADDING;
+        int margin = Integer.MAX_VALUE;
+        for (int tick = FIRST_OVERLAP; tick <= LAST_OVERLAP; tick++) {
+            if (!advance(low, high)) {
+                // Ignore the pipe from here on, to keep checking the ones after it
+                for (; tick <= LAST_OVERLAP; tick++) advance(0, MAX_Y);
+                return -1;
+            }
+            margin = Math.min(margin, highestY() - lowestY());
+        }
+        return margin;
+    }
+
+    /**
+     * Pipes verify() took from the shared cache and pipes it simulated, since this verifier was created.
+     */
+    public long getCachedPipes() { return cachedPipes; }
+    public long getSimulatedPipes() { return simulatedPipes; }
+
+    /**
+     * Index of the pipe overlapping the bird on this tick, or -1. Pipes are far enough apart
+     * that there is never more than one.
+     */
+    static int overlappingPipe(int tick, int pipeCount) {
+        int pipe = Math.floorDiv(tick - FIRST_OVERLAP, INTERVAL);
+        if (pipe < 0 || pipe >= pipeCount) return -1;
+        return tick - pipe * INTERVAL <= LAST_OVERLAP ? pipe : -1;
+    }
+
+    /**
+     * Replaces the states with a stored copy of the rows.
+     */
+    private void load(long[][] stored) {
+        for (int v = 0; v < ROWS; v++) {
+            clear(rows[v], rowLow[v], rowHigh[v]);
+            long[] row = stored[v];
+            int from = 0, to = WORDS - 1;
+            while (from <= to && row[from] == 0) from++;
+            while (to >= from && row[to] == 0) to--;
+            if (from <= to) System.arraycopy(row, from, rows[v], from, to - from + 1);
+            rowLow[v] = from <= to ? from : WORDS;
+            rowHigh[v] = from <= to ? to : -1;
+        }
+    }
+
+    void reset() {
+        for (int v = 0; v < ROWS; v++) {
+            clear(rows[v], rowLow[v], rowHigh[v]);
+            rowLow[v] = WORDS;
+            rowHigh[v] = -1;
+        }
+        set(rows, rowLow, rowHigh, START_Y, 0);
+    }
+
+    /**
+     * One DeterministicWorld tick for every state, keeping heights in [low, high].
+     * @return False if no state survives; the current states are then left untouched.
+     */
+    boolean advance(int low, int high) {
+        int unionLow = WORDS, unionHigh = -1;
+        boolean hitCeiling = false;
+        for (int v = 0; v < ROWS; v++) {
+            if (rowLow[v] > rowHigh[v]) continue;
+            long[] row = rows[v];
+            for (int w = rowLow[v]; w <= rowHigh[v]; w++) union[w] |= row[w];
+            unionLow = Math.min(unionLow, rowLow[v]);
+            unionHigh = Math.max(unionHigh, rowHigh[v]);
+
+            // No tap: speed up by gravity, move by the new velocity
+            int velocity = v + MIN_VELOCITY + GRAVITY;
+            if (velocity > MAX_VELOCITY) continue; // Can't be alive, see MAX_VELOCITY
+            hitCeiling |= shiftOr(row, rowLow[v], rowHigh[v], velocity, velocity - MIN_VELOCITY);
+        }
+        // Tap: every state continues at the jump velocity
+        hitCeiling |= shiftOr(union, unionLow, unionHigh, JUMP_VELOCITY, JUMP_VELOCITY - MIN_VELOCITY);
+        clear(union, unionLow, unionHigh);
+        // DeterministicWorld stops the bird at y = 0
+        if (hitCeiling) set(next, nextLow, nextHigh, 0, 0);
+
+        boolean alive = false;
+        for (int v = 0; v < ROWS; v++) {
+            if (nextLow[v] <= nextHigh[v]) alive |= keepRange(v, low, high);
+        }
+
+        if (!alive) {
+            for (int v = 0; v < ROWS; v++) {
+                clear(next[v], nextLow[v], nextHigh[v]);
+                nextLow[v] = WORDS;
+                nextHigh[v] = -1;
+            }
+            return false;
+        }
+        for (int v = 0; v < ROWS; v++) clear(rows[v], rowLow[v], rowHigh[v]);
+        long[][] swapRows = rows;
+        rows = next;
+        next = swapRows;
+        int[] swapLow = rowLow, swapHigh = rowHigh;
+        rowLow = nextLow;
+        rowHigh = nextHigh;
+        nextLow = swapLow;
+        nextHigh = swapHigh;
+        Arrays.fill(nextLow, WORDS);
+        Arrays.fill(nextHigh, -1);
+        return true;
+    }
+
+    /**
+     * ORs words [low, high] of src, moved by shift heights, into next[target]. Heights past
+     * the last word are dropped (they are under the ground anyway).
+     * @return True if some height went below 0.
+     */
+    private boolean shiftOr(long[] src, int low, int high, int shift, int target) {
+        long[] dst = next[target];
+        if (shift >= 0) {
+            int words = shift >>> 6, bits = shift & 63;
+            if (low + words >= WORDS) return false;
+            for (int i = Math.min(high, WORDS - 1 - words); i >= low; i--) {
+                long word = src[i];
+                if (word == 0) continue;
+                dst[i + words] |= word << bits;
+                if (bits != 0 && i + words + 1 < WORDS) dst[i + words + 1] |= word >>> (64 - bits);
+            }
+            nextLow[target] = Math.min(nextLow[target], low + words);
+            nextHigh[target] = Math.max(nextHigh[target], Math.min(WORDS - 1, high + words + 1));
+            return false;
+        }
+        int up = -shift; // At most a jump, well under 64
+        for (int i = Math.max(low, 1); i <= high; i++) {
+            long word = src[i];
+            if (word == 0) continue;
+            dst[i] |= word >>> up;
+            dst[i - 1] |= word << (64 - up);
+        }
+        if (low == 0) dst[0] |= src[0] >>> up;
+        nextLow[target] = Math.min(nextLow[target], Math.max(0, low - 1));
+        nextHigh[target] = Math.max(nextHigh[target], high);
+        return low == 0 && (src[0] & ((1L << up) - 1)) != 0;
+    }
+
+    /**
+     * Clears every height of next[v] outside [low, high] and tightens its word bounds.
+     * @return True if any height is left.
+     */
+    private boolean keepRange(int v, int low, int high) {
+        long[] row = next[v];
+        int from = nextLow[v], to = nextHigh[v];
+        low = Math.max(0, low);
+        high = Math.min(MAX_Y, high);
+        int lowWord = low >>> 6, highWord = high >>> 6;
+        for (int w = from; w <= to; w++) {
+            if (low > high || w < lowWord || w > highWord) {
+                row[w] = 0;
+                continue;
+            }
+            if (w == lowWord) row[w] &= -1L << (low & 63);
+            if (w == highWord) row[w] &= -1L >>> (63 - (high & 63));
+        }
+        while (from <= to && row[from] == 0) from++;
+        while (to >= from && row[to] == 0) to--;
+        if (from > to) {
+            nextLow[v] = WORDS;
+            nextHigh[v] = -1;
+            return false;
+        }
+        nextLow[v] = from;
+        nextHigh[v] = to;
+        return true;
+    }
+
+    private static void clear(long[] row, int low, int high) {
+        for (int w = low; w <= high; w++) row[w] = 0;
+    }
+
+    private static void set(long[][] rows, int[] low, int[] high, int y, int velocity) {
+        int v = velocity - MIN_VELOCITY;
+        rows[v][y >>> 6] |= 1L << (y & 63);
+        low[v] = Math.min(low[v], y >>> 6);
+        high[v] = Math.max(high[v], y >>> 6);
+    }
+
+    /**
+     * Whether the bird can be at (y, velocity) after the ticks advanced so far.
+     */
+    boolean contains(int y, int velocity) {
+        if (y < 0 || y > MAX_Y || velocity < MIN_VELOCITY || velocity > MAX_VELOCITY) return false;
+        return (rows[velocity - MIN_VELOCITY][y >>> 6] & (1L << (y & 63))) != 0;
+    }
+
+    private int lowestY() {
+        int lowest = Integer.MAX_VALUE;
+        for (int v = 0; v < ROWS; v++) {
+            if (rowLow[v] > rowHigh[v]) continue;
+            lowest = Math.min(lowest, rowLow[v] * 64 + Long.numberOfTrailingZeros(rows[v][rowLow[v]]));
+        }
+        return lowest;
+    }
+
+    private int highestY() {
+        int highest = -1;
+        for (int v = 0; v < ROWS; v++) {
+            if (rowLow[v] > rowHigh[v]) continue;
+            highest = Math.max(highest, rowHigh[v] * 64 + 63 - Long.numberOfLeadingZeros(rows[v][rowHigh[v]]));
+        }
+        return highest;
+    }
+
+    // --- BATCH RUNS ---
+
+    /**
+     * Totals over many courses, one per worker thread, merged at the end.
+     */
+    static class Report {
+        private static final int KEPT = 10;
+        private static final int MARGIN_BUCKET = 32;
+        private static final int DELTA_BUCKET = 128;
+
+        long courses, passable, pipes, impossible;
+        long cachedPipes, simulatedPipes;
+        final long[] marginHistogram = new long[MAX_Y / MARGIN_BUCKET + 1];
+        // Impossible transitions by how far the gap moved from the previous pipe
+        final long[] deltaHistogram = new long[DeterministicWorld.WORLD_HEIGHT / DELTA_BUCKET + 1];
+        final List<long[]> tightest = new ArrayList<>();      // {margin, seed, pipe, previous top, top}
+        final List<long[]> impossibleSamples = new ArrayList<>(); // {seed, pipe, previous top, top}
+
+        void add(long seed, Result result) {
+            courses++;
+            pipes += result.pipeCount;
+            if (result.isPassable()) passable++;
+            for (int i = 0; i < result.pipeCount; i++) {
+                int margin = result.margins[i];
+                if (margin >= 0) {
+                    marginHistogram[Math.min(marginHistogram.length - 1, margin / MARGIN_BUCKET)]++;
+                    if (tightest.size() < KEPT || margin < tightest.get(KEPT - 1)[0]) {
+                        insertTightest(new long[] {margin, seed, i, previousTop(result, i), result.pipeTops[i]});
+                    }
+                }
+            }
+            for (int i = 0; i < result.impossibleCount; i++) {
+                int pipe = result.impossiblePipes[i];
+                int delta = Math.abs(result.pipeTops[pipe] - previousTop(result, pipe));
+                deltaHistogram[Math.min(deltaHistogram.length - 1, delta / DELTA_BUCKET)]++;
+                impossible++;
+                if (impossibleSamples.size() < KEPT) {
+                    impossibleSamples.add(new long[] {seed, pipe, previousTop(result, pipe), result.pipeTops[pipe]});
+                }
+            }
+        }
+
+        private static int previousTop(Result result, int pipe) {
+            return pipe > 0 ? result.pipeTops[pipe - 1] : START_Y;
+        }
+
+        private void insertTightest(long[] entry) {
+            int at = 0;
+            while (at < tightest.size() && tightest.get(at)[0] <= entry[0]) at++;
+            tightest.add(at, entry);
+            if (tightest.size() > KEPT) tightest.remove(KEPT);
+        }
+
+        void merge(Report other) {
+            courses += other.courses;
+            passable += other.passable;
+            pipes += other.pipes;
+            impossible += other.impossible;
+            cachedPipes += other.cachedPipes;
+            simulatedPipes += other.simulatedPipes;
+            for (int i = 0; i < marginHistogram.length; i++) marginHistogram[i] += other.marginHistogram[i];
+            for (int i = 0; i < deltaHistogram.length; i++) deltaHistogram[i] += other.deltaHistogram[i];
+            for (long[] entry : other.tightest) insertTightest(entry);
+            for (long[] entry : other.impossibleSamples) {
+                if (impossibleSamples.size() < KEPT) impossibleSamples.add(entry);
+            }
+        }
+
+        void print(double seconds) {
+            System.out.printf("courses: %d (%d passable, %.3f%%), %d pipes, %.1f s, %.0f courses/s%n",
+                    courses, passable, 100.0 * passable / Math.max(1, courses), pipes, seconds, courses / seconds);
+            System.out.printf("pipes simulated: %d, taken from the transition cache: %d%n", simulatedPipes, cachedPipes);
+            System.out.printf("impossible transitions: %d (1 in %.0f pipes)%n",
+                    impossible, impossible > 0 ? pipes / (double) impossible : 0);
+            for (long[] sample : impossibleSamples) {
+                System.out.printf("  seed %d pipe %d: gap top %d -> %d%n", sample[0], sample[1], sample[2], sample[3]);
+            }
+            if (impossible > 0) {
+                System.out.println("impossible by gap move (world units):");
+                for (int i = 0; i < deltaHistogram.length; i++) {
+                    if (deltaHistogram[i] > 0) {
+                        System.out.printf("  %4d-%4d: %d%n", i * DELTA_BUCKET, (i + 1) * DELTA_BUCKET - 1, deltaHistogram[i]);
+                    }
+                }
+            }
+            System.out.println("tightest margins:");
+            for (long[] entry : tightest) {
+                System.out.printf("  %3d units: seed %d pipe %d, gap top %d -> %d%n",
+                        entry[0], entry[1], entry[2], entry[3], entry[4]);
+            }
+            System.out.println("margin histogram (world units):");
+            for (int i = 0; i < marginHistogram.length; i++) {
+                if (marginHistogram[i] > 0) {
+                    System.out.printf("  %4d-%4d: %d%n", i * MARGIN_BUCKET, (i + 1) * MARGIN_BUCKET - 1, marginHistogram[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies seeds firstSeed .. firstSeed + courses - 1 on the given number of threads.
+     */
+    static Report verifyAll(long firstSeed, long courses, int pipes, int threads, boolean useCache)
+            throws InterruptedException {
+        TransitionCache cache = useCache ? new TransitionCache() : null;
+        AtomicLong nextCourse = new AtomicLong();
+        Report[] reports = new Report[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Report report = reports[t] = new Report();
+            workers[t] = new Thread(() -> {
+                CourseVerifier verifier = new CourseVerifier(cache);
+                Result result = new Result(pipes);
+                long course;
+                while ((course = nextCourse.getAndIncrement()) < courses) {
+                    verifier.verify(firstSeed + course, pipes, result);
+                    report.add(firstSeed + course, result);
+                }
+                report.cachedPipes = verifier.getCachedPipes();
+                report.simulatedPipes = verifier.getSimulatedPipes();
+            }, "CourseVerifier-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        for (int t = 1; t < threads; t++) reports[0].merge(reports[t]);
+        return reports[0];
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long courses = 10_000, firstSeed = 0;
+        int pipes = 100, threads = Runtime.getRuntime().availableProcessors();
+        boolean useCache = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--courses": courses = Long.parseLong(args[++i]); break;
+                case "--pipes": pipes = Integer.parseInt(args[++i]); break;
+                case "--seed": firstSeed = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--no-cache": useCache = false; break;
+                default:
+                    System.err.println("usage: CourseVerifier [--courses N] [--pipes N] [--seed S] [--threads N] [--no-cache]");
+                    System.exit(1);
+            }
+        }
+        System.out.printf("verifying %d courses of %d pipes on %d threads%n", courses, pipes, threads);
+        long start = System.nanoTime();
+        Report report = verifyAll(firstSeed, courses, pipes, threads, useCache);
+        report.print((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,207 @@
+package com.santarita.flappybird;
+
+import java.util.Random;
+
+/**
+ * Integer-only simulation of one run, used by the optional deterministic physics mode.
+ *
+ * Everything lives in a fixed world 1920 units tall (the reference 1080x1920 screen), with
+ * positions and velocities in 16.16 fixed point. Pipe heights come from a seeded Random and
+ * pipes spawn every PIPE_INTERVAL_TICKS, so the same seed and the same jump ticks give a
+ * bit-identical run on every device. GameView converts to screen pixels only to draw.
+ *
+ * New pipes appear at a spawn x just past the right edge of the view. The world is always
+ * WORLD_HEIGHT tall, so its visible width depends on the screen's aspect ratio; a view wider
+ * than 3:4 passes its width (see spawnXFor()) so pipes don't pop in on screen. The spawn x is
+ * part of the run: two players racing must use the same one.
+ *
+ * The bird uses a padded square hitbox: the sprite's scaled pixels differ between devices,
+ * so pixel masks can't be part of a reproducible simulation.
+ */
+public class DeterministicWorld {
+    public static final int FRAC_BITS = 16;
+    public static final int ONE = 1 << FRAC_BITS;
+
+    // World geometry (whole world units)
+    public static final int WORLD_HEIGHT = 1920;
+    public static final int REFERENCE_WIDTH = 1080;
+    public static final int GROUND_HEIGHT = WORLD_HEIGHT / 10;
+    public static final int BIRD_SIZE = WORLD_HEIGHT / 12;
+    public static final int BIRD_PADDING = BIRD_SIZE / 5;
+    public static final int PIPE_WIDTH = REFERENCE_WIDTH / 6;
+    public static final int PIPE_GAP = WORLD_HEIGHT / 4;
+    public static final int MIN_PIPE_HEIGHT = WORLD_HEIGHT * 15 / 100;
+    public static final int MAX_PIPE_HEIGHT = WORLD_HEIGHT * 60 / 100;
+    // Default spawn x: far enough right to stay hidden on screens up to 3:4
+    public static final int PIPE_SPAWN_X = WORLD_HEIGHT * 3 / 4;
+    public static final int MAX_SPAWN_X = WORLD_HEIGHT * 4; // Keeps fixed-point x within an int
+    public static final int BIRD_X = REFERENCE_WIDTH / 4 - BIRD_SIZE / 2;
+
+    // Motion per 60 Hz tick (fixed point), same values as the float physics on a 1920 px tall screen
+    public static final int GRAVITY = ONE;
+    public static final int JUMP_VELOCITY = -15 * ONE;
+    public static final int SCROLL_SPEED = 10 * ONE;
+    public static final int PIPE_INTERVAL_TICKS = 120;
+
+    // step() result flags
+    public static final int EVENT_SCORED = 1;
+    public static final int EVENT_DIED = 2;
+    public static final int EVENT_SPAWNED = 4;
+
+    private static final int MAX_PIPES = 16;
+
+    private final long seed;
+    private final int spawnX;
+    private final Random random;
+
+    private int birdY = (WORLD_HEIGHT / 2 - BIRD_SIZE / 2) * ONE;
+    private int birdVelocity = 0;
+    private boolean dead = false;
+    private boolean hitGround = false;
+
+    private final int[] pipeX = new int[MAX_PIPES];
+    private final int[] pipeTop = new int[MAX_PIPES];
+    private final boolean[] pipePassed = new boolean[MAX_PIPES];
+    private int pipeCount = 0;
+
+    private long tick = 0;
+    private int score = 0;
+
+    public DeterministicWorld(long seed) {
+        this(seed, PIPE_SPAWN_X);
+    }
+
+    /**
+     * @param spawnX Where new pipes appear, in whole world units; see spawnXFor().
+     */
+    public DeterministicWorld(long seed, int spawnX) {
+        if (spawnX < PIPE_SPAWN_X || spawnX > MAX_SPAWN_X) throw new IllegalArgumentException("spawnX " + spawnX);
+        this.seed = seed;
+        this.spawnX = spawnX;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Spawn x that keeps new pipes hidden in a view this many world units wide.
+     */
+    public static int spawnXFor(int visibleWidth) {
+        return Math.max(PIPE_SPAWN_X, Math.min(MAX_SPAWN_X, visibleWidth));
+    }
+
+    /**
+     * Width of the world shown by a screen of this size, in whole world units (rounded up).
+     */
+    public static int visibleWidth(int screenWidth, int screenHeight) {
+        return (int) (((long) screenWidth * WORLD_HEIGHT + screenHeight - 1) / Math.max(1, screenHeight));
+    }
+
+    /**
+     * Advances one tick.
+     * @param jump True if the player tapped since the previous tick.
+     * @return EVENT_* flags for what happened.
+     */
+    public int step(boolean jump) {
+        if (dead) return 0;
+        int events = 0;
+
+        if (jump) birdVelocity = JUMP_VELOCITY;
+        birdVelocity += GRAVITY;
+        birdY += birdVelocity;
+        if (birdY < 0) {
+            birdY = 0;
+            birdVelocity = 0;
+        }
+
+        // Move pipes, drop the ones that left the screen (always the oldest) and count passes
+        int kept = 0;
+        for (int i = 0; i < pipeCount; i++) {
+            pipeX[i] -= SCROLL_SPEED;
+            if (pipeX[i] + PIPE_WIDTH * ONE < 0) continue;
+            if (!pipePassed[i] && pipeX[i] < BIRD_X * ONE) {
+                pipePassed[i] = true;
+                score++;
+                events |= EVENT_SCORED;
+            }
+            pipeX[kept] = pipeX[i];
+            pipeTop[kept] = pipeTop[i];
+            pipePassed[kept] = pipePassed[i];
+            kept++;
+        }
+        pipeCount = kept;
+
+        if (hitsGround()) {
+            hitGround = true;
+        }
+        if (hitGround || hitsPipe()) {
+            dead = true;
+            events |= EVENT_DIED;
+        }
+
+        // Spawn on the first tick and every interval after, like the timer in GameView
+        if (!dead && tick % PIPE_INTERVAL_TICKS == 0 && pipeCount < MAX_PIPES) {
+            pipeX[pipeCount] = spawnX * ONE;
+            pipeTop[pipeCount] = nextPipeTop(random);
+            pipePassed[pipeCount] = false;
+            pipeCount++;
+            events |= EVENT_SPAWNED;
+        }
+
+        tick++;
+        return events;
+    }
+
+    /**
+     * Height of the next pipe's top part, in whole world units. CourseVerifier draws courses
+     * from the same rule, so it sees exactly the pipes a seed produces here.
+     */
+    static int nextPipeTop(Random random) {
+        return MIN_PIPE_HEIGHT + random.nextInt(MAX_PIPE_HEIGHT - MIN_PIPE_HEIGHT);
+    }
+
+    private boolean hitsGround() {
+        if (touchesGround(birdY)) {
+            birdY = (WORLD_HEIGHT - GROUND_HEIGHT - BIRD_SIZE) * ONE;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean hitsPipe() {
+        for (int i = 0; i < pipeCount; i++) {
+            if (hitsPipe(birdY, pipeX[i], pipeTop[i])) return true;
+        }
+        return false;
+    }
+
+    // The collision rules, shared with Autopilot's lookahead (positions in fixed point, pipeTop in units)
+
+    static boolean touchesGround(int birdY) {
+        return birdY + BIRD_SIZE * ONE >= (WORLD_HEIGHT - GROUND_HEIGHT) * ONE;
+    }
+
+    static boolean hitsPipe(int birdY, int pipeX, int pipeTop) {
+        int left = (BIRD_X + BIRD_PADDING) * ONE;
+        int right = (BIRD_X + BIRD_SIZE - BIRD_PADDING) * ONE;
+        if (right <= pipeX || left >= pipeX + PIPE_WIDTH * ONE) return false;
+        return birdY + BIRD_PADDING * ONE < pipeTop * ONE
+                || birdY + (BIRD_SIZE - BIRD_PADDING) * ONE > (pipeTop + PIPE_GAP) * ONE;
+    }
+
+    public long getSeed() { return seed; }
+    /** Whole world units. */
+    public int getSpawnX() { return spawnX; }
+    public long getTick() { return tick; }
+    public int getScore() { return score; }
+    public boolean isDead() { return dead; }
+    /** Whether the run ended on the ground rather than a pipe. */
+    public boolean hasHitGround() { return hitGround; }
+    /** Fixed point. */
+    public int getBirdY() { return birdY; }
+    /** Fixed point, per tick. */
+    public int getBirdVelocity() { return birdVelocity; }
+    public int getPipeCount() { return pipeCount; }
+    /** Fixed point. */
+    public int getPipeX(int index) { return pipeX[index]; }
+    /** Whole world units. */
+    public int getPipeTop(int index) { return pipeTop[index]; }
+}
@@ -0,0 +1,88 @@
+package com.santarita.flappybird;
+
+/**
+ * The digits 0-9 and a few fixed labels of one TextStyle, pre-rasterized with their shadow
+ * into a single sheet (see CanvasRenderer.createGlyphAtlas()). Text is drawn as one sheet
+ * blit per glyph or label, so numbers that change every frame don't go through string
+ * building or shadow rendering, and drawing allocates nothing: the digits are written into
+ * a reusable char buffer.
+ *
+ * Labels are referred to by their index in the list the atlas was created with. Not thread
+ * safe; each atlas belongs to the thread that draws with it.
+ */
+public class GlyphAtlas {
+    public static final int NO_LABEL = -1;
+    public static final int NO_NUMBER = -1;
+    static final int DIGITS = 10;
+
+    private final TextStyle style;
+    private final Sprite sheet;
+    // Per cell: digits first, then the labels
+    private final int[] cellLeft;
+    private final int[] cellWidth;
+    private final float[] advance;
+    private final int cellHeight;
+    private final int padding;  // Empty pixels around each glyph, left for the shadow
+    private final float ascent; // Baseline to the top of the glyphs, negative
+
+    private final char[] digits = new char[10]; // Integer.MAX_VALUE has 10 digits
+    private int digitCount = 0;
+
+    GlyphAtlas(TextStyle style, Sprite sheet, int[] cellLeft, int[] cellWidth, float[] advance,
+               int cellHeight, int padding, float ascent) {
+        this.style = style;
+        this.sheet = sheet;
+        this.cellLeft = cellLeft;
+        this.cellWidth = cellWidth;
+        this.advance = advance;
+        this.cellHeight = cellHeight;
+        this.padding = padding;
+        this.ascent = ascent;
+    }
+
+    public void drawNumber(Renderer renderer, int value, float x, float y) {
+        draw(renderer, NO_LABEL, value, x, y);
+    }
+
+    public void drawLabel(Renderer renderer, int label, float x, float y) {
+        draw(renderer, label, NO_NUMBER, x, y);
+    }
+
+    /**
+     * Draws a label followed by a number (e.g. "Score: " 12) as one run of text with its
+     * baseline at y, aligned on x as the style says.
+     * @param label Index of the label, or NO_LABEL.
+     * @param value Non-negative number, or NO_NUMBER.
+     */
+    public void draw(Renderer renderer, int label, int value, float x, float y) {
+        setDigits(value);
+        float width = label != NO_LABEL ? advance[DIGITS + label] : 0;
+        for (int i = 0; i < digitCount; i++) width += advance[digits[i] - '0'];
+
+        float pen = x;
+        if (style.align == TextStyle.Align.CENTER) pen -= width / 2;
+        else if (style.align == TextStyle.Align.RIGHT) pen -= width;
+        float top = y + ascent - padding;
+
+        if (label != NO_LABEL) pen = drawCell(renderer, DIGITS + label, pen, top);
+        for (int i = 0; i < digitCount; i++) pen = drawCell(renderer, digits[i] - '0', pen, top);
+    }
+
+    private float drawCell(Renderer renderer, int cell, float pen, float top) {
+        int left = cellLeft[cell];
+        renderer.drawSprite(sheet, left, 0, left + cellWidth[cell], cellHeight, pen - padding, top);
+        return pen + advance[cell];
+    }
+
+    private void setDigits(int value) {
+        digitCount = 0;
+        if (value < 0) return;
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        digitCount = digits.length - start;
+        System.arraycopy(digits, start, digits, 0, digitCount);
+    }
+}
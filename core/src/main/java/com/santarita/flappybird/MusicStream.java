@@ -0,0 +1,175 @@
+package com.santarita.flappybird;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams a track of 16-bit PCM through a fixed-size ring, decoded ahead on its own thread.
+ *
+ * The decoder thread pulls samples from a PcmSource into a single-producer/single-consumer
+ * ring and parks while the ring is nearly full; the output thread takes them with read(). When
+ * the source ends, a looping stream rewinds it and keeps writing, so the first sample of the
+ * next pass directly follows the last one of the previous pass: the loop point is exact to the
+ * sample and never waits on the decoder. Memory is the ring plus whatever the source keeps,
+ * however long the track is.
+ *
+ * Plain Java, so MusicStreamTest checks it on a desktop JVM, looping PCM fixtures through a
+ * small ring with uneven chunk sizes.
+ */
+public class MusicStream {
+    /**
+     * Decoded audio, interleaved if it has several channels. Called from the decoder thread only.
+     */
+    public interface PcmSource {
+        /**
+         * @return Samples read (may be 0), or -1 at the end of the track.
+         */
+        int read(short[] buffer, int offset, int length) throws IOException;
+
+        /**
+         * Goes back to the first sample, for the next pass of a looping stream.
+         */
+        void rewind() throws IOException;
+
+        void close();
+    }
+
+    private static final long WAIT_NANOS = 20_000_000; // Safety net; both sides wake each other up
+
+    private final PcmSource source;
+    private final boolean looping;
+    private final short[] ring;
+    private final int mask;
+    private final int refillThreshold; // Free samples before the decoder wakes up again
+
+    private final AtomicLong written = new AtomicLong();  // Decoder thread
+    private final AtomicLong consumed = new AtomicLong(); // Reader thread
+    private final Thread decoder;
+    private volatile Thread waitingReader;
+    private volatile boolean running = true;
+    private volatile boolean ended = false; // No more samples will be written
+    private volatile IOException error;
+    private volatile long loops = 0;
+
+    // Reader side
+    private boolean receivedAny = false;
+    private long underruns = 0;
+
+    /**
+     * @param capacity Ring size in samples, a power of two.
+     */
+    public MusicStream(PcmSource source, int capacity, boolean looping) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two");
+        this.source = source;
+        this.looping = looping;
+        this.ring = new short[capacity];
+        this.mask = capacity - 1;
+        this.refillThreshold = capacity / 4;
+        decoder = new Thread(this::decodeLoop, "MusicDecoder");
+        decoder.setDaemon(true);
+    }
+
+    public void start() {
+        decoder.start();
+    }
+
+    /**
+     * Copies the next samples, waiting while the decoder hasn't caught up.
+     * Only one thread may read.
+     * @return Samples copied; fewer than length only once the track ended, decoding failed
+     *         (see getError()) or the stream was closed.
+     */
+    public int read(short[] out, int offset, int length) {
+        int copied = 0;
+        boolean waited = false;
+        while (copied < length) {
+            long position = consumed.get();
+            int available = (int) (written.get() - position);
+            if (available == 0) {
+                if (ended || !running) {
+                    // The last samples may have been published just before the flag
+                    if (written.get() != position) continue;
+                    break;
+                }
+                if (receivedAny && !waited) underruns++;
+                waited = true;
+                waitingReader = Thread.currentThread();
+                if (written.get() == position && !ended && running) LockSupport.parkNanos(this, WAIT_NANOS);
+                waitingReader = null;
+                continue;
+            }
+            int slot = (int) (position & mask);
+            int count = Math.min(Math.min(available, length - copied), ring.length - slot);
+            System.arraycopy(ring, slot, out, offset + copied, count);
+            consumed.lazySet(position + count); // Hands the slots back to the decoder
+            copied += count;
+            receivedAny = true;
+        }
+        LockSupport.unpark(decoder);
+        return copied;
+    }
+
+    /**
+     * Stops the decoder thread, which closes the source. Any blocked read() returns.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(decoder);
+        Thread reader = waitingReader;
+        if (reader != null) LockSupport.unpark(reader);
+    }
+
+    private void decodeLoop() {
+        long passSamples = 0;
+        try {
+            while (running) {
+                long position = written.get();
+                int free = ring.length - (int) (position - consumed.get());
+                if (free < refillThreshold) {
+                    LockSupport.parkNanos(this, WAIT_NANOS);
+                    continue;
+                }
+                int slot = (int) (position & mask);
+                int count = source.read(ring, slot, Math.min(free, ring.length - slot));
+                if (count < 0) {
+                    if (!looping || passSamples == 0) break; // An empty track can't loop
+                    source.rewind();
+                    loops++;
+                    passSamples = 0;
+                    continue;
+                }
+                if (count == 0) continue;
+                passSamples += count;
+                written.lazySet(position + count); // Publishes the samples to the reader
+                Thread reader = waitingReader;
+                if (reader != null) LockSupport.unpark(reader);
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e instanceof IOException ? (IOException) e : new IOException(e);
+        } finally {
+            ended = true;
+            Thread reader = waitingReader;
+            if (reader != null) LockSupport.unpark(reader);
+            source.close();
+        }
+    }
+
+    public int getCapacity() { return ring.length; }
+    public int getBufferedSamples() { return (int) (written.get() - consumed.get()); }
+    /** Times the source was rewound. */
+    public long getLoops() { return loops; }
+    /** Reads that had to wait for the decoder after playback started. Read on the reader thread. */
+    public long getUnderruns() { return underruns; }
+    /** Why decoding stopped early, or null. */
+    public IOException getError() { return error; }
+
+    /**
+     * Waits for the decoder thread to end (after the track or close()), for tests.
+     * @return False if it was still running after the timeout.
+     */
+    boolean awaitDecoder(long timeoutMs) throws InterruptedException {
+        decoder.join(timeoutMs);
+        return !decoder.isAlive();
+    }
+}
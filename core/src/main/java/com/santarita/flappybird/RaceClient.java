@@ -0,0 +1,328 @@
+package com.santarita.flappybird;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * One player's connection to a RaceRelayServer, plus the ghost of the other player.
+ *
+ * The game thread records each local tick's input with recordTick(); every SEND_INTERVAL_TICKS
+ * the inputs the peer hasn't acknowledged go out in one fixed-size packet (see RaceProtocol).
+ * Received inputs are replayed through a DeterministicWorld with the shared seed, which gives
+ * the remote bird's exact position at every tick it has inputs for. The ghost is drawn
+ * INTERPOLATION_DELAY_TICKS behind, interpolating between those ticks, so late packets don't
+ * make it stutter.
+ *
+ * Pure Java (java.net only), so the relay and two clients can be run on a desktop JVM.
+ */
+public class RaceClient {
+    public static final int SEND_INTERVAL_TICKS = 2;
+    public static final int INTERPOLATION_DELAY_TICKS = 6;
+
+    private static final int RECEIVE_TIMEOUT_MS = 100;
+    private static final int JOIN_RETRY_MS = 250;
+    private static final int MAX_PACKETS_PER_SEND = 4;
+    private static final int INPUT_HISTORY = 4096; // Ticks of inputs kept on each side (power of two)
+    private static final int SENT_HISTORY = 256;   // Packets remembered for acks (power of two)
+    private static final int GHOST_HISTORY = 256;  // Ghost positions kept for interpolation (power of two)
+
+    private final InetSocketAddress server;
+    private final int room;
+    private final int localSpawnX;
+    private DatagramSocket socket;
+    private Thread receiver;
+    private volatile boolean running = false;
+
+    private final byte[] sendBytes = new byte[RaceProtocol.PACKET_SIZE];
+    private final ByteBuffer sendBuffer = RaceProtocol.wrap(sendBytes);
+    private final DatagramPacket sendPacket = new DatagramPacket(sendBytes, sendBytes.length);
+
+    // Set once START arrives
+    private volatile boolean started = false;
+    private long seed;
+    private int spawnX;
+
+    // Local inputs and what the peer has acknowledged
+    private final long[] localInputs = new long[INPUT_HISTORY / 64];
+    private int localTicks = 0;
+    private int peerAckedTick = 0; // The peer has every input before this tick
+    private int nextSequence = 0;
+    private final int[] sentSequence = new int[SENT_HISTORY];
+    private final int[] sentStart = new int[SENT_HISTORY];
+    private final int[] sentEnd = new int[SENT_HISTORY];
+    private final long[] sentNanos = new long[SENT_HISTORY];
+
+    // Remote inputs and the ghost rebuilt from them
+    private final long[] remoteInputs = new long[INPUT_HISTORY / 64];
+    private int remoteKnownTicks = 0; // Every remote input before this tick has arrived
+    private int latestRemoteSequence = 0;
+    private boolean hasRemoteSequence = false;
+    private boolean peerLeft = false;
+    private DeterministicWorld ghost;
+    private int ghostTicks = 0;
+    private final int[] ghostY = new int[GHOST_HISTORY];
+
+    // Stats
+    private long packetsSent, bytesSent, packetsReceived, bytesReceived;
+    private float rttMillis = -1;
+
+    /**
+     * @param spawnX The pipe spawn x this player's screen needs (DeterministicWorld.spawnXFor());
+     *               the race uses the larger of both players'.
+     */
+    public RaceClient(String host, int port, int room, int spawnX) {
+        this.server = new InetSocketAddress(host, port);
+        this.room = room;
+        this.localSpawnX = spawnX;
+    }
+
+    /**
+     * Opens the socket and starts joining the room on a background thread.
+     */
+    public void start() throws IOException {
+        socket = new DatagramSocket();
+        socket.connect(server);
+        socket.setSoTimeout(RECEIVE_TIMEOUT_MS);
+        running = true;
+        receiver = new Thread(this::receiveLoop, "RaceClient");
+        receiver.start();
+    }
+
+    /**
+     * Blocks until the relay has paired this client with an opponent.
+     * @return True if the race started within the timeout.
+     */
+    public synchronized boolean awaitStart(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!started && running) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) break;
+            wait(remaining);
+        }
+        return started;
+    }
+
+    /**
+     * Stops the client without touching the network, so it can be called from the UI thread.
+     * The receiver thread notices within RECEIVE_TIMEOUT_MS, sends LEAVE and closes the socket.
+     */
+    public void close() {
+        running = false;
+    }
+
+    // --- LOCAL PLAYER (game thread) ---
+
+    /**
+     * Records the input of the tick that was just simulated.
+     */
+    public synchronized void recordTick(boolean jumped) {
+        if (!started) return;
+        setBit(localInputs, localTicks, jumped);
+        localTicks++;
+        if (localTicks % SEND_INTERVAL_TICKS == 0) sendInputs();
+    }
+
+    /**
+     * Sends every input the peer hasn't acknowledged, RaceProtocol.INPUT_WINDOW ticks per packet.
+     * The first packet also acks the peer's latest packet, so it goes out even with nothing new.
+     */
+    private void sendInputs() {
+        int start = Math.max(peerAckedTick, localTicks - INPUT_HISTORY);
+        int packets = 0;
+        do {
+            int end = Math.min(start + RaceProtocol.INPUT_WINDOW, localTicks);
+            int bits = 0;
+            for (int tick = start; tick < end; tick++) {
+                if (getBit(localInputs, tick)) bits |= 1 << (tick - start);
+            }
+
+            int sequence = nextSequence;
+            nextSequence = (nextSequence + 1) & 0xFFFF;
+            int slot = sequence & (SENT_HISTORY - 1);
+            sentSequence[slot] = sequence;
+            sentStart[slot] = start;
+            sentEnd[slot] = end;
+            sentNanos[slot] = System.nanoTime();
+
+            RaceProtocol.writeState(sendBuffer, sequence, latestRemoteSequence, end, end - start, bits);
+            send();
+            start = end;
+        } while (start < localTicks && ++packets < MAX_PACKETS_PER_SEND);
+    }
+
+    private void send() {
+        try {
+            socket.send(sendPacket);
+            packetsSent++;
+            bytesSent += RaceProtocol.PACKET_SIZE;
+        } catch (IOException e) {
+            // Dropped like any other lost datagram; the next packet repeats the inputs
+        }
+    }
+
+    // --- NETWORK THREAD ---
+
+    private void receiveLoop() {
+        byte[] bytes = new byte[RaceProtocol.PACKET_SIZE];
+        ByteBuffer buffer = RaceProtocol.wrap(bytes);
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+        long lastJoin = 0;
+
+        while (running) {
+            synchronized (this) {
+                if (!started && System.currentTimeMillis() - lastJoin > JOIN_RETRY_MS) {
+                    RaceProtocol.writeJoin(sendBuffer, room, localSpawnX);
+                    send();
+                    lastJoin = System.currentTimeMillis();
+                }
+            }
+            try {
+                packet.setLength(bytes.length);
+                socket.receive(packet);
+            } catch (SocketTimeoutException e) {
+                // Idle (e.g. this player is dead or paused): keep acking and resending
+                synchronized (this) {
+                    if (started) sendInputs();
+                }
+                continue;
+            } catch (IOException e) {
+                break; // Socket closed
+            }
+            if (packet.getLength() != RaceProtocol.PACKET_SIZE) continue;
+            onPacket(buffer);
+        }
+        running = false;
+        synchronized (this) {
+            RaceProtocol.writeLeave(sendBuffer);
+            send();
+            notifyAll();
+        }
+        socket.close();
+    }
+
+    private synchronized void onPacket(ByteBuffer packet) {
+        packetsReceived++;
+        bytesReceived += RaceProtocol.PACKET_SIZE;
+
+        switch (RaceProtocol.type(packet)) {
+            case RaceProtocol.TYPE_START:
+                if (!started) {
+                    seed = RaceProtocol.seed(packet);
+                    spawnX = DeterministicWorld.spawnXFor(RaceProtocol.spawnX(packet));
+                    ghost = new DeterministicWorld(seed, spawnX);
+                    ghostY[0] = ghost.getBirdY();
+                    started = true;
+                    notifyAll();
+                }
+                break;
+            case RaceProtocol.TYPE_STATE:
+                if (started) onState(packet);
+                break;
+            case RaceProtocol.TYPE_LEAVE:
+                peerLeft = true;
+                break;
+        }
+    }
+
+    private void onState(ByteBuffer packet) {
+        int sequence = RaceProtocol.sequence(packet);
+        if (!hasRemoteSequence || RaceProtocol.isNewer(sequence, latestRemoteSequence)) {
+            latestRemoteSequence = sequence;
+            hasRemoteSequence = true;
+        }
+
+        // A packet that started at or before what the peer already had leaves it complete up to its end
+        int ack = RaceProtocol.ack(packet);
+        int slot = ack & (SENT_HISTORY - 1);
+        if (sentSequence[slot] == ack && sentNanos[slot] != 0) {
+            if (sentStart[slot] <= peerAckedTick && sentEnd[slot] > peerAckedTick) {
+                peerAckedTick = sentEnd[slot];
+            }
+            float rtt = (System.nanoTime() - sentNanos[slot]) / 1_000_000f;
+            rttMillis = rttMillis < 0 ? rtt : rttMillis + (rtt - rttMillis) * 0.1f;
+            sentNanos[slot] = 0; // Only time the first ack of each packet
+        }
+
+        // Take the inputs that extend the contiguous run; older ones are duplicates
+        int end = RaceProtocol.endTick(packet);
+        int start = end - RaceProtocol.inputCount(packet);
+        if (start > remoteKnownTicks || end <= remoteKnownTicks) return;
+        int bits = RaceProtocol.inputs(packet);
+        for (int tick = remoteKnownTicks; tick < end; tick++) {
+            setBit(remoteInputs, tick, (bits & (1 << (tick - start))) != 0);
+        }
+        remoteKnownTicks = end;
+    }
+
+    // --- GHOST (game thread) ---
+
+    /**
+     * Replays the remote inputs that arrived since the last call.
+     */
+    public synchronized void advanceGhost() {
+        if (!started) return;
+        // Inputs older than the history were overwritten; the ghost can't catch up past them
+        if (remoteKnownTicks - ghostTicks > INPUT_HISTORY) return;
+        while (ghostTicks < remoteKnownTicks && !ghost.isDead()) {
+            ghost.step(getBit(remoteInputs, ghostTicks));
+            ghostTicks++;
+            ghostY[ghostTicks & (GHOST_HISTORY - 1)] = ghost.getBirdY();
+        }
+    }
+
+    /**
+     * The remote bird's height in world units at a (fractional) tick, interpolated between
+     * the simulated ticks and clamped to the ones available.
+     */
+    public synchronized float getGhostY(float tick) {
+        if (!started) return 0;
+        float oldest = Math.max(0, ghostTicks - GHOST_HISTORY + 1);
+        float t = Math.max(oldest, Math.min(tick, ghostTicks));
+        int index = (int) t;
+        float fraction = t - index;
+        float y0 = ghostY[index & (GHOST_HISTORY - 1)];
+        float y1 = index < ghostTicks ? ghostY[(index + 1) & (GHOST_HISTORY - 1)] : y0;
+        return (y0 + (y1 - y0) * fraction) / DeterministicWorld.ONE;
+    }
+
+    public synchronized int getGhostScore() { return ghost != null ? ghost.getScore() : 0; }
+    public synchronized boolean isGhostDead() { return ghost != null && ghost.isDead(); }
+    public synchronized int getGhostTicks() { return ghostTicks; }
+
+    public boolean isStarted() { return started; }
+    public boolean isRunning() { return running; }
+    public synchronized boolean hasPeerLeft() { return peerLeft; }
+    public synchronized long getSeed() { return seed; }
+    /** Pipe spawn x of the race, for the local DeterministicWorld. */
+    public synchronized int getSpawnX() { return spawnX; }
+
+    // --- STATS ---
+
+    public synchronized long getPacketsSent() { return packetsSent; }
+    public synchronized long getBytesSent() { return bytesSent; }
+    public synchronized long getPacketsReceived() { return packetsReceived; }
+    public synchronized long getBytesReceived() { return bytesReceived; }
+    /** Smoothed time from sending a packet to its ack (includes the peer's send interval), or -1 before the first ack. */
+    public synchronized float getRttMillis() { return rttMillis; }
+    /** Payload bytes sent per simulated tick (UDP/IP headers not included). */
+    public synchronized float getBytesPerTick() { return localTicks > 0 ? bytesSent / (float) localTicks : 0; }
+
+    private static void setBit(long[] bits, int tick, boolean value) {
+        int index = tick & (INPUT_HISTORY - 1);
+        long mask = 1L << (index & 63);
+        if (value) {
+            bits[index >>> 6] |= mask;
+        } else {
+            bits[index >>> 6] &= ~mask;
+        }
+    }
+
+    private static boolean getBit(long[] bits, int tick) {
+        int index = tick & (INPUT_HISTORY - 1);
+        return (bits[index >>> 6] & (1L << (index & 63))) != 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.santarita.flappybird;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Wire format of the two-player race. Every packet is PACKET_SIZE bytes, little-endian:
+ *
+ *   0  u8   type
+ *   1  u8   JOIN: unused, START: player index, STATE: number of input bits used
+ *   2  u16  STATE: sequence number, JOIN/START: pipe spawn x in world units
+ *   4  u16  STATE: latest sequence number received from the peer (ack)
+ *   6  u16  flags
+ *   8  i32  JOIN: room, STATE: tick after the last input bit
+ *   12 i32  STATE: jump bits, bit i = tick (end - count + i)
+ *   8  i64  START: course seed (overlaps the two fields above)
+ *
+ * Both players simulate the same seeded DeterministicWorld, so the only state a player has to
+ * send is which ticks they jumped on. Each JOIN says how far right pipes must spawn to stay
+ * hidden on that player's screen; the START carries the larger of the two, so both worlds
+ * use it. Each STATE packet repeats every input the peer hasn't
+ * acknowledged yet (up to INPUT_WINDOW ticks), so a lost packet is covered by the next one
+ * without any resend logic.
+ */
+public final class RaceProtocol {
+    public static final int PACKET_SIZE = 16;
+    public static final int DEFAULT_PORT = 47000;
+    public static final int INPUT_WINDOW = 32;
+
+    public static final int TYPE_JOIN = 1;
+    public static final int TYPE_START = 2;
+    public static final int TYPE_STATE = 3;
+    public static final int TYPE_LEAVE = 4;
+
+    private RaceProtocol() {}
+
+    public static ByteBuffer wrap(byte[] packet) {
+        return ByteBuffer.wrap(packet).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static void writeJoin(ByteBuffer packet, int room, int spawnX) {
+        clear(packet, TYPE_JOIN);
+        packet.putShort(2, (short) spawnX);
+        packet.putInt(8, room);
+    }
+
+    public static void writeStart(ByteBuffer packet, int playerIndex, int spawnX, long seed) {
+        clear(packet, TYPE_START);
+        packet.put(1, (byte) playerIndex);
+        packet.putShort(2, (short) spawnX);
+        packet.putLong(8, seed);
+    }
+
+    public static void writeState(ByteBuffer packet, int sequence, int ack, int endTick, int count, int inputs) {
+        clear(packet, TYPE_STATE);
+        packet.put(1, (byte) count);
+        packet.putShort(2, (short) sequence);
+        packet.putShort(4, (short) ack);
+        packet.putInt(8, endTick);
+        packet.putInt(12, inputs);
+    }
+
+    public static void writeLeave(ByteBuffer packet) {
+        clear(packet, TYPE_LEAVE);
+    }
+
+    private static void clear(ByteBuffer packet, int type) {
+        packet.putLong(0, 0);
+        packet.putLong(8, 0);
+        packet.put(0, (byte) type);
+    }
+
+    public static int type(ByteBuffer packet) { return packet.get(0) & 0xFF; }
+    public static int playerIndex(ByteBuffer packet) { return packet.get(1) & 0xFF; }
+    public static int inputCount(ByteBuffer packet) { return packet.get(1) & 0xFF; }
+    public static int sequence(ByteBuffer packet) { return packet.getShort(2) & 0xFFFF; }
+    public static int spawnX(ByteBuffer packet) { return packet.getShort(2) & 0xFFFF; }
+    public static int ack(ByteBuffer packet) { return packet.getShort(4) & 0xFFFF; }
+    public static int room(ByteBuffer packet) { return packet.getInt(8); }
+    public static int endTick(ByteBuffer packet) { return packet.getInt(8); }
+    public static int inputs(ByteBuffer packet) { return packet.getInt(12); }
+    public static long seed(ByteBuffer packet) { return packet.getLong(8); }
+
+    /**
+     * Whether 16-bit sequence number a comes after b, allowing for wrap-around.
+     */
+    public static boolean isNewer(int a, int b) {
+        return a != b && ((a - b) & 0xFFFF) < 0x8000;
+    }
+}
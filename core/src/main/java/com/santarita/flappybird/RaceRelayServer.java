@@ -0,0 +1,215 @@
+package com.santarita.flappybird;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Minimal UDP relay for the two-player race. The first two clients that JOIN the same room
+ * are paired, both get a START with the same course seed and the wider of their pipe spawn
+ * positions, and from then on every packet one sends is forwarded unchanged to the other.
+ * The relay never parses game state.
+ *
+ * Clients that stop sending are forgotten: a waiting player after WAITING_TIMEOUT_MS (a joining
+ * client repeats its JOIN several times a second), a racer after SESSION_TIMEOUT_MS (clients
+ * resend their inputs even when idle), in which case the opponent is sent a LEAVE.
+ *
+ * Runs anywhere with a JVM, e.g. on loopback next to an emulator:
+ *   java com.santarita.flappybird.RaceRelayServer [port]
+ * RaceRelayServerTest races two scripted clients through it on loopback.
+ */
+public class RaceRelayServer implements Runnable {
+    private static final class Session {
+        final SocketAddress first, second;
+        final int spawnX;
+        final long seed;
+        long firstSeen, secondSeen; // Last packet from each, System.currentTimeMillis()
+
+        Session(SocketAddress first, SocketAddress second, int spawnX, long seed) {
+            this.first = first;
+            this.second = second;
+            this.spawnX = spawnX;
+            this.seed = seed;
+        }
+
+        SocketAddress other(SocketAddress address) {
+            return address.equals(first) ? second : first;
+        }
+
+        void seen(SocketAddress address, long now) {
+            if (address.equals(first)) firstSeen = now; else secondSeen = now;
+        }
+    }
+
+    private static final class Waiting {
+        final SocketAddress address;
+        final int spawnX;
+        final long seen;
+
+        Waiting(SocketAddress address, int spawnX, long seen) {
+            this.address = address;
+            this.spawnX = spawnX;
+            this.seen = seen;
+        }
+    }
+
+    static final long WAITING_TIMEOUT_MS = 5_000;
+    static final long SESSION_TIMEOUT_MS = 15_000;
+    private static final int EXPIRY_INTERVAL_MS = 1_000;
+
+    private final DatagramSocket socket;
+    private final Map<Integer, Waiting> waiting = new HashMap<>();
+    private final Map<SocketAddress, Session> sessions = new HashMap<>();
+    private final Random seeds = new Random();
+    private volatile boolean running = true;
+    private volatile long packetsRelayed, bytesRelayed;
+
+    public RaceRelayServer(int port) throws IOException {
+        socket = new DatagramSocket(new InetSocketAddress(port));
+        socket.setSoTimeout(EXPIRY_INTERVAL_MS); // Expires entries even when nobody sends
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void run() {
+        byte[] bytes = new byte[RaceProtocol.PACKET_SIZE];
+        ByteBuffer buffer = RaceProtocol.wrap(bytes);
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+        byte[] startBytes = new byte[RaceProtocol.PACKET_SIZE];
+        ByteBuffer startBuffer = RaceProtocol.wrap(startBytes);
+        long lastExpiry = System.currentTimeMillis();
+
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                if (now - lastExpiry >= EXPIRY_INTERVAL_MS) {
+                    expire(now, startBuffer, startBytes);
+                    lastExpiry = now;
+                }
+                packet.setLength(bytes.length);
+                try {
+                    socket.receive(packet);
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                if (packet.getLength() != RaceProtocol.PACKET_SIZE) continue;
+                now = System.currentTimeMillis();
+                SocketAddress sender = packet.getSocketAddress();
+                Session session = sessions.get(sender);
+                if (session != null) session.seen(sender, now);
+
+                switch (RaceProtocol.type(buffer)) {
+                    case RaceProtocol.TYPE_JOIN:
+                        if (session == null) {
+                            int room = RaceProtocol.room(buffer);
+                            int spawnX = DeterministicWorld.spawnXFor(RaceProtocol.spawnX(buffer));
+                            Waiting opponent = waiting.get(room);
+                            if (opponent == null || opponent.address.equals(sender)) {
+                                waiting.put(room, new Waiting(sender, spawnX, now));
+                                break;
+                            }
+                            waiting.remove(room);
+                            session = new Session(opponent.address, sender, Math.max(spawnX, opponent.spawnX), seeds.nextLong());
+                            session.firstSeen = opponent.seen;
+                            session.secondSeen = now;
+                            sessions.put(opponent.address, session);
+                            sessions.put(sender, session);
+                            sendStart(startBuffer, startBytes, session, opponent.address);
+                        }
+                        // Also answers JOINs repeated because a START was lost
+                        sendStart(startBuffer, startBytes, session, sender);
+                        break;
+
+                    case RaceProtocol.TYPE_LEAVE:
+                        if (session == null) {
+                            // Gave up waiting (e.g. RaceClient.awaitStart() timed out)
+                            removeWaiting(sender);
+                            break;
+                        }
+                        sessions.remove(session.first);
+                        sessions.remove(session.second);
+                        relay(packet, session.other(sender));
+                        break;
+
+                    default:
+                        if (session != null) relay(packet, session.other(sender));
+                        break;
+                }
+            } catch (IOException e) {
+                if (running) System.err.println("RaceRelayServer: " + e);
+            }
+        }
+    }
+
+    private void removeWaiting(SocketAddress address) {
+        Iterator<Waiting> iterator = waiting.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().address.equals(address)) iterator.remove();
+        }
+    }
+
+    /**
+     * Forgets waiting players and racers that went quiet; the opponent of a racer who did is
+     * told with a LEAVE, as if they had quit.
+     */
+    private void expire(long now, ByteBuffer buffer, byte[] bytes) throws IOException {
+        Iterator<Waiting> waiters = waiting.values().iterator();
+        while (waiters.hasNext()) {
+            if (now - waiters.next().seen > WAITING_TIMEOUT_MS) waiters.remove();
+        }
+
+        // Each session is in the map once per player
+        Set<Session> expired = new HashSet<>();
+        for (Session session : sessions.values()) {
+            if (now - session.firstSeen > SESSION_TIMEOUT_MS || now - session.secondSeen > SESSION_TIMEOUT_MS) {
+                expired.add(session);
+            }
+        }
+        for (Session session : expired) {
+            sessions.remove(session.first);
+            sessions.remove(session.second);
+            RaceProtocol.writeLeave(buffer);
+            if (now - session.firstSeen <= SESSION_TIMEOUT_MS) socket.send(new DatagramPacket(bytes, bytes.length, session.first));
+            if (now - session.secondSeen <= SESSION_TIMEOUT_MS) socket.send(new DatagramPacket(bytes, bytes.length, session.second));
+        }
+    }
+
+    private void sendStart(ByteBuffer buffer, byte[] bytes, Session session, SocketAddress to) throws IOException {
+        RaceProtocol.writeStart(buffer, to.equals(session.first) ? 0 : 1, session.spawnX, session.seed);
+        socket.send(new DatagramPacket(bytes, bytes.length, to));
+    }
+
+    private void relay(DatagramPacket packet, SocketAddress to) throws IOException {
+        packet.setSocketAddress(to);
+        socket.send(packet);
+        packetsRelayed++;
+        bytesRelayed += packet.getLength();
+    }
+
+    public void stop() {
+        running = false;
+        socket.close();
+    }
+
+    public long getPacketsRelayed() { return packetsRelayed; }
+    public long getBytesRelayed() { return bytesRelayed; }
+
+    public static void main(String[] args) throws IOException {
+        RaceRelayServer server = new RaceRelayServer(args.length > 0 ? Integer.parseInt(args[0]) : RaceProtocol.DEFAULT_PORT);
+        System.out.println("Race relay listening on UDP " + server.getPort());
+        server.run();
+    }
+}
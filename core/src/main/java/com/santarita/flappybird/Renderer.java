@@ -0,0 +1,51 @@
+package com.santarita.flappybird;
+
+/**
+ * The drawing operations a frame needs. Implemented by CanvasRenderer for the screen and by
+ * SoftwareRenderer, a plain int[] framebuffer for golden images and render benchmarks off-device.
+ *
+ * Coordinates are in pixels of the target and pass through the current scale (see scale()).
+ * Every draw method counts as one draw call.
+ */
+public interface Renderer {
+    int getWidth();
+    int getHeight();
+
+    /**
+     * Pushes the current scale; restore() pops it.
+     */
+    void save();
+    void scale(float factor);
+    void restore();
+
+    /**
+     * Draws the sprite unscaled with its top-left corner at (x, y).
+     */
+    void drawSprite(Sprite sprite, float x, float y);
+
+    /**
+     * @param alpha 0 (invisible) to 255 (opaque), applied on top of the sprite's own alpha.
+     */
+    void drawSprite(Sprite sprite, float x, float y, int alpha);
+
+    /**
+     * Stretches the sprite over the rectangle.
+     */
+    void drawSprite(Sprite sprite, float left, float top, float right, float bottom);
+
+    /**
+     * Draws part of the sprite unscaled, the source rectangle's top-left corner at (x, y).
+     * Used to blit one cell of a sheet such as a GlyphAtlas.
+     */
+    void drawSprite(Sprite sprite, int srcLeft, int srcTop, int srcRight, int srcBottom, float x, float y);
+
+    void fillRect(float left, float top, float right, float bottom, int argb);
+
+    /**
+     * Draws a run of glyphs with its baseline at y, aligned on x as the style says.
+     */
+    void drawText(CharSequence text, float x, float y, TextStyle style);
+
+    int getDrawCallCount();
+    void resetDrawCallCount();
+}
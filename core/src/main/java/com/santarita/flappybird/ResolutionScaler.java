@@ -0,0 +1,82 @@
+package com.santarita.flappybird;
+
+/**
+ * Picks a render resolution level from recent frame times.
+ * Drops one level quickly when frames get close to the frame budget, and only climbs
+ * back after several consecutive windows with plenty of headroom, so it doesn't oscillate.
+ */
+public class ResolutionScaler {
+    // Fraction of the native surface size rendered at each quality level
+    private static final float[] LEVELS = {1f, 0.85f, 0.7f, 0.5f};
+
+    private static final int WINDOW_FRAMES = 30;
+    private static final int COOLDOWN_FRAMES = 120; // Let the new level settle before judging it
+    private static final int GOOD_WINDOWS_TO_UPGRADE = 4;
+    private static final float DOWNGRADE_LOAD = 0.9f; // Average frame uses 90% of the budget
+    private static final float UPGRADE_LOAD = 0.5f;   // Average frame uses less than half
+
+    private final long frameBudgetNanos;
+
+    private int level = 0;
+    private long windowNanos = 0;
+    private int windowFrames = 0;
+    private int cooldown = 0;
+    private int goodWindows = 0;
+
+    public ResolutionScaler(int targetFps) {
+        this.frameBudgetNanos = 1_000_000_000L / targetFps;
+    }
+
+    /**
+     * Feeds the time spent producing one frame (excluding the sleep to hit the target FPS).
+     * @return True if the quality level changed; read the new one with getScale().
+     */
+    public boolean onFrame(long frameNanos) {
+        if (cooldown > 0) {
+            cooldown--;
+            return false;
+        }
+
+        windowNanos += frameNanos;
+        windowFrames++;
+        if (windowFrames < WINDOW_FRAMES) return false;
+
+        long average = windowNanos / windowFrames;
+        windowNanos = 0;
+        windowFrames = 0;
+
+        if (average > frameBudgetNanos * DOWNGRADE_LOAD) {
+            goodWindows = 0;
+            if (level < LEVELS.length - 1) {
+                level++;
+                cooldown = COOLDOWN_FRAMES;
+                return true;
+            }
+        } else if (average < frameBudgetNanos * UPGRADE_LOAD) {
+            if (++goodWindows >= GOOD_WINDOWS_TO_UPGRADE && level > 0) {
+                level--;
+                goodWindows = 0;
+                cooldown = COOLDOWN_FRAMES;
+                return true;
+            }
+        } else {
+            goodWindows = 0;
+        }
+        return false;
+    }
+
+    public float getScale() {
+        return LEVELS[level];
+    }
+
+    /**
+     * Back to full resolution, e.g. when the surface is recreated.
+     */
+    public void reset() {
+        level = 0;
+        windowNanos = 0;
+        windowFrames = 0;
+        cooldown = 0;
+        goodWindows = 0;
+    }
+}
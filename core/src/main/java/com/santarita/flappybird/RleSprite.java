@@ -0,0 +1,100 @@
+package com.santarita.flappybird;
+
+/**
+ * Run-length encoded sprite. Each row is a list of spans:
+ *   SKIP   fully transparent pixels, nothing stored and nothing drawn,
+ *   OPAQUE fully opaque pixels, stored and copied without blending,
+ *   BLEND  partly transparent pixels (anti-aliased edges), stored and blended.
+ * Keyed sprites (bird, pipes) are mostly long opaque and transparent runs, so this stores a
+ * fraction of the ARGB pixels and lets SoftwareRenderer skip or bulk-copy most of them.
+ *
+ * A span is one int: type in the top 2 bits, length in pixels below.
+ */
+public final class RleSprite {
+    static final int SKIP = 0;
+    static final int OPAQUE = 1;
+    static final int BLEND = 2;
+    private static final int TYPE_SHIFT = 30;
+    private static final int LENGTH_MASK = (1 << TYPE_SHIFT) - 1;
+
+    private final int width, height;
+    private final int[] spans;      // All rows' spans, back to back
+    private final int[] rowSpans;   // Index of each row's first span; height + 1 entries
+    private final int[] colors;     // ARGB of the OPAQUE and BLEND pixels, in drawing order
+    private final int[] rowColors;  // Index of each row's first color; height + 1 entries
+
+    private RleSprite(int width, int height, int[] spans, int[] rowSpans, int[] colors, int[] rowColors) {
+        this.width = width;
+        this.height = height;
+        this.spans = spans;
+        this.rowSpans = rowSpans;
+        this.colors = colors;
+        this.rowColors = rowColors;
+    }
+
+    /**
+     * @param argb Row-major, width * height non-premultiplied pixels.
+     */
+    public static RleSprite encode(int[] argb, int width, int height) {
+        // First pass sizes the arrays exactly
+        int spanCount = 0, colorCount = 0;
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int previous = -1;
+            for (int x = 0; x < width; x++) {
+                int type = typeOf(argb[row + x]);
+                if (type != previous) spanCount++;
+                if (type != SKIP) colorCount++;
+                previous = type;
+            }
+        }
+
+        int[] spans = new int[spanCount];
+        int[] rowSpans = new int[height + 1];
+        int[] colors = new int[colorCount];
+        int[] rowColors = new int[height + 1];
+        int s = 0, c = 0;
+        for (int y = 0; y < height; y++) {
+            rowSpans[y] = s;
+            rowColors[y] = c;
+            int row = y * width;
+            int x = 0;
+            while (x < width) {
+                int type = typeOf(argb[row + x]);
+                int start = x;
+                while (x < width && typeOf(argb[row + x]) == type) x++;
+                spans[s++] = (type << TYPE_SHIFT) | (x - start);
+                if (type != SKIP) {
+                    System.arraycopy(argb, row + start, colors, c, x - start);
+                    c += x - start;
+                }
+            }
+        }
+        rowSpans[height] = s;
+        rowColors[height] = c;
+        return new RleSprite(width, height, spans, rowSpans, colors, rowColors);
+    }
+
+    private static int typeOf(int pixel) {
+        int alpha = pixel >>> 24;
+        return alpha == 0 ? SKIP : alpha == 255 ? OPAQUE : BLEND;
+    }
+
+    static int spanType(int span) { return span >>> TYPE_SHIFT; }
+    static int spanLength(int span) { return span & LENGTH_MASK; }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    int[] spans() { return spans; }
+    int[] colors() { return colors; }
+    int firstSpan(int row) { return rowSpans[row]; }
+    int endSpan(int row) { return rowSpans[row + 1]; }
+    int firstColor(int row) { return rowColors[row]; }
+
+    /**
+     * Approximate heap size of the encoded data, to compare with width * height * 4.
+     */
+    public int getByteCount() {
+        return 4 * (spans.length + rowSpans.length + colors.length + rowColors.length);
+    }
+}
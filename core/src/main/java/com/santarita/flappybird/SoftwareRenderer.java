@@ -0,0 +1,322 @@
+package com.santarita.flappybird;
+
+import java.util.Arrays;
+
+/**
+ * Renderer drawing into a plain int[] ARGB framebuffer, in pure Java. Used to produce golden
+ * images and to time or count rendering on a desktop JVM; results won't match Canvas pixel for
+ * pixel (nearest-neighbour stretching, a built-in 5x7 font instead of the system typeface).
+ *
+ * Sprites are drawn from their RleSprite form by default: transparent spans are skipped and
+ * opaque spans copied without blending. setUseRle(false) blends every ARGB pixel instead;
+ * both produce the same image.
+ */
+public class SoftwareRenderer implements Renderer {
+    // 5x7 glyphs, 35 bits each, top row in the highest bits. Lower case draws as upper case.
+    private static final String FONT_CHARS = " !'-.0123456789:ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final long[] FONT = {
+            0x000000000L, 0x108421004L, 0x308800000L, 0x0000F8000L, 0x00000018CL, 0x3A33AE62EL,
+            0x11842108EL, 0x3A211111FL, 0x7C441062EL, 0x08CA97C42L, 0x7E1E0862EL, 0x1910F462EL,
+            0x7C2222108L, 0x3A317462EL, 0x3A317844CL, 0x018C03180L, 0x3A31FC631L, 0x7A31F463EL,
+            0x3A308422EL, 0x72518C65CL, 0x7E10F421FL, 0x7E10F4210L, 0x3A30BC62FL, 0x4631FC631L,
+            0x38842108EL, 0x1C4210A4CL, 0x4654C5251L, 0x42108421FL, 0x4775AC631L, 0x4639ACE31L,
+            0x3A318C62EL, 0x7A31F4210L, 0x3A318D64DL, 0x7A31F5251L, 0x3E107043EL, 0x7C8421084L,
+            0x46318C62EL, 0x46318C544L, 0x4631AD6AAL, 0x462A22A31L, 0x463151084L, 0x7C222221FL
+    };
+    private static final int GLYPH_WIDTH = 5;
+    private static final int GLYPH_HEIGHT = 7;
+    private static final int GLYPH_ADVANCE = 6;
+
+    private final int width, height;
+    private final int[] pixels;
+    private final float[] scaleStack = new float[16];
+    private int depth = 0;
+    private float scale = 1f;
+    private int drawCalls = 0;
+    private boolean useRle = true;
+
+    public SoftwareRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    /**
+     * The framebuffer, row-major, width * height ARGB pixels.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public void clear(int argb) {
+        Arrays.fill(pixels, argb);
+    }
+
+    public void setUseRle(boolean useRle) {
+        this.useRle = useRle;
+    }
+
+    @Override public int getWidth() { return width; }
+    @Override public int getHeight() { return height; }
+
+    @Override
+    public void save() {
+        if (depth == scaleStack.length) throw new IllegalStateException("save() nested too deep");
+        scaleStack[depth++] = scale;
+    }
+
+    @Override
+    public void scale(float factor) {
+        scale *= factor;
+    }
+
+    @Override
+    public void restore() {
+        if (depth == 0) throw new IllegalStateException("restore() without save()");
+        scale = scaleStack[--depth];
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y) {
+        drawSprite(sprite, x, y, 255);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y, int alpha) {
+        drawCalls++;
+        drawRegion(sprite, 0, 0, sprite.getWidth(), sprite.getHeight(), x, y, alpha);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float left, float top, float right, float bottom) {
+        drawCalls++;
+        stretch(sprite, 0, 0, sprite.getWidth(), sprite.getHeight(),
+                left * scale, top * scale, right * scale, bottom * scale, 255);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, int srcLeft, int srcTop, int srcRight, int srcBottom, float x, float y) {
+        drawCalls++;
+        drawRegion(sprite, srcLeft, srcTop, srcRight, srcBottom, x, y, 255);
+    }
+
+    private void drawRegion(Sprite sprite, int sx0, int sy0, int sx1, int sy1, float x, float y, int alpha) {
+        if (scale == 1f) {
+            if (useRle) {
+                blitRle(sprite.getRle(), sx0, sy0, sx1, sy1, (int) x, (int) y, alpha);
+            } else {
+                blit(sprite, sx0, sy0, sx1, sy1, (int) x, (int) y, alpha);
+            }
+        } else {
+            stretch(sprite, sx0, sy0, sx1, sy1,
+                    x * scale, y * scale, (x + sx1 - sx0) * scale, (y + sy1 - sy0) * scale, alpha);
+        }
+    }
+
+    @Override
+    public void fillRect(float left, float top, float right, float bottom, int argb) {
+        drawCalls++;
+        fill(Math.round(left * scale), Math.round(top * scale), Math.round(right * scale), Math.round(bottom * scale), argb);
+    }
+
+    @Override
+    public void drawText(CharSequence text, float x, float y, TextStyle style) {
+        drawCalls++;
+        // Cap height of 0.7 * size, like most typefaces
+        int cell = Math.max(1, Math.round(style.size * scale * 0.7f / GLYPH_HEIGHT));
+        int textWidth = text.length() * GLYPH_ADVANCE * cell - cell;
+        int left = Math.round(x * scale);
+        if (style.align == TextStyle.Align.CENTER) left -= textWidth / 2;
+        else if (style.align == TextStyle.Align.RIGHT) left -= textWidth;
+        int top = Math.round(y * scale) - GLYPH_HEIGHT * cell;
+
+        if (style.shadowRadius > 0) {
+            int offset = Math.max(1, Math.round(style.shadowRadius * scale / 2));
+            drawGlyphs(text, left + offset, top + offset, cell, style.shadowColor, style.bold);
+        }
+        drawGlyphs(text, left, top, cell, style.color, style.bold);
+    }
+
+    @Override public int getDrawCallCount() { return drawCalls; }
+    @Override public void resetDrawCallCount() { drawCalls = 0; }
+
+    private void drawGlyphs(CharSequence text, int left, int top, int cell, int argb, boolean bold) {
+        int extra = bold ? Math.max(1, cell / 3) : 0;
+        for (int i = 0; i < text.length(); i++) {
+            long glyph = glyphFor(text.charAt(i));
+            int glyphLeft = left + i * GLYPH_ADVANCE * cell;
+            for (int row = 0; row < GLYPH_HEIGHT; row++) {
+                for (int column = 0; column < GLYPH_WIDTH; column++) {
+                    int bit = GLYPH_WIDTH * GLYPH_HEIGHT - 1 - (row * GLYPH_WIDTH + column);
+                    if ((glyph & (1L << bit)) == 0) continue;
+                    int px = glyphLeft + column * cell;
+                    int py = top + row * cell;
+                    fill(px, py, px + cell + extra, py + cell, argb);
+                }
+            }
+        }
+    }
+
+    private static long glyphFor(char c) {
+        if (c >= 'a' && c <= 'z') c -= 'a' - 'A';
+        int index = FONT_CHARS.indexOf(c);
+        return index < 0 ? 0 : FONT[index];
+    }
+
+    // The blitters below draw the source rectangle [sx0, sx1) x [sy0, sy1) of a sprite
+
+    private void blit(Sprite sprite, int sx0, int sy0, int sx1, int sy1, int dx, int dy, int alpha) {
+        int[] src = sprite.getPixels();
+        int sw = sprite.getWidth();
+        int x0 = Math.max(0, dx), y0 = Math.max(0, dy);
+        int x1 = Math.min(width, dx + sx1 - sx0), y1 = Math.min(height, dy + sy1 - sy0);
+        for (int y = y0; y < y1; y++) {
+            int srcRow = (sy0 + y - dy) * sw + sx0 - dx;
+            int dstRow = y * width;
+            for (int x = x0; x < x1; x++) {
+                pixels[dstRow + x] = blend(pixels[dstRow + x], src[srcRow + x], alpha);
+            }
+        }
+    }
+
+    private void blitRle(RleSprite rle, int sx0, int sy0, int sx1, int sy1, int dx, int dy, int alpha) {
+        int clipLeft = Math.max(0, dx), clipRight = Math.min(width, dx + sx1 - sx0);
+        int y0 = Math.max(0, dy), y1 = Math.min(height, dy + sy1 - sy0);
+        if (clipLeft >= clipRight) return;
+        int[] spans = rle.spans();
+        int[] colors = rle.colors();
+
+        for (int y = y0; y < y1; y++) {
+            int sy = sy0 + y - dy;
+            int dstRow = y * width;
+            int color = rle.firstColor(sy);
+            int x = dx - sx0; // Where the row's first span lands
+            for (int i = rle.firstSpan(sy), end = rle.endSpan(sy); i < end && x < clipRight; i++) {
+                int type = RleSprite.spanType(spans[i]);
+                int length = RleSprite.spanLength(spans[i]);
+                if (type != RleSprite.SKIP) {
+                    int from = Math.max(x, clipLeft), to = Math.min(x + length, clipRight);
+                    int src = color + (from - x);
+                    if (type == RleSprite.OPAQUE && alpha == 255) {
+                        if (from < to) System.arraycopy(colors, src, pixels, dstRow + from, to - from);
+                    } else {
+                        for (int px = from; px < to; px++, src++) {
+                            pixels[dstRow + px] = blend(pixels[dstRow + px], colors[src], alpha);
+                        }
+                    }
+                    color += length;
+                }
+                x += length;
+            }
+        }
+    }
+
+    private void stretch(Sprite sprite, int sx0, int sy0, int sx1, int sy1,
+                         float left, float top, float right, float bottom, int alpha) {
+        int dx0 = Math.round(left), dy0 = Math.round(top);
+        int dw = Math.round(right) - dx0, dh = Math.round(bottom) - dy0;
+        if (dw <= 0 || dh <= 0) return;
+        if (useRle) {
+            stretchRle(sprite.getRle(), sx0, sy0, sx1, sy1, dx0, dy0, dw, dh, alpha);
+            return;
+        }
+
+        int[] src = sprite.getPixels();
+        int stride = sprite.getWidth();
+        int sw = sx1 - sx0, sh = sy1 - sy0;
+        int x0 = Math.max(0, dx0), y0 = Math.max(0, dy0);
+        int x1 = Math.min(width, dx0 + dw), y1 = Math.min(height, dy0 + dh);
+        for (int y = y0; y < y1; y++) {
+            int srcRow = (sy0 + sourceIndex(y - dy0, sh, dh)) * stride + sx0;
+            int dstRow = y * width;
+            for (int x = x0; x < x1; x++) {
+                int sx = sourceIndex(x - dx0, sw, dw);
+                pixels[dstRow + x] = blend(pixels[dstRow + x], src[srcRow + sx], alpha);
+            }
+        }
+    }
+
+    private void stretchRle(RleSprite rle, int sx0, int sy0, int sx1, int sy1,
+                            int dx0, int dy0, int dw, int dh, int alpha) {
+        int sw = sx1 - sx0, sh = sy1 - sy0;
+        int x0 = Math.max(0, dx0), y0 = Math.max(0, dy0);
+        int x1 = Math.min(width, dx0 + dw), y1 = Math.min(height, dy0 + dh);
+        if (x0 >= x1) return;
+        int[] spans = rle.spans();
+        int[] colors = rle.colors();
+        boolean sameWidth = sw == dw; // Pipes only stretch vertically, so their spans can still be copied
+
+        for (int y = y0; y < y1; y++) {
+            int sy = sy0 + sourceIndex(y - dy0, sh, dh);
+            int dstRow = y * width;
+            int color = rle.firstColor(sy);
+            int sx = -sx0; // Start of the current span, relative to the source rectangle
+            for (int i = rle.firstSpan(sy), end = rle.endSpan(sy); i < end; i++) {
+                int type = RleSprite.spanType(spans[i]);
+                int length = RleSprite.spanLength(spans[i]);
+                if (type != RleSprite.SKIP) {
+                    // Destination pixels whose nearest source texel falls in this span
+                    int from = Math.max(x0, dx0 + firstDestination(sx, sw, dw));
+                    int to = Math.min(x1, dx0 + firstDestination(sx + length, sw, dw));
+                    if (type == RleSprite.OPAQUE && alpha == 255 && sameWidth) {
+                        if (from < to) System.arraycopy(colors, color + (from - dx0 - sx), pixels, dstRow + from, to - from);
+                    } else {
+                        boolean copy = type == RleSprite.OPAQUE && alpha == 255;
+                        for (int x = from; x < to; x++) {
+                            int src = colors[color + sourceIndex(x - dx0, sw, dw) - sx];
+                            pixels[dstRow + x] = copy ? src : blend(pixels[dstRow + x], src, alpha);
+                        }
+                    }
+                    color += length;
+                }
+                sx += length;
+                if (dx0 + firstDestination(sx, sw, dw) >= x1) break;
+            }
+        }
+    }
+
+    /**
+     * Nearest source texel to the centre of destination pixel d, when size source texels
+     * are stretched over destSize pixels. Exact integer maths, so both blitters agree.
+     */
+    private static int sourceIndex(int d, int size, int destSize) {
+        return (int) (((2L * d + 1) * size) / (2L * destSize));
+    }
+
+    /**
+     * First destination pixel whose sourceIndex() is at least s.
+     */
+    private static int firstDestination(int s, int size, int destSize) {
+        long numerator = 2L * s * destSize - size;
+        long denominator = 2L * size;
+        long d = numerator <= 0 ? -(-numerator / denominator) : (numerator + denominator - 1) / denominator;
+        return (int) Math.max(0, Math.min(destSize, d));
+    }
+
+    private void fill(int left, int top, int right, int bottom, int argb) {
+        int x0 = Math.max(0, left), y0 = Math.max(0, top);
+        int x1 = Math.min(width, right), y1 = Math.min(height, bottom);
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x++) pixels[row + x] = blend(pixels[row + x], argb, 255);
+        }
+    }
+
+    /**
+     * Source-over of a non-premultiplied ARGB pixel, with an extra alpha factor.
+     */
+    static int blend(int dst, int src, int alpha) {
+        int sa = ((src >>> 24) * alpha + 127) / 255;
+        if (sa == 0) return dst;
+        if (sa == 255) return src;
+
+        int da = dst >>> 24;
+        int dw = da * (255 - sa); // Destination weight, scaled by 255
+        int outA = sa + (dw + 127) / 255;
+        int divisor = outA * 255;
+        int r = (((src >> 16) & 0xFF) * sa * 255 + ((dst >> 16) & 0xFF) * dw) / divisor;
+        int g = (((src >> 8) & 0xFF) * sa * 255 + ((dst >> 8) & 0xFF) * dw) / divisor;
+        int b = ((src & 0xFF) * sa * 255 + (dst & 0xFF) * dw) / divisor;
+        return (outA << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,77 @@
+package com.santarita.flappybird;
+
+/**
+ * Image handle passed to a Renderer, so drawing code doesn't depend on a graphics backend.
+ * Wraps the backend's own image (an android.graphics.Bitmap for CanvasRenderer, see
+ * CanvasRenderer.wrap()) and can produce ARGB pixels for SoftwareRenderer on demand.
+ */
+public final class Sprite {
+    /**
+     * Copies the image into a row-major ARGB array of width * height pixels.
+     */
+    public interface PixelSource {
+        void readPixels(int[] argb);
+    }
+
+    private final int width, height;
+    private final Object image;
+    private final PixelSource source;
+    private int[] pixels;
+    private RleSprite rle;
+
+    /**
+     * A sprite that only exists as pixels, e.g. for SoftwareRenderer on a desktop JVM.
+     */
+    public Sprite(int width, int height, int[] argb) {
+        this(null, width, height, null);
+        this.pixels = argb;
+    }
+
+    public Sprite(Object image, int width, int height, PixelSource source) {
+        this.image = image;
+        this.width = width;
+        this.height = height;
+        this.source = source;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /**
+     * The backend image, or null for pixel-only sprites.
+     */
+    public Object getImage() { return image; }
+
+    /**
+     * ARGB pixels, read from the backend image the first time.
+     */
+    public int[] getPixels() {
+        if (pixels == null) {
+            pixels = new int[width * height];
+            if (source != null) source.readPixels(pixels);
+        }
+        return pixels;
+    }
+
+    /**
+     * Run-length encoded pixels, built the first time. Once encoded, the plain pixel copy of a
+     * backend image is released; it can be read again if something still needs it.
+     */
+    public RleSprite getRle() {
+        if (rle == null) {
+            rle = RleSprite.encode(getPixels(), width, height);
+            if (source != null) pixels = null;
+        }
+        return rle;
+    }
+
+    /**
+     * Drops the pixel copies after the backend image was drawn into (see UiLayerCache).
+     */
+    public void invalidatePixels() {
+        if (source != null) {
+            pixels = null;
+            rle = null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.santarita.flappybird;
+
+/**
+ * Time-of-impact helpers for continuous collision.
+ *
+ * Within one update the bird moves relative to a pipe along x linearly and along y on the
+ * parabola y(t) = c + b*t + a*t^2 (see BirdEntity.getPathA()/getPathB()), where t is measured
+ * in 60 Hz ticks. These helpers find the first t at which a coordinate enters an interval,
+ * so a large step can't jump over a pipe edge or the ground.
+ *
+ * One instance is owned by the game loop; it keeps scratch space so nothing is allocated per tick.
+ */
+public class SweptCollision {
+    public static final float NO_CONTACT = -1f;
+
+    private final double[] roots = new double[4];
+
+    /**
+     * Earliest t in [t0, t1] where p0 + v*t lies inside (lo, hi), or NO_CONTACT.
+     */
+    public float linearEntry(float p0, float v, float lo, float hi, float t0, float t1) {
+        double enter, exit;
+        if (v == 0) {
+            if (p0 <= lo || p0 >= hi) return NO_CONTACT;
+            enter = Double.NEGATIVE_INFINITY;
+            exit = Double.POSITIVE_INFINITY;
+        } else {
+            double ta = (lo - p0) / v;
+            double tb = (hi - p0) / v;
+            enter = Math.min(ta, tb);
+            exit = Math.max(ta, tb);
+        }
+        if (exit <= t0 || enter > t1) return NO_CONTACT;
+        return (float) Math.max(enter, t0);
+    }
+
+    /**
+     * Last t in [t0, t1] at which p0 + v*t is still inside (lo, hi), assuming it is inside at t0.
+     */
+    public float linearExit(float p0, float v, float lo, float hi, float t0, float t1) {
+        if (v == 0) return t1;
+        double exit = Math.max((lo - p0) / v, (hi - p0) / v);
+        return (float) Math.max(t0, Math.min(exit, t1));
+    }
+
+    /**
+     * Earliest t in [t0, t1] where a*t^2 + b*t + c lies inside (lo, hi), or NO_CONTACT.
+     * Either bound may be infinite.
+     */
+    public float quadraticEntry(float a, float b, float c, float lo, float hi, float t0, float t1) {
+        if (t0 > t1) return NO_CONTACT;
+        if (isInside(a, b, c, lo, hi, t0)) return t0;
+
+        // The value can only enter the interval at a root of q(t) = lo or q(t) = hi
+        int count = addRoots(a, b, c - lo, t0, t1, 0);
+        count = addRoots(a, b, c - hi, t0, t1, count);
+        sortRoots(count);
+
+        for (int i = 0; i < count; i++) {
+            double next = i + 1 < count ? roots[i + 1] : t1;
+            double mid = (roots[i] + next) * 0.5;
+            if (next > roots[i] && isInside(a, b, c, lo, hi, mid)) return (float) roots[i];
+        }
+        return NO_CONTACT;
+    }
+
+    private static boolean isInside(float a, float b, float c, float lo, float hi, double t) {
+        double value = (a * t + b) * t + c;
+        return value > lo && value < hi;
+    }
+
+    private int addRoots(double a, double b, double c, double t0, double t1, int count) {
+        if (Double.isInfinite(c)) return count;
+        if (a == 0) {
+            if (b != 0) count = addRoot(-c / b, t0, t1, count);
+            return count;
+        }
+        double discriminant = b * b - 4 * a * c;
+        if (discriminant < 0) return count;
+        double sqrt = Math.sqrt(discriminant);
+        // Numerically stable form of the quadratic formula
+        double q = -0.5 * (b + Math.copySign(sqrt, b));
+        count = addRoot(q / a, t0, t1, count);
+        if (q != 0) count = addRoot(c / q, t0, t1, count);
+        return count;
+    }
+
+    private int addRoot(double root, double t0, double t1, int count) {
+        if (root >= t0 && root <= t1) roots[count++] = root;
+        return count;
+    }
+
+    private void sortRoots(int count) {
+        for (int i = 1; i < count; i++) {
+            double value = roots[i];
+            int j = i - 1;
+            while (j >= 0 && roots[j] > value) {
+                roots[j + 1] = roots[j];
+                j--;
+            }
+            roots[j + 1] = value;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.santarita.flappybird;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gameplay events recorded from the game thread without locks or allocations.
+ *
+ * record() copies a fixed-size event into a preallocated single-producer/single-consumer ring
+ * and returns; if the ring is full the event is counted as dropped instead of blocking. A
+ * writer thread drains the ring every FLUSH_INTERVAL_MS and appends the events to a binary
+ * file in one write. Memory is fixed at CAPACITY records plus one batch buffer, and the file
+ * is rotated once it reaches MAX_FILE_BYTES (one previous file is kept).
+ *
+ * File format (little-endian): a header (MAGIC, VERSION, RECORD_SIZE as i32s) followed by
+ * RECORD_SIZE byte records: i64 nanoTime, i32 type, i32 a, i32 b, i32 c.
+ * See TelemetryReader for what a, b and c mean for each type.
+ *
+ * Only the game thread may call record().
+ */
+public class Telemetry {
+    public static final int MAGIC = 0x4C544246; // "FBTL"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 3 * 4;
+    public static final int RECORD_SIZE = 24;
+
+    // Event types
+    public static final int RUN_START = 1;   // a = theme, b = deterministic (0/1), c = screen height
+    public static final int JUMP = 2;        // a = bird y, b = score
+    public static final int SCORE = 3;       // a = score, b = theme
+    public static final int THEME = 4;       // a = new theme
+    public static final int DEATH = 5;       // a = cause, b = bird x, c = bird y
+    public static final int FRAME_STATS = 6; // a = average frame us, b = worst frame us (update + draw), c = render scale %
+    public static final int DROPPED = 7;     // a = events dropped since the last DROPPED record (added by the writer)
+    public static final int DRAW_CALLS = 8;  // a = average draw calls per frame, b = most in one frame
+    public static final int AUTOPILOT = 9;   // a = average search depth (ticks), b = average decision us, c = overruns
+
+    public static final int CAUSE_GROUND = 0;
+    public static final int CAUSE_PIPE = 1;
+
+    static final String FILE_NAME = "telemetry.bin";
+    static final int CAPACITY = 1024; // Records (power of two)
+    private static final long MAX_FILE_BYTES = 1 << 20;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    // Each record takes 3 longs: nanos, type | a << 32, b | c << 32
+    private final long[] ring = new long[CAPACITY * 3];
+    private final AtomicLong head = new AtomicLong(); // Next record to write (game thread)
+    private final AtomicLong tail = new AtomicLong(); // Next record to read (writer thread)
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final File file;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(HEADER_SIZE + (CAPACITY + 1) * RECORD_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long droppedWritten = 0;
+
+    public Telemetry(File directory) {
+        if (!directory.exists()) directory.mkdirs();
+        this.file = new File(directory, FILE_NAME);
+        writer = new Thread(this::writeLoop, "Telemetry");
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records an event. Never blocks or allocates.
+     * @return False if the ring was full and the event was dropped.
+     */
+    public boolean record(int type, int a, int b, int c) {
+        long index = head.get();
+        if (index - tail.get() >= CAPACITY) {
+            dropped.lazySet(dropped.get() + 1); // Single writer, so no CAS needed
+            return false;
+        }
+        int slot = (int) (index & (CAPACITY - 1)) * 3;
+        ring[slot] = System.nanoTime();
+        ring[slot + 1] = (type & 0xFFFFFFFFL) | ((long) a << 32);
+        ring[slot + 2] = (b & 0xFFFFFFFFL) | ((long) c << 32);
+        head.lazySet(index + 1); // Publishes the slot to the writer
+        return true;
+    }
+
+    public boolean record(int type, int a) {
+        return record(type, a, 0, 0);
+    }
+
+    /**
+     * Asks the writer to drain now, e.g. before the app may be killed.
+     */
+    public void flush() {
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Writes what is left and stops the writer thread.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Waits for the writer thread to finish after close(), for tests and tools.
+     * @return False if it was still writing after the timeout.
+     */
+    boolean awaitClose(long timeoutMs) throws InterruptedException {
+        writer.join(timeoutMs);
+        return !writer.isAlive();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(FLUSH_INTERVAL_MS * 1_000_000L);
+            drain();
+        }
+        drain();
+    }
+
+    private void drain() {
+        long end = head.get();
+        long start = tail.get();
+        long droppedNow = dropped.get();
+        if (end == start && droppedNow == droppedWritten) return;
+
+        batch.clear();
+        if (file.length() >= MAX_FILE_BYTES) {
+            File previous = new File(file.getPath() + ".1");
+            previous.delete();
+            file.renameTo(previous);
+        }
+        boolean newFile = !file.exists() || file.length() == 0;
+        if (newFile) {
+            batch.putInt(MAGIC);
+            batch.putInt(VERSION);
+            batch.putInt(RECORD_SIZE);
+        }
+
+        for (long i = start; i < end; i++) {
+            int slot = (int) (i & (CAPACITY - 1)) * 3;
+            batch.putLong(ring[slot]);
+            batch.putLong(ring[slot + 1]);
+            batch.putLong(ring[slot + 2]);
+        }
+        tail.lazySet(end); // The slots can be reused now
+
+        if (droppedNow != droppedWritten) {
+            batch.putLong(System.nanoTime());
+            batch.putInt(DROPPED);
+            batch.putInt((int) (droppedNow - droppedWritten));
+            batch.putLong(0);
+            droppedWritten = droppedNow;
+        }
+
+        batch.flip();
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             FileChannel channel = out.getChannel()) {
+            while (batch.hasRemaining()) channel.write(batch);
+        } catch (IOException e) {
+            // Analytics only; losing a batch is fine
+        }
+    }
+}
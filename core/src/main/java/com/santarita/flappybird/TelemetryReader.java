@@ -0,0 +1,180 @@
+package com.santarita.flappybird;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Offline reader for files written by Telemetry. Plain JVM, e.g. after
+ *   adb exec-out run-as com.santarita.flappybird cat files/telemetry/telemetry.bin > telemetry.bin
+ * run
+ *   java com.santarita.flappybird.TelemetryReader telemetry.bin.1 telemetry.bin
+ * to print a per-run summary and totals. Pass the files oldest first.
+ */
+public class TelemetryReader {
+    /**
+     * Receives each record in file order.
+     */
+    public interface Visitor {
+        void onRecord(long nanos, int type, int a, int b, int c);
+    }
+
+    /**
+     * Reads every record of one file.
+     * @return Number of records read.
+     */
+    public static int read(byte[] data, Visitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < Telemetry.HEADER_SIZE || buffer.getInt() != Telemetry.MAGIC) {
+            throw new IOException("Not a telemetry file");
+        }
+        int version = buffer.getInt();
+        int recordSize = buffer.getInt();
+        if (version != Telemetry.VERSION || recordSize < Telemetry.RECORD_SIZE) {
+            throw new IOException("Unsupported telemetry version " + version);
+        }
+
+        int count = 0;
+        // A trailing partial record means the app died mid-write; ignore it
+        while (buffer.remaining() >= recordSize) {
+            int start = buffer.position();
+            visitor.onRecord(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+            buffer.position(start + recordSize);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Per-run and overall numbers.
+     */
+    public static class Summary implements Visitor {
+        private static final int HEIGHT_BUCKETS = 10;
+
+        int runs, deterministicRuns;
+        int jumps, bestScore;
+        long scoreTotal;
+        int groundDeaths, pipeDeaths;
+        final int[] deathHeights = new int[HEIGHT_BUCKETS]; // By tenth of the screen, top first
+        // The theme index wraps around, so progress is the number of switches in a run
+        int mostThemeSwitches;
+        long themeSwitchesTotal;
+        long frameStats, frameMicrosTotal;
+        int worstFrameMicros, lowestRenderScale = 100;
+        long drawCallStats, drawCallsTotal;
+        int mostDrawCalls;
+        long autopilotStats, autopilotDepthTotal, autopilotMicrosTotal, autopilotOverruns;
+        long dropped;
+
+        // Current run
+        private boolean inRun;
+        private long runStart;
+        private int runJumps, runScore, runTheme, runThemeSwitches, screenHeight = 1;
+        private final StringBuilder runLog = new StringBuilder();
+
+        @Override
+        public void onRecord(long nanos, int type, int a, int b, int c) {
+            switch (type) {
+                case Telemetry.RUN_START:
+                    if (inRun) endRun(nanos, "abandoned", 0);
+                    inRun = true;
+                    runStart = nanos;
+                    runJumps = 0;
+                    runScore = 0;
+                    runTheme = a;
+                    runThemeSwitches = 0;
+                    screenHeight = Math.max(1, c);
+                    runs++;
+                    if (b != 0) deterministicRuns++;
+                    break;
+                case Telemetry.JUMP:
+                    jumps++;
+                    runJumps++;
+                    break;
+                case Telemetry.SCORE:
+                    runScore = a;
+                    break;
+                case Telemetry.THEME:
+                    runTheme = a;
+                    if (inRun) runThemeSwitches++;
+                    break;
+                case Telemetry.DEATH:
+                    if (a == Telemetry.CAUSE_GROUND) groundDeaths++; else pipeDeaths++;
+                    int bucket = Math.min(HEIGHT_BUCKETS - 1, Math.max(0, c * HEIGHT_BUCKETS / screenHeight));
+                    deathHeights[bucket]++;
+                    if (inRun) endRun(nanos, a == Telemetry.CAUSE_GROUND ? "ground" : "pipe", c);
+                    break;
+                case Telemetry.FRAME_STATS:
+                    frameStats++;
+                    frameMicrosTotal += a;
+                    worstFrameMicros = Math.max(worstFrameMicros, b);
+                    lowestRenderScale = Math.min(lowestRenderScale, c);
+                    break;
+                case Telemetry.DROPPED:
+                    dropped += a;
+                    break;
+                case Telemetry.DRAW_CALLS:
+                    drawCallStats++;
+                    drawCallsTotal += a;
+                    mostDrawCalls = Math.max(mostDrawCalls, b);
+                    break;
+                case Telemetry.AUTOPILOT:
+                    autopilotStats++;
+                    autopilotDepthTotal += a;
+                    autopilotMicrosTotal += b;
+                    autopilotOverruns += c;
+                    break;
+            }
+        }
+
+        private void endRun(long nanos, String cause, int y) {
+            inRun = false;
+            scoreTotal += runScore;
+            bestScore = Math.max(bestScore, runScore);
+            themeSwitchesTotal += runThemeSwitches;
+            mostThemeSwitches = Math.max(mostThemeSwitches, runThemeSwitches);
+            runLog.append(String.format("run %3d: score %3d, %4d jumps, %6.1f s, theme %d after %d switches, died on %s at y=%d%n",
+                    runs, runScore, runJumps, (nanos - runStart) / 1e9, runTheme, runThemeSwitches, cause, y));
+        }
+
+        public void print() {
+            System.out.print(runLog);
+            System.out.printf("%nruns: %d (%d deterministic)%n", runs, deterministicRuns);
+            System.out.printf("score: best %d, average %.2f%n", bestScore, runs > 0 ? scoreTotal / (double) runs : 0);
+            System.out.printf("jumps: %d (%.1f per run)%n", jumps, runs > 0 ? jumps / (double) runs : 0);
+            System.out.printf("deaths: %d ground, %d pipe%n", groundDeaths, pipeDeaths);
+            System.out.print("death height (top to bottom):");
+            for (int count : deathHeights) System.out.print(" " + count);
+            System.out.println();
+            System.out.printf("theme switches: most %d in a run, average %.2f%n",
+                    mostThemeSwitches, runs > 0 ? themeSwitchesTotal / (double) runs : 0);
+            if (frameStats > 0) {
+                System.out.printf("frames: average %d us, worst %d us, lowest render scale %d%%%n",
+                        frameMicrosTotal / frameStats, worstFrameMicros, lowestRenderScale);
+            }
+            if (drawCallStats > 0) {
+                System.out.printf("draw calls: average %d per frame, most %d%n", drawCallsTotal / drawCallStats, mostDrawCalls);
+            }
+            if (autopilotStats > 0) {
+                System.out.printf("autopilot: average depth %d ticks, average decision %d us, %d overruns%n",
+                        autopilotDepthTotal / autopilotStats, autopilotMicrosTotal / autopilotStats, autopilotOverruns);
+            }
+            System.out.printf("dropped events: %d%n", dropped);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: TelemetryReader <telemetry.bin>...");
+            System.exit(1);
+        }
+        Summary summary = new Summary();
+        for (String path : args) {
+            int count = read(Files.readAllBytes(Paths.get(path)), summary);
+            System.out.println(path + ": " + count + " records");
+        }
+        summary.print();
+    }
+}
@@ -0,0 +1,31 @@
+package com.santarita.flappybird;
+
+/**
+ * Backend-independent text attributes for Renderer.drawText().
+ */
+public final class TextStyle {
+    public enum Align { LEFT, CENTER, RIGHT }
+
+    public final float size;
+    public final int color;
+    public final Align align;
+    public final boolean bold;
+    public final float shadowRadius;
+    public final int shadowColor;
+
+    // Backend object built from this style, created and cached by the renderer (e.g. a Paint)
+    Object backendCache;
+
+    public TextStyle(float size, int color, Align align, boolean bold) {
+        this(size, color, align, bold, 0, 0);
+    }
+
+    public TextStyle(float size, int color, Align align, boolean bold, float shadowRadius, int shadowColor) {
+        this.size = size;
+        this.color = color;
+        this.align = align;
+        this.bold = bold;
+        this.shadowRadius = shadowRadius;
+        this.shadowColor = shadowColor;
+    }
+}
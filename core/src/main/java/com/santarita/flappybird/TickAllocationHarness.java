@@ -0,0 +1,233 @@
+package com.santarita.flappybird;
+
+/**
+ * Headless allocation check of every game state's per-tick work, on a desktop JVM:
+ *   java com.santarita.flappybird.TickAllocationHarness [ticks per state] [budget bytes]
+ * Each state repeats what GameView does for it every frame, through the core classes: a
+ * DeterministicWorld played by the Autopilot (as behind the menu), pipes, bird and background
+ * drawn by a SoftwareRenderer, the HUD from a GlyphAtlas and fillRect(), and the static overlay
+ * as one full-screen blit. Sprites are synthetic, at a quarter of the reference screen.
+ *
+ * These are stand-ins written against the core classes, not GameView's own update() and draw(),
+ * which need Android. The real path is checked on a device by GameThread.CHECK_ALLOCATIONS.
+ *
+ * Exits with status 1 if a steady-state tick of any state allocates more than the budget, or
+ * if this JVM has no per-thread allocation counter.
+ */
+public class TickAllocationHarness {
+    // Same order as GameView.GameState
+    static final String[] STATES = {"MENU", "CREDITS", "HIGH_SCORES", "READY", "PLAYING", "PAUSED", "GAME_OVER"};
+    static final int MENU = 0, CREDITS = 1, HIGH_SCORES = 2, READY = 3, PLAYING = 4, PAUSED = 5, GAME_OVER = 6;
+
+    static final int DEFAULT_TICKS = 2000;
+    static final long DEFAULT_BUDGET_BYTES = 256; // As in GameThread
+
+    private static final int WIDTH = 270;
+    private static final int HEIGHT = 480;
+    private static final float SCALE = HEIGHT / (float) DeterministicWorld.WORLD_HEIGHT;
+    private static final float UNIT = SCALE / DeterministicWorld.ONE;
+    private static final int SKY = 0xFF4EC0CA;
+
+    private final SoftwareRenderer renderer = new SoftwareRenderer(WIDTH, HEIGHT);
+    private final Sprite background = gradient(WIDTH, HEIGHT);
+    private final Sprite pipe = pipeSprite(Math.round(DeterministicWorld.PIPE_WIDTH * SCALE), HEIGHT);
+    private final Sprite bird = birdSprite(Math.round(DeterministicWorld.BIRD_SIZE * SCALE * 1.3f),
+            Math.round(DeterministicWorld.BIRD_SIZE * SCALE));
+    private final Sprite overlay = overlaySprite(WIDTH, HEIGHT);
+    private final GlyphAtlas scoreGlyphs = glyphAtlas();
+    private final Autopilot autopilot = new Autopilot();
+
+    private DeterministicWorld world;
+    private float scroll = 0;
+    private int frame = 0;
+
+    /**
+     * Runs every state for the given number of ticks, twice: the first pass only lets the JIT
+     * settle, since compiling and deoptimizing the loop can allocate on this thread once.
+     * @return The monitor of the second pass, for its report and verdict.
+     */
+    public TickAllocationMonitor run(int ticks, long budgetBytes) {
+        pass(ticks, new TickAllocationMonitor(budgetBytes, STATES));
+        TickAllocationMonitor monitor = new TickAllocationMonitor(budgetBytes, STATES);
+        pass(ticks, monitor);
+        return monitor;
+    }
+
+    private void pass(int ticks, TickAllocationMonitor monitor) {
+        for (int state = 0; state < STATES.length; state++) {
+            final int s = state;
+            enter(s);
+            monitor.run(s, ticks, () -> update(s), () -> draw(s));
+        }
+    }
+
+    private void enter(int state) {
+        switch (state) {
+            case MENU:
+            case READY:
+                world = new DeterministicWorld(1);
+                break;
+            case GAME_OVER:
+                // A bird that hit the ground, with the pipes it was among
+                world = new DeterministicWorld(2);
+                while (!world.isDead()) world.step(false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void update(int state) {
+        if (state == MENU || state == READY || state == PLAYING) scroll = (scroll + 10 * SCALE) % WIDTH;
+        if (state == MENU || state == PLAYING) {
+            // Outlives thousands of ticks, so no tick pays for a new world
+            world.step(autopilot.decide(world));
+        }
+        frame++;
+    }
+
+    private void draw(int state) {
+        renderer.resetDrawCallCount();
+        renderer.drawSprite(background, -scroll, 0);
+        renderer.drawSprite(background, WIDTH - scroll, 0);
+        switch (state) {
+            case MENU:
+                drawWorld();
+                renderer.drawSprite(overlay, 0, 0);
+                break;
+            case CREDITS:
+            case HIGH_SCORES:
+                renderer.drawSprite(overlay, 0, 0);
+                break;
+            case READY:
+                drawBird();
+                drawHud(true);
+                break;
+            case PLAYING:
+            case PAUSED:
+                drawWorld();
+                drawHud(true);
+                if (state == PAUSED) renderer.drawSprite(overlay, 0, 0);
+                break;
+            case GAME_OVER:
+                drawWorld();
+                drawHud(false);
+                renderer.drawSprite(overlay, 0, 0);
+                break;
+        }
+    }
+
+    private void drawWorld() {
+        for (int i = 0; i < world.getPipeCount(); i++) {
+            float x = world.getPipeX(i) * UNIT;
+            float gapTop = world.getPipeTop(i) * SCALE;
+            float right = x + pipe.getWidth();
+            renderer.drawSprite(pipe, x, 0, right, gapTop);
+            renderer.drawSprite(pipe, x, gapTop + DeterministicWorld.PIPE_GAP * SCALE, right, HEIGHT);
+        }
+        drawBird();
+    }
+
+    private void drawBird() {
+        float x = (DeterministicWorld.BIRD_X + DeterministicWorld.BIRD_SIZE / 2f) * SCALE - bird.getWidth() / 2f;
+        renderer.drawSprite(bird, x, world.getBirdY() * UNIT);
+    }
+
+    private void drawHud(boolean pauseButton) {
+        scoreGlyphs.drawNumber(renderer, world.getScore() + frame / 7, WIDTH - 10, 25);
+        if (pauseButton) {
+            renderer.fillRect(5, 5, 32, 32, 0x96000000);
+            renderer.fillRect(12, 12, 16, 25, 0xFFFFFFFF);
+            renderer.fillRect(21, 12, 25, 25, 0xFFFFFFFF);
+        }
+    }
+
+    // --- SYNTHETIC ASSETS ---
+
+    private static Sprite gradient(int width, int height) {
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int shade = 0x40 + y * 0x80 / height;
+            for (int x = 0; x < width; x++) argb[y * width + x] = 0xFF000000 | shade << 8 | (SKY & 0xFF);
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    private static Sprite pipeSprite(int width, int height) {
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean rim = x < 2 || x >= width - 2;
+                argb[y * width + x] = rim ? 0xFF1E5A1E : 0xFF3CB43C + (x * 2 << 8);
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    private static Sprite birdSprite(int width, int height) {
+        int[] argb = new int[width * height];
+        float cx = width / 2f, cy = height / 2f;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float dx = (x + 0.5f - cx) / cx, dy = (y + 0.5f - cy) / cy;
+                float d = dx * dx + dy * dy;
+                if (d < 0.8f) argb[y * width + x] = 0xFFF0C020;
+                else if (d < 1f) argb[y * width + x] = 0x80F0C020; // Anti-aliased edge
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    private static Sprite overlaySprite(int width, int height) {
+        // Mostly transparent, with a translucent band and opaque "buttons" like the menu layer
+        int[] argb = new int[width * height];
+        for (int y = height / 4; y < height / 3; y++) {
+            for (int x = 0; x < width; x++) argb[y * width + x] = 0x64000000;
+        }
+        for (int button = 0; button < 4; button++) {
+            int top = height * 2 / 5 + button * height / 8;
+            for (int y = top; y < top + height / 14; y++) {
+                for (int x = width / 4; x < width * 3 / 4; x++) argb[y * width + x] = 0xFF4682B4;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    private static GlyphAtlas glyphAtlas() {
+        int cell = 12, cellHeight = 18;
+        int[] argb = new int[GlyphAtlas.DIGITS * cell * cellHeight];
+        int[] cellLeft = new int[GlyphAtlas.DIGITS];
+        int[] cellWidth = new int[GlyphAtlas.DIGITS];
+        float[] advance = new float[GlyphAtlas.DIGITS];
+        for (int digit = 0; digit < GlyphAtlas.DIGITS; digit++) {
+            cellLeft[digit] = digit * cell;
+            cellWidth[digit] = cell;
+            advance[digit] = cell - 2;
+            for (int y = 2; y < cellHeight - 2; y++) {
+                for (int x = 2; x < cell - 2; x++) {
+                    if ((x + y + digit) % 3 != 0) argb[y * GlyphAtlas.DIGITS * cell + digit * cell + x] = 0xFFFFFFFF;
+                }
+            }
+        }
+        Sprite sheet = new Sprite(GlyphAtlas.DIGITS * cell, cellHeight, argb);
+        TextStyle style = new TextStyle(15, 0xFFFFFFFF, TextStyle.Align.RIGHT, true, 2, 0xFF000000);
+        return new GlyphAtlas(style, sheet, cellLeft, cellWidth, advance, cellHeight, 2, -14);
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        long budget = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_BUDGET_BYTES;
+
+        TickAllocationMonitor monitor = new TickAllocationHarness().run(ticks, budget);
+        if (!monitor.isSupported()) {
+            System.out.println("This JVM has no per-thread allocation counter");
+            System.exit(1);
+        }
+        System.out.print(monitor.report());
+        if (!monitor.isWithinBudget()) {
+            System.out.println("FAILED: ticks over the allocation budget");
+            System.exit(1);
+        }
+        System.out.println("all states within budget");
+    }
+}
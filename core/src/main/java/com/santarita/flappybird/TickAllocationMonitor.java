@@ -0,0 +1,231 @@
+package com.santarita.flappybird;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures how many bytes the game thread allocates per tick, split by game state and loop phase,
+ * and flags ticks that go over a budget once a state has warmed up. States are plain indices
+ * into the names given to the constructor (GameView.GameState ordinals in the app), so the
+ * monitor has no Android dependencies.
+ *
+ * Bytes come from an AllocationCounter. By default that is the JVM's
+ * com.sun.management.ThreadMXBean, looked up reflectively because Android has no
+ * java.lang.management; the app passes one backed by android.os.Debug instead. Without a
+ * counter the monitor reports isSupported() == false and does nothing.
+ */
+public class TickAllocationMonitor {
+    public enum Phase { UPDATE, DRAW }
+
+    /**
+     * Running total of the bytes the calling thread has allocated.
+     */
+    public interface AllocationCounter {
+        long currentThreadAllocatedBytes();
+    }
+
+    // Ticks ignored after entering a state (lazy loads, cache re-renders, JIT)
+    private static final int WARMUP_TICKS = 120;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String[] stateNames;
+
+    private final long budgetBytesPerTick;
+    private final AllocationCounter counter;
+    private final long overheadBytes;
+
+    // Steady-state totals per state and phase
+    private final long[][] phaseBytes;
+    private final long[] steadyTicks;
+
+    // Current tick
+    private final long[] tickPhaseBytes = new long[PHASES.length];
+    private long phaseStart;
+    private int lastState = -1;
+    private int ticksInState = 0;
+
+    // Worst steady-state tick seen so far
+    private long overBudgetTicks = 0;
+    private long worstTickBytes = 0;
+    private int worstState = -1;
+    private Phase worstPhase;
+    private long worstPhaseBytes;
+
+    /**
+     * Counts with the JVM's ThreadMXBean, if this runtime has one.
+     * @param stateNames Names of the states, indexed by the state ids passed to endTick().
+     */
+    public TickAllocationMonitor(long budgetBytesPerTick, String... stateNames) {
+        this(JvmAllocationCounter.create(), budgetBytesPerTick, stateNames);
+    }
+
+    /**
+     * @param counter Source of the byte counts, or null to disable the monitor.
+     * @param stateNames Names of the states, indexed by the state ids passed to endTick().
+     */
+    public TickAllocationMonitor(AllocationCounter counter, long budgetBytesPerTick, String... stateNames) {
+        this.budgetBytesPerTick = budgetBytesPerTick;
+        this.stateNames = stateNames;
+        this.phaseBytes = new long[stateNames.length][PHASES.length];
+        this.steadyTicks = new long[stateNames.length];
+        this.counter = counter;
+
+        // Reading the counter may allocate itself (e.g. boxing); measure that so it can be subtracted
+        long overhead = 0;
+        if (counter != null) {
+            for (int i = 0; i < 16; i++) {
+                long start = allocatedBytes();
+                overhead = allocatedBytes() - start;
+            }
+        }
+        this.overheadBytes = overhead;
+    }
+
+    public boolean isSupported() {
+        return counter != null;
+    }
+
+    public void beginPhase() {
+        phaseStart = allocatedBytes();
+    }
+
+    public void endPhase(Phase phase) {
+        if (!isSupported()) return;
+        long bytes = allocatedBytes() - phaseStart - overheadBytes;
+        if (bytes > 0) tickPhaseBytes[phase.ordinal()] += bytes;
+    }
+
+    /**
+     * Closes the current tick.
+     * @param state Index of the game state the tick ran in.
+     * @return True if this was a steady-state tick that went over the budget.
+     */
+    public boolean endTick(int state) {
+        if (!isSupported()) return false;
+
+        if (state != lastState) {
+            lastState = state;
+            ticksInState = 0;
+        }
+        ticksInState++;
+
+        long tickBytes = 0;
+        int worstPhaseIndex = 0;
+        for (int p = 0; p < PHASES.length; p++) {
+            tickBytes += tickPhaseBytes[p];
+            if (tickPhaseBytes[p] > tickPhaseBytes[worstPhaseIndex]) worstPhaseIndex = p;
+        }
+
+        boolean overBudget = false;
+        if (ticksInState > WARMUP_TICKS) {
+            steadyTicks[state]++;
+            for (int p = 0; p < PHASES.length; p++) phaseBytes[state][p] += tickPhaseBytes[p];
+
+            if (tickBytes > budgetBytesPerTick) {
+                overBudget = true;
+                overBudgetTicks++;
+            }
+            if (tickBytes > worstTickBytes) {
+                worstTickBytes = tickBytes;
+                worstState = state;
+                worstPhase = PHASES[worstPhaseIndex];
+                worstPhaseBytes = tickPhaseBytes[worstPhaseIndex];
+            }
+        }
+
+        for (int p = 0; p < PHASES.length; p++) tickPhaseBytes[p] = 0;
+        return overBudget;
+    }
+
+    /**
+     * Headless driver: runs a state for a number of ticks through the same phases as GameThread.
+     * @return True if every steady-state tick stayed within the budget.
+     */
+    public boolean run(int state, int ticks, Runnable update, Runnable draw) {
+        long overBefore = overBudgetTicks;
+        for (int i = 0; i < ticks; i++) {
+            beginPhase();
+            update.run();
+            endPhase(Phase.UPDATE);
+            beginPhase();
+            draw.run();
+            endPhase(Phase.DRAW);
+            endTick(state);
+        }
+        return overBudgetTicks == overBefore;
+    }
+
+    public boolean isWithinBudget() {
+        return overBudgetTicks == 0;
+    }
+
+    public long getWorstTickBytes() {
+        return worstTickBytes;
+    }
+
+    /**
+     * Average steady-state bytes per tick for each state and phase, plus the worst offender.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Allocation budget ").append(budgetBytesPerTick).append(" B/tick, ")
+                .append(overBudgetTicks).append(" ticks over budget\n");
+        for (int s = 0; s < stateNames.length; s++) {
+            if (steadyTicks[s] == 0) continue;
+            sb.append("  ").append(stateNames[s]).append(':');
+            for (int p = 0; p < PHASES.length; p++) {
+                sb.append(' ').append(PHASES[p]).append('=')
+                        .append(phaseBytes[s][p] / steadyTicks[s]).append(" B");
+            }
+            sb.append(" (").append(steadyTicks[s]).append(" ticks)\n");
+        }
+        if (worstState >= 0) {
+            sb.append("  worst tick: ").append(worstTickBytes).append(" B in ").append(stateNames[worstState])
+                    .append(", mostly ").append(worstPhase).append(" (").append(worstPhaseBytes).append(" B)\n");
+        }
+        return sb.toString();
+    }
+
+    private long allocatedBytes() {
+        return counter != null ? counter.currentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * com.sun.management.ThreadMXBean.getCurrentThreadAllocatedBytes(), called reflectively.
+     */
+    private static final class JvmAllocationCounter implements AllocationCounter {
+        private final Object threadBean;
+        private final Method allocatedBytesMethod;
+
+        private JvmAllocationCounter(Object threadBean, Method allocatedBytesMethod) {
+            this.threadBean = threadBean;
+            this.allocatedBytesMethod = allocatedBytesMethod;
+        }
+
+        /**
+         * @return Null if this runtime has no such counter (e.g. Android).
+         */
+        static JvmAllocationCounter create() {
+            try {
+                Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+                Object bean = factory.getMethod("getThreadMXBean").invoke(null);
+                Class<?> sunBean = Class.forName("com.sun.management.ThreadMXBean");
+                if (!sunBean.isInstance(bean)) return null;
+                Method method = sunBean.getMethod("getCurrentThreadAllocatedBytes");
+                method.invoke(bean);
+                return new JvmAllocationCounter(bean, method);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        @Override
+        public long currentThreadAllocatedBytes() {
+            try {
+                return (Long) allocatedBytesMethod.invoke(threadBean);
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.santarita.flappybird;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timeline tracing: nested sections (begin() / end()) and counters, e.g. to see where one slow
+ * frame went. Events can be captured in memory and exported as Chrome trace-event JSON (open it
+ * in Perfetto or chrome://tracing), forwarded to a platform tracer (the app passes one for
+ * android.os.Trace, for systrace / Perfetto recordings on the device), or both. Plain Java, so
+ * the core code is traced the same on the device and on a desktop JVM.
+ *
+ * With both off, each call is one volatile read. Capturing writes to a preallocated ring per
+ * thread without locks or allocations (names must be constants, not built per call); each ring
+ * keeps the last CAPACITY events of its thread, around half a minute of gameplay. Starting a
+ * capture discards the previous one. Rings of threads that have ended are kept until then, so
+ * tracing from short-lived threads grows memory; trace from long-lived ones.
+ *
+ * Sections must be ended on the thread that began them. Switching modes while a section is
+ * open leaves that section unmatched in the new mode.
+ */
+public final class Tracer {
+    /**
+     * Receives sections and counters as they happen, e.g. android.os.Trace.
+     */
+    public interface SystemTrace {
+        void beginSection(String name);
+        void endSection();
+        void setCounter(String name, long value);
+    }
+
+    private static final int CAPTURE = 1;
+    private static final int SYSTEM = 2;
+    private static final int CAPACITY = 16384; // Events per thread (power of two)
+
+    private static final byte BEGIN = 0;
+    private static final byte END = 1;
+    private static final byte COUNTER = 2;
+
+    private static volatile int mode = 0;
+    private static volatile SystemTrace systemTrace;
+    private static volatile int generation = 0; // Bumped by startCapture(); older buffers are stale
+    private static final List<Buffer> buffers = new ArrayList<>();
+    private static final ThreadLocal<Buffer> threadBuffer = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            Buffer buffer = new Buffer(Thread.currentThread());
+            synchronized (buffers) {
+                buffers.add(buffer);
+            }
+            return buffer;
+        }
+    };
+
+    private Tracer() {
+    }
+
+    public static void begin(String name) {
+        int m = mode;
+        if (m == 0) return;
+        if ((m & SYSTEM) != 0) systemTrace.beginSection(name);
+        if ((m & CAPTURE) != 0) buffer().add(BEGIN, name, 0);
+    }
+
+    public static void end() {
+        int m = mode;
+        if (m == 0) return;
+        if ((m & SYSTEM) != 0) systemTrace.endSection();
+        if ((m & CAPTURE) != 0) buffer().add(END, null, 0);
+    }
+
+    public static void counter(String name, long value) {
+        int m = mode;
+        if (m == 0) return;
+        if ((m & SYSTEM) != 0) systemTrace.setCounter(name, value);
+        if ((m & CAPTURE) != 0) buffer().add(COUNTER, name, value);
+    }
+
+    public static boolean isEnabled() {
+        return mode != 0;
+    }
+
+    /**
+     * Starts capturing in memory, dropping anything captured before.
+     */
+    public static synchronized void startCapture() {
+        generation++;
+        pruneBuffers();
+        mode |= CAPTURE;
+    }
+
+    /**
+     * Stops capturing; what was captured can still be exported.
+     */
+    public static synchronized void stopCapture() {
+        mode &= ~CAPTURE;
+    }
+
+    /**
+     * Forwards sections and counters to the given tracer, or stops forwarding if null.
+     * The tracer is kept once set, so a call that already read the mode still has one.
+     */
+    public static synchronized void setSystemTrace(SystemTrace trace) {
+        if (trace != null) systemTrace = trace;
+        mode = trace != null ? mode | SYSTEM : mode & ~SYSTEM;
+    }
+
+    /**
+     * Drops the rings of threads that have ended and hold nothing of the current capture.
+     */
+    private static void pruneBuffers() {
+        int current = generation;
+        synchronized (buffers) {
+            for (int i = buffers.size() - 1; i >= 0; i--) {
+                Buffer buffer = buffers.get(i);
+                if (!buffer.thread.isAlive() && buffer.generation != current) buffers.remove(i);
+            }
+        }
+    }
+
+    private static Buffer buffer() {
+        Buffer buffer = threadBuffer.get();
+        if (buffer.generation != generation) buffer.reset(generation);
+        return buffer;
+    }
+
+    // --- EXPORT ---
+
+    /**
+     * Writes the current capture as Chrome trace-event JSON. Safe while capturing: events
+     * being overwritten during the export are left out.
+     * @return Number of events written.
+     */
+    public static int writeChromeTrace(File file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            return writeChromeTrace(out);
+        }
+    }
+
+    public static int writeChromeTrace(Writer out) throws IOException {
+        pruneBuffers();
+        List<Snapshot> snapshots = new ArrayList<>();
+        int current = generation;
+        synchronized (buffers) {
+            for (Buffer buffer : buffers) {
+                if (buffer.generation == current) snapshots.add(buffer.snapshot());
+            }
+        }
+        long origin = Long.MAX_VALUE;
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.count > 0) origin = Math.min(origin, snapshot.nanos[0]);
+        }
+
+        int written = 0;
+        StringBuilder line = new StringBuilder(128);
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        boolean first = true;
+        for (Snapshot snapshot : snapshots) {
+            line.setLength(0);
+            line.append("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":").append(snapshot.tid)
+                    .append(",\"args\":{\"name\":");
+            appendString(line, snapshot.threadName);
+            line.append("}}");
+            first = writeEvent(out, line, first);
+
+            int depth = 0;
+            for (int i = 0; i < snapshot.count; i++) {
+                byte kind = snapshot.kinds[i];
+                if (kind == END) {
+                    // Its begin may have been overwritten by newer events
+                    if (depth == 0) continue;
+                    depth--;
+                } else if (kind == BEGIN) {
+                    depth++;
+                }
+
+                line.setLength(0);
+                line.append("{\"ph\":\"").append(kind == BEGIN ? 'B' : kind == END ? 'E' : 'C')
+                        .append("\",\"pid\":1,\"tid\":").append(snapshot.tid).append(",\"ts\":");
+                appendMicros(line, snapshot.nanos[i] - origin);
+                if (kind != END) {
+                    line.append(",\"name\":");
+                    appendString(line, snapshot.names[i]);
+                }
+                if (kind == COUNTER) line.append(",\"args\":{\"value\":").append(snapshot.values[i]).append('}');
+                line.append('}');
+                first = writeEvent(out, line, first);
+                written++;
+            }
+        }
+        out.write("\n]}\n");
+        return written;
+    }
+
+    private static boolean writeEvent(Writer out, StringBuilder event, boolean first) throws IOException {
+        if (!first) out.write(",\n");
+        out.append(event);
+        return false;
+    }
+
+    private static void appendMicros(StringBuilder out, long nanos) {
+        out.append(nanos / 1000).append('.');
+        long fraction = nanos % 1000;
+        if (fraction < 100) out.append('0');
+        if (fraction < 10) out.append('0');
+        out.append(fraction);
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * One thread's ring. Only the owner thread writes; exports read it from another thread.
+     */
+    private static final class Buffer {
+        final Thread thread;
+        volatile int generation = -1;
+        final long[] nanos = new long[CAPACITY];
+        final byte[] kinds = new byte[CAPACITY];
+        final String[] names = new String[CAPACITY];
+        final long[] values = new long[CAPACITY];
+        final AtomicLong head = new AtomicLong(); // Events written since the capture started
+
+        Buffer(Thread thread) {
+            this.thread = thread;
+        }
+
+        void reset(int generation) {
+            head.set(0);
+            this.generation = generation;
+        }
+
+        void add(byte kind, String name, long value) {
+            long index = head.get();
+            int slot = (int) (index & (CAPACITY - 1));
+            nanos[slot] = System.nanoTime();
+            kinds[slot] = kind;
+            names[slot] = name;
+            values[slot] = value;
+            head.lazySet(index + 1); // Publishes the slot to exports
+        }
+
+        /**
+         * Copies the ring oldest first, then drops whatever the owner may have overwritten
+         * meanwhile.
+         */
+        Snapshot snapshot() {
+            long end = head.get();
+            long start = Math.max(0, end - CAPACITY);
+            int count = (int) (end - start);
+            Snapshot snapshot = new Snapshot(thread, count);
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((start + i) & (CAPACITY - 1));
+                snapshot.nanos[i] = nanos[slot];
+                snapshot.kinds[i] = kinds[slot];
+                snapshot.names[i] = names[slot];
+                snapshot.values[i] = values[slot];
+            }
+            long overwritten = head.get() - CAPACITY - start;
+            if (overwritten > 0) snapshot.dropOldest((int) Math.min(overwritten, count));
+            return snapshot;
+        }
+    }
+
+    private static final class Snapshot {
+        final long tid;
+        final String threadName;
+        long[] nanos;
+        byte[] kinds;
+        String[] names;
+        long[] values;
+        int count;
+
+        Snapshot(Thread thread, int count) {
+            this.tid = thread.getId();
+            this.threadName = thread.getName();
+            this.count = count;
+            nanos = new long[count];
+            kinds = new byte[count];
+            names = new String[count];
+            values = new long[count];
+        }
+
+        void dropOldest(int dropped) {
+            count -= dropped;
+            nanos = Arrays.copyOfRange(nanos, dropped, dropped + count);
+            kinds = Arrays.copyOfRange(kinds, dropped, dropped + count);
+            names = Arrays.copyOfRange(names, dropped, dropped + count);
+            values = Arrays.copyOfRange(values, dropped, dropped + count);
+        }
+    }
+}
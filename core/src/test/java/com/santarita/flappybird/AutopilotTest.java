@@ -0,0 +1,51 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AutopilotTest {
+    private static final int TICKS = 20_000;
+
+    // No time budget, so every decision searches to the horizon and the result can't depend on load
+    private static Autopilot unbounded() {
+        return new Autopilot(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void survivesLongRuns() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Autopilot autopilot = unbounded();
+            DeterministicWorld world = new DeterministicWorld(seed);
+            for (int tick = 0; tick < TICKS; tick++) {
+                world.step(autopilot.decide(world));
+                assertFalse("seed " + seed + " died at tick " + tick, world.isDead());
+            }
+            assertTrue(world.getScore() > 0);
+        }
+    }
+
+    @Test
+    public void survivesTheWidestSpawn() {
+        Autopilot autopilot = unbounded();
+        DeterministicWorld world = new DeterministicWorld(4, DeterministicWorld.MAX_SPAWN_X);
+        for (int tick = 0; tick < TICKS; tick++) {
+            world.step(autopilot.decide(world));
+            assertFalse("died at tick " + tick, world.isDead());
+        }
+    }
+
+    @Test
+    public void sameWorldSameTaps() {
+        Autopilot first = unbounded(), second = unbounded();
+        DeterministicWorld a = new DeterministicWorld(5), b = new DeterministicWorld(5);
+        for (int tick = 0; tick < 2_000; tick++) {
+            boolean jump = first.decide(a);
+            assertEquals("tick " + tick, jump, second.decide(b));
+            a.step(jump);
+            b.step(jump);
+        }
+    }
+}
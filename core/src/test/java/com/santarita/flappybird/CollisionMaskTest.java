@@ -0,0 +1,88 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CollisionMaskTest {
+    // Wider than two words, with a partial last word
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 9;
+    private static final int[] EDGES = {-5, 0, 1, 62, 63, 64, 65, 126, 127, 128, 129, 149, 150, 160};
+
+    private static int[] sparse(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            // Alpha on both sides of the threshold
+            if (random.nextInt(40) == 0) argb[i] = (CollisionMask.ALPHA_THRESHOLD + random.nextInt(128)) << 24;
+            else if (random.nextInt(4) == 0) argb[i] = random.nextInt(CollisionMask.ALPHA_THRESHOLD) << 24 | 0xFFFFFF;
+        }
+        return argb;
+    }
+
+    /**
+     * Per-pixel reference for overlapsRect().
+     */
+    private static boolean naive(int[] argb, int width, int height, int left, int top, int right, int bottom) {
+        for (int y = Math.max(0, top); y < Math.min(height, bottom); y++) {
+            for (int x = Math.max(0, left); x < Math.min(width, right); x++) {
+                if ((argb[y * width + x] >>> 24) >= CollisionMask.ALPHA_THRESHOLD) return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void matchesPerPixelReferenceOnWordBoundaries() {
+        for (long seed = 0; seed < 20; seed++) {
+            int[] argb = sparse(WIDTH, HEIGHT, seed);
+            CollisionMask mask = CollisionMask.fromArgb(argb, WIDTH, HEIGHT);
+            for (int left : EDGES) {
+                for (int right : EDGES) {
+                    for (int top = -1; top <= HEIGHT; top += 2) {
+                        for (int bottom = top; bottom <= HEIGHT + 1; bottom += 3) {
+                            assertEquals("seed " + seed + " rect " + left + "," + top + "-" + right + "," + bottom,
+                                    naive(argb, WIDTH, HEIGHT, left, top, right, bottom),
+                                    mask.overlapsRect(left, top, right, bottom));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void singlePixelsAtWordEdges() {
+        for (int solid : new int[]{0, 63, 64, 127, 128, WIDTH - 1}) {
+            int[] argb = new int[WIDTH * HEIGHT];
+            argb[4 * WIDTH + solid] = 0xFF000000;
+            CollisionMask mask = CollisionMask.fromArgb(argb, WIDTH, HEIGHT);
+            assertTrue("pixel " + solid, mask.overlapsRect(solid, 4, solid + 1, 5));
+            assertTrue("pixel " + solid, mask.overlapsRect(0, 0, WIDTH, HEIGHT));
+            assertFalse("left of " + solid, mask.overlapsRect(solid - 10, 0, solid, HEIGHT));
+            assertFalse("right of " + solid, mask.overlapsRect(solid + 1, 0, solid + 70, HEIGHT));
+            assertFalse("above " + solid, mask.overlapsRect(0, 0, WIDTH, 4));
+            assertFalse("below " + solid, mask.overlapsRect(0, 5, WIDTH, HEIGHT));
+        }
+    }
+
+    @Test
+    public void fullLastWordAndClipping() {
+        // Exactly two words per row: the last word's mask covers all 64 bits
+        int width = 128;
+        int[] argb = new int[width * 2];
+        argb[width + width - 1] = 0xFF000000;
+        CollisionMask mask = CollisionMask.fromArgb(argb, width, 2);
+        assertTrue(mask.overlapsRect(64, 1, 128, 2));
+        assertTrue(mask.overlapsRect(127, -100, 1000, 1000));
+        assertFalse(mask.overlapsRect(128, 0, 200, 2));
+        assertFalse(mask.overlapsRect(-50, -5, 127, 2));
+        assertFalse(mask.overlapsRect(0, 2, width, 10));
+        assertFalse(mask.overlapsRect(10, 1, 10, 2)); // Empty
+    }
+}
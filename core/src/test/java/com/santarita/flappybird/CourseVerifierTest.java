@@ -0,0 +1,128 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CourseVerifierTest {
+    private static final int SEEDS = 50;
+    private static final int PLAYERS = 40;
+    private static final int PIPES = 20;
+
+    /**
+     * Taps when the bird sinks below the middle of the next gap, give or take some noise.
+     */
+    private static boolean aimTap(DeterministicWorld world, Random noise) {
+        int target = CourseVerifier.START_Y;
+        for (int i = 0; i < world.getPipeCount(); i++) {
+            if (world.getPipeX(i) / DeterministicWorld.ONE + DeterministicWorld.PIPE_WIDTH > CourseVerifier.BIRD_LEFT) {
+                target = world.getPipeTop(i) + DeterministicWorld.PIPE_GAP / 2 - DeterministicWorld.BIRD_SIZE / 2;
+                break;
+            }
+        }
+        int y = world.getBirdY() / DeterministicWorld.ONE;
+        return world.getBirdVelocity() > 0 && y > target + noise.nextInt(121) - 60;
+    }
+
+    /**
+     * Plays simulated players through DeterministicWorld next to the verifier: every state
+     * they reach must be one the verifier has, and none may get into a pipe the verifier
+     * calls impossible. Half the players tap at random, half aim for the next gap so they
+     * get deep into the course.
+     */
+    @Test
+    public void simulatedPlayersStayInsideTheVerifiedStates() {
+        CourseVerifier verifier = new CourseVerifier();
+        CourseVerifier.Result result = new CourseVerifier.Result(PIPES);
+        int[] tops = new int[PIPES];
+        Random taps = new Random(1);
+        int lastTick = (PIPES - 1) * CourseVerifier.INTERVAL + CourseVerifier.LAST_OVERLAP;
+        long checked = 0, longestRun = 0;
+        for (int seed = 0; seed < SEEDS; seed++) {
+            CourseVerifier.generateCourse(seed, tops, PIPES);
+            verifier.verify(tops, PIPES, result);
+            int firstImpossible = result.isPassable() ? Integer.MAX_VALUE : result.impossiblePipes[0];
+
+            for (int p = 0; p < PLAYERS; p++) {
+                int tapOneIn = 8 + p % 24;
+                boolean aiming = p % 2 == 0;
+                DeterministicWorld world = new DeterministicWorld(seed);
+                verifier.reset();
+                for (int tick = 0; tick <= lastTick && !world.isDead(); tick++) {
+                    int pipe = CourseVerifier.overlappingPipe(tick, PIPES);
+                    int low = 0, high = CourseVerifier.MAX_Y;
+                    if (pipe >= 0) {
+                        low = tops[pipe] - DeterministicWorld.BIRD_PADDING;
+                        high = tops[pipe] + DeterministicWorld.PIPE_GAP - DeterministicWorld.BIRD_SIZE
+                                + DeterministicWorld.BIRD_PADDING;
+                    }
+                    world.step(aiming ? aimTap(world, taps) : taps.nextInt(tapOneIn) == 0);
+                    boolean anyAlive = verifier.advance(low, high);
+                    if (world.isDead()) break;
+
+                    int y = world.getBirdY(), velocity = world.getBirdVelocity();
+                    String at = "seed " + seed + " player " + p + " tick " + tick;
+                    assertEquals(at + ": y off the unit grid", 0, y % DeterministicWorld.ONE);
+                    assertEquals(at + ": velocity off the unit grid", 0, velocity % DeterministicWorld.ONE);
+                    assertTrue(at + ": the verifier has no states left", anyAlive);
+                    if (!verifier.contains(y / DeterministicWorld.ONE, velocity / DeterministicWorld.ONE)) {
+                        fail(at + ": y=" + y / DeterministicWorld.ONE + " v=" + velocity / DeterministicWorld.ONE + " not reachable");
+                    }
+                    assertTrue(at + ": inside impossible pipe " + pipe, pipe < firstImpossible);
+                    checked++;
+                    longestRun = Math.max(longestRun, tick);
+                }
+            }
+        }
+        // The aiming players must actually get somewhere for this to mean much
+        assertTrue("only " + checked + " states checked", checked > SEEDS * PLAYERS * CourseVerifier.INTERVAL);
+        assertTrue("longest run " + longestRun + " ticks", longestRun > lastTick / 2);
+    }
+
+    @Test
+    public void cachedMarginsMatchSimulated() {
+        CourseVerifier simulated = new CourseVerifier();
+        CourseVerifier cached = new CourseVerifier(new CourseVerifier.TransitionCache());
+        CourseVerifier.Result expected = new CourseVerifier.Result(PIPES);
+        CourseVerifier.Result actual = new CourseVerifier.Result(PIPES);
+        for (int seed = 0; seed < SEEDS * 20; seed++) {
+            simulated.verify(seed, PIPES, expected);
+            cached.verify(seed, PIPES, actual);
+            assertArrayEquals("seed " + seed, expected.margins, actual.margins);
+            assertEquals("seed " + seed, expected.impossibleCount, actual.impossibleCount);
+            assertEquals("seed " + seed, expected.tightestPipe, actual.tightestPipe);
+        }
+        assertEquals(0, simulated.getCachedPipes());
+        assertTrue("the cache was never used", cached.getCachedPipes() > 0);
+    }
+
+    @Test
+    public void threadsAndCacheDoNotChangeTheReport() throws InterruptedException {
+        CourseVerifier.Report single = CourseVerifier.verifyAll(0, 100, PIPES, 1, false);
+        CourseVerifier.Report parallel = CourseVerifier.verifyAll(0, 100, PIPES, 4, true);
+        assertEquals(100, parallel.courses);
+        assertEquals(single.passable, parallel.passable);
+        assertEquals(single.impossible, parallel.impossible);
+        assertArrayEquals(single.marginHistogram, parallel.marginHistogram);
+        assertArrayEquals(single.deltaHistogram, parallel.deltaHistogram);
+        assertEquals(single.pipes, parallel.cachedPipes + parallel.simulatedPipes);
+    }
+
+    @Test
+    public void aStraightCourseHasNoImpossiblePipes() {
+        int[] tops = new int[PIPES];
+        Arrays.fill(tops, CourseVerifier.START_Y - DeterministicWorld.PIPE_GAP / 2 + DeterministicWorld.BIRD_SIZE / 2);
+        CourseVerifier.Result result = new CourseVerifier.Result(PIPES);
+        new CourseVerifier().verify(tops, PIPES, result);
+        assertTrue(result.isPassable());
+        for (int margin : result.margins) assertTrue(margin > 0);
+        assertFalse(result.tightestPipe < 0);
+    }
+}
@@ -0,0 +1,192 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Test;
+
+/**
+ * Streams PCM fixtures through small rings and checks every sample. Besides the generated
+ * fixtures, raw 16-bit little-endian PCM files can be checked with
+ *   gradle :core:test --tests '*MusicStreamTest' -PmusicFixtures=first.pcm,second.pcm
+ */
+public class MusicStreamTest {
+    // Odd lengths so pass boundaries never line up with the ring or the chunks
+    private static final int[] LENGTHS = {1, 3, 1021, 44_101, 100_003};
+
+    /**
+     * Fixture source that hands out uneven chunks, like a codec's output buffers, and can
+     * stall now and then like a slow decoder.
+     */
+    private static final class FixtureSource implements MusicStream.PcmSource {
+        private final short[] samples;
+        private final Random random;
+        private final int maxChunk;
+        private final boolean stalls;
+        private int position = 0;
+        private volatile boolean closed = false;
+
+        FixtureSource(short[] samples, long seed, int maxChunk, boolean stalls) {
+            this.samples = samples;
+            this.random = new Random(seed);
+            this.maxChunk = maxChunk;
+            this.stalls = stalls;
+        }
+
+        @Override
+        public int read(short[] buffer, int offset, int length) {
+            if (position == samples.length) return -1;
+            if (stalls && random.nextInt(64) == 0) LockSupport.parkNanos(200_000);
+            int count = Math.min(Math.min(length, samples.length - position), random.nextInt(maxChunk + 1));
+            System.arraycopy(samples, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void rewind() {
+            position = 0;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static Map<String, short[]> fixtures() throws IOException {
+        Map<String, short[]> fixtures = new LinkedHashMap<>();
+        for (int i = 0; i < LENGTHS.length; i++) {
+            short[] samples = new short[LENGTHS[i]];
+            for (int s = 0; s < samples.length; s++) samples[s] = (short) (s * 7919 + i);
+            fixtures.put("generated " + LENGTHS[i], samples);
+        }
+        String files = System.getProperty("music.fixtures");
+        if (files != null) {
+            for (String path : files.split(File.pathSeparator)) {
+                ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path))).order(ByteOrder.LITTLE_ENDIAN);
+                short[] samples = new short[bytes.remaining() / 2];
+                bytes.asShortBuffer().get(samples);
+                fixtures.put(path, samples);
+            }
+        }
+        return fixtures;
+    }
+
+    /**
+     * Streams a few passes' worth plus a bit, in output-sized reads, and compares every sample.
+     */
+    private static void assertLoops(String name, short[] fixture, int capacity, boolean stalls) {
+        if (fixture.length == 0) return;
+        FixtureSource source = new FixtureSource(fixture, fixture.length, 997, stalls);
+        MusicStream stream = new MusicStream(source, capacity, true);
+        stream.start();
+        try {
+            long total = Math.max(3L * fixture.length + 17, 500_000);
+            short[] chunk = new short[441];
+            long position = 0;
+            while (position < total) {
+                int length = (int) Math.min(chunk.length, total - position);
+                assertEquals(name + ": read at " + position, length, stream.read(chunk, 0, length));
+                for (int i = 0; i < length; i++, position++) {
+                    if (chunk[i] != fixture[(int) (position % fixture.length)]) {
+                        assertEquals(name + ": sample " + position + " (pass " + position / fixture.length
+                                + ", offset " + position % fixture.length + ")",
+                                fixture[(int) (position % fixture.length)], chunk[i]);
+                    }
+                }
+            }
+            assertTrue(name + ": " + stream.getLoops() + " loops", stream.getLoops() >= total / fixture.length - 1);
+            assertTrue(name + ": overfilled ring", stream.getBufferedSamples() <= capacity);
+            assertNull(stream.getError());
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Test
+    public void loopsSampleExact() throws IOException {
+        for (Map.Entry<String, short[]> fixture : fixtures().entrySet()) {
+            assertLoops(fixture.getKey(), fixture.getValue(), 1024, false);
+        }
+    }
+
+    @Test
+    public void loopsSampleExactWhenTheDecoderStalls() throws IOException {
+        for (Map.Entry<String, short[]> fixture : fixtures().entrySet()) {
+            assertLoops(fixture.getKey(), fixture.getValue(), 4096, true);
+        }
+    }
+
+    @Test
+    public void playsOnceThenEnds() throws Exception {
+        for (Map.Entry<String, short[]> entry : fixtures().entrySet()) {
+            String name = entry.getKey();
+            short[] fixture = entry.getValue();
+            FixtureSource source = new FixtureSource(fixture, 1, 300, false);
+            MusicStream stream = new MusicStream(source, 256, false);
+            stream.start();
+            short[] out = new short[fixture.length + 100];
+            int total = 0;
+            while (true) {
+                int count = stream.read(out, total, Math.min(128, out.length - total));
+                total += count;
+                if (count < 128 || total == out.length) break;
+            }
+            assertTrue(name + ": decoder still running", stream.awaitDecoder(1000));
+            assertEquals(name + ": samples in a single pass", fixture.length, total);
+            for (int i = 0; i < total; i++) assertEquals(name + ": sample " + i, fixture[i], out[i]);
+            assertTrue(name + ": source left open", source.closed);
+            assertEquals(0, stream.getLoops());
+            assertNull(stream.getError());
+        }
+    }
+
+    @Test
+    public void reportsDecoderErrors() throws InterruptedException {
+        MusicStream.PcmSource failing = new MusicStream.PcmSource() {
+            private int reads = 0;
+
+            @Override
+            public int read(short[] buffer, int offset, int length) throws IOException {
+                if (++reads > 3) throw new IOException("decoder failed");
+                buffer[offset] = 42;
+                return 1;
+            }
+
+            @Override
+            public void rewind() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        MusicStream stream = new MusicStream(failing, 64, true);
+        stream.start();
+        short[] out = new short[10];
+        assertEquals(3, stream.read(out, 0, out.length));
+        assertEquals(42, out[2]);
+        assertTrue(stream.awaitDecoder(1000));
+        assertNotNull(stream.getError());
+        assertEquals("decoder failed", stream.getError().getMessage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBeAPowerOfTwo() {
+        new MusicStream(new FixtureSource(new short[1], 0, 1, false), 1000, true);
+    }
+}
@@ -0,0 +1,134 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Races scripted players through a relay on loopback at 60 ticks per second.
+ */
+public class RaceRelayServerTest {
+    private static final int TICKS_PER_SECOND = 60;
+    private static final int ROOM = 1;
+
+    private RaceRelayServer server;
+    private Thread serverThread;
+    private final RaceClient[] clients = new RaceClient[2];
+
+    @Before
+    public void setUp() throws Exception {
+        server = new RaceRelayServer(0);
+        serverThread = new Thread(server, "RaceRelayServer");
+        serverThread.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for (RaceClient client : clients) {
+            if (client != null) client.close();
+        }
+        server.stop();
+        serverThread.join();
+    }
+
+    /**
+     * Joins both racers, from screens of different widths.
+     */
+    private void pair() throws Exception {
+        int[] spawnX = new int[2];
+        for (int i = 0; i < 2; i++) {
+            spawnX[i] = DeterministicWorld.spawnXFor(DeterministicWorld.visibleWidth(i == 0 ? 1080 : 2560, i == 0 ? 1920 : 1600));
+            clients[i] = new RaceClient("127.0.0.1", server.getPort(), ROOM, spawnX[i]);
+            clients[i].start();
+        }
+        for (RaceClient client : clients) assertTrue("the relay did not pair the clients", client.awaitStart(5000));
+
+        // Both must fly the same course, with pipes spawning off the wider screen
+        assertEquals(clients[0].getSeed(), clients[1].getSeed());
+        assertEquals(Math.max(spawnX[0], spawnX[1]), clients[0].getSpawnX());
+        assertEquals(clients[0].getSpawnX(), clients[1].getSpawnX());
+    }
+
+    private static int targetY(DeterministicWorld world) {
+        for (int i = 0; i < world.getPipeCount(); i++) {
+            int right = (world.getPipeX(i) >> DeterministicWorld.FRAC_BITS) + DeterministicWorld.PIPE_WIDTH;
+            if (right > DeterministicWorld.BIRD_X) {
+                return world.getPipeTop(i) + DeterministicWorld.PIPE_GAP / 2 - DeterministicWorld.BIRD_SIZE / 2;
+            }
+        }
+        return DeterministicWorld.WORLD_HEIGHT / 2;
+    }
+
+    @Test(timeout = 30_000)
+    public void ghostsMatchOverLoopback() throws Exception {
+        pair();
+        DeterministicWorld[] worlds = {
+                new DeterministicWorld(clients[0].getSeed(), clients[0].getSpawnX()),
+                new DeterministicWorld(clients[1].getSeed(), clients[1].getSpawnX())};
+        Random[] players = {new Random(1), new Random(2)};
+        int ticks = 5 * TICKS_PER_SECOND;
+        long tickNanos = 1_000_000_000L / TICKS_PER_SECOND;
+        long next = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < 2; i++) {
+                if (worlds[i].isDead()) continue;
+                // Flap whenever the bird sinks below the middle of its gap, with some noise
+                boolean jump = worlds[i].getBirdVelocity() > 0
+                        && (worlds[i].getBirdY() >> DeterministicWorld.FRAC_BITS) > targetY(worlds[i]) + players[i].nextInt(60);
+                worlds[i].step(jump);
+                clients[i].recordTick(jump);
+                clients[i].advanceGhost();
+            }
+            next += tickNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+        }
+        Thread.sleep(500); // Let the idle resends deliver the last inputs
+
+        for (int i = 0; i < 2; i++) {
+            RaceClient client = clients[i];
+            DeterministicWorld remote = worlds[1 - i];
+            client.advanceGhost();
+            String player = "player " + i;
+            assertTrue(player + ": the other run ended too early to mean much", remote.getTick() > TICKS_PER_SECOND);
+            assertEquals(player + ": ghost ticks", remote.getTick(), client.getGhostTicks());
+            assertEquals(player + ": ghost y", remote.getBirdY(),
+                    Math.round(client.getGhostY(client.getGhostTicks()) * DeterministicWorld.ONE));
+            assertEquals(player + ": ghost score", remote.getScore(), client.getGhostScore());
+            assertEquals(player + ": ghost dead", remote.isDead(), client.isGhostDead());
+            assertTrue(player + ": no packet was acked", client.getRttMillis() >= 0);
+            assertTrue(player + ": " + client.getBytesPerTick() + " bytes per tick",
+                    client.getBytesPerTick() <= RaceProtocol.PACKET_SIZE);
+        }
+        assertTrue(server.getPacketsRelayed() > 0);
+        assertEquals(server.getPacketsRelayed() * RaceProtocol.PACKET_SIZE, server.getBytesRelayed());
+    }
+
+    @Test(timeout = 30_000)
+    public void playerWhoGaveUpIsNotPaired() throws Exception {
+        RaceClient quitter = new RaceClient("127.0.0.1", server.getPort(), ROOM, DeterministicWorld.PIPE_SPAWN_X);
+        quitter.start();
+        assertFalse(quitter.awaitStart(300));
+        quitter.close(); // Its receiver thread sends LEAVE within a receive timeout
+        Thread.sleep(300);
+
+        pair();
+        assertFalse(quitter.isStarted());
+    }
+
+    @Test(timeout = 30_000)
+    public void leavingIsForwardedToTheOpponent() throws Exception {
+        pair();
+        clients[0].close();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!clients[1].hasPeerLeft() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(clients[1].hasPeerLeft());
+        assertFalse(clients[0].hasPeerLeft());
+    }
+}
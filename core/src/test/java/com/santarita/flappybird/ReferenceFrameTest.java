@@ -0,0 +1,179 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Golden-image tests: small frames drawn by SoftwareRenderer, through both blitters, compared
+ * pixel for pixel with the PNGs in src/test/resources/golden. On a mismatch the frame drawn is
+ * written to build/golden-failures for inspection. After an intended rendering change run
+ *   gradle :core:test -PupdateGolden
+ * to rewrite the references, and check the new images before committing them.
+ */
+public class ReferenceFrameTest {
+    private static final int WIDTH = 96;
+    private static final int HEIGHT = 64;
+    private static final int SKY = 0xFF4EC0CA;
+
+    private static final Sprite TILE = tile(12, 12);
+    private static final Sprite BALL = ball(16, 12);
+    private static final Sprite COLUMN = column(8, 24);
+
+    private interface Frame {
+        void draw(Renderer renderer);
+    }
+
+    @Test
+    public void sprites() throws IOException {
+        check("sprites", renderer -> {
+            renderer.drawSprite(TILE, 4, 4);
+            renderer.drawSprite(BALL, 20, 4);
+            renderer.drawSprite(BALL, 40, 4, 110); // Race ghost
+            renderer.drawSprite(COLUMN, 60, 2, 68, 40); // Stretched down
+            renderer.drawSprite(COLUMN, 72, 2, 92, 14); // Squashed and widened
+            renderer.drawSprite(TILE, 4, 4, 10, 10, 4, 24); // One sheet cell
+            renderer.drawSprite(BALL, -6, 50); // Clipped left and bottom
+            renderer.drawSprite(TILE, WIDTH - 5, -5); // Clipped right and top
+            renderer.save();
+            renderer.scale(1.5f);
+            renderer.drawSprite(BALL, 14, 18);
+            renderer.drawSprite(TILE, 0, 0, 6, 6, 30, 24);
+            renderer.restore();
+        });
+    }
+
+    @Test
+    public void shapes() throws IOException {
+        check("shapes", renderer -> {
+            renderer.fillRect(4, 4, 40, 28, 0xFF1E5A1E);
+            renderer.fillRect(20, 16, 60, 44, 0x96000000); // Translucent, over the rectangle and the sky
+            renderer.fillRect(-10, 50, 10, 70, 0xFFFFFFFF); // Clipped
+            renderer.save();
+            renderer.scale(1.5f);
+            // Pause button as drawn by the HUD
+            renderer.fillRect(40, 4, 60, 24, 0x96000000);
+            renderer.fillRect(45, 8, 49, 20, 0xFFFFFFFF);
+            renderer.fillRect(51, 8, 55, 20, 0xFFFFFFFF);
+            renderer.restore();
+        });
+    }
+
+    @Test
+    public void text() throws IOException {
+        check("text", renderer -> {
+            renderer.drawText("SCORE: 42", 4, 14, new TextStyle(14, 0xFFFFFFFF, TextStyle.Align.LEFT, false));
+            renderer.drawText("Best", WIDTH / 2f, 30, new TextStyle(14, 0xFFFFD700, TextStyle.Align.CENTER, true));
+            renderer.drawText("7", WIDTH - 4, 30, new TextStyle(20, 0xFFFFFFFF, TextStyle.Align.RIGHT, true, 4, 0xFF000000));
+            renderer.save();
+            renderer.scale(0.75f);
+            renderer.drawText("READY!", 4, 76, new TextStyle(20, 0xFFF0C020, TextStyle.Align.LEFT, true, 2, 0x80000000));
+            renderer.restore();
+        });
+    }
+
+    private static void check(String name, Frame frame) throws IOException {
+        int[] rle = render(frame, true);
+        int[] argb = render(frame, false);
+
+        String update = System.getProperty("golden.update");
+        if (update != null) {
+            write(rle, new File(update, name + ".png"));
+            return;
+        }
+
+        int[] golden = read(name);
+        int differences = 0, first = -1;
+        for (int i = 0; i < golden.length; i++) {
+            if (golden[i] != rle[i] || golden[i] != argb[i]) {
+                if (first < 0) first = i;
+                differences++;
+            }
+        }
+        if (differences > 0) {
+            File failures = new File("build/golden-failures");
+            write(rle, new File(failures, name + "-rle.png"));
+            write(argb, new File(failures, name + "-argb.png"));
+            fail(String.format("%s: %d pixels differ, first at (%d, %d): golden %08X, rle %08X, argb %08X; frames in %s",
+                    name, differences, first % WIDTH, first / WIDTH, golden[first], rle[first], argb[first],
+                    failures.getAbsolutePath()));
+        }
+    }
+
+    private static int[] render(Frame frame, boolean useRle) {
+        SoftwareRenderer renderer = new SoftwareRenderer(WIDTH, HEIGHT);
+        renderer.setUseRle(useRle);
+        renderer.clear(SKY);
+        frame.draw(renderer);
+        return renderer.getPixels();
+    }
+
+    private static int[] read(String name) throws IOException {
+        try (InputStream in = ReferenceFrameTest.class.getResourceAsStream("/golden/" + name + ".png")) {
+            assertNotNull("no golden image for " + name + "; run with -PupdateGolden to create it", in);
+            BufferedImage image = ImageIO.read(in);
+            if (image.getWidth() != WIDTH || image.getHeight() != HEIGHT) {
+                fail(name + ": golden image is " + image.getWidth() + "x" + image.getHeight());
+            }
+            return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        }
+    }
+
+    private static void write(int[] pixels, File file) throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, WIDTH, HEIGHT, pixels, 0, WIDTH);
+        file.getParentFile().mkdirs();
+        ImageIO.write(image, "png", file);
+    }
+
+    // --- SYNTHETIC SPRITES ---
+
+    /**
+     * Two-colour checkerboard of 3x3 cells, fully opaque.
+     */
+    private static Sprite tile(int width, int height) {
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) argb[y * width + x] = (x / 3 + y / 3) % 2 == 0 ? 0xFFC0392B : 0xFFF5F5DC;
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    /**
+     * Opaque ellipse on a transparent background, with a translucent rim.
+     */
+    private static Sprite ball(int width, int height) {
+        int[] argb = new int[width * height];
+        float rx = width / 2f, ry = height / 2f;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float dx = (x + 0.5f - rx) / rx, dy = (y + 0.5f - ry) / ry;
+                float d = dx * dx + dy * dy;
+                if (d < 0.6f) argb[y * width + x] = 0xFFF0C020;
+                else if (d < 1f) argb[y * width + x] = 0x80E07010;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    /**
+     * Horizontal gradient with a transparent margin and half-transparent edges, like a pipe.
+     */
+    private static Sprite column(int width, int height) {
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                argb[y * width + x] = x == 1 || x == width - 2 ? 0x802E7D32 : 0xFF000000 | (x * 255 / width) << 8 | y * 8;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+}
@@ -0,0 +1,87 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class SoftwareRendererTest {
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 960;
+
+    /**
+     * Opaque body with a transparent margin and a one pixel anti-aliased edge each side.
+     */
+    private static Sprite pipeSprite(int width, int height) {
+        int[] argb = new int[width * height];
+        int margin = 4;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int color;
+                if (x < margin || x >= width - margin) {
+                    color = 0;
+                } else if (x == margin || x == width - margin - 1) {
+                    color = 0x80000000 | 0x2E7D32;
+                } else {
+                    color = 0xFF000000 | (x * 255 / width) << 8 | 0x20;
+                }
+                argb[y * width + x] = color;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    /**
+     * Opaque ellipse on a transparent background, with a soft edge.
+     */
+    private static Sprite birdSprite(int width, int height) {
+        int[] argb = new int[width * height];
+        float rx = width / 2f, ry = height / 2f;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float dx = (x + 0.5f - rx) / rx, dy = (y + 0.5f - ry) / ry;
+                float distance = (float) Math.sqrt(dx * dx + dy * dy);
+                int alpha = distance <= 0.9f ? 255 : distance >= 1f ? 0 : (int) ((1f - distance) / 0.1f * 255);
+                argb[y * width + x] = alpha << 24 | 0xF8C020;
+            }
+        }
+        return new Sprite(width, height, argb);
+    }
+
+    private static void drawFrame(SoftwareRenderer renderer, Sprite pipe, Sprite bird, int frame) {
+        renderer.clear(0xFF4EC0CA);
+        int scroll = frame % 200;
+        for (int i = 0; i < 3; i++) {
+            float x = WIDTH - scroll + i * 200 - 100;
+            float gapTop = 250 + i * 75;
+            renderer.drawSprite(pipe, x, 0, x + pipe.getWidth(), gapTop);
+            renderer.drawSprite(pipe, x, gapTop + 225, x + pipe.getWidth(), HEIGHT);
+        }
+        renderer.drawSprite(bird, 150, 400 + frame % 100);
+        renderer.drawSprite(bird, 170, 450, 110); // Race ghost
+        // Sheet cells at 1:1 and under a render scale
+        renderer.drawSprite(bird, 20, 5, 50, 40, 350, 100);
+        renderer.save();
+        renderer.scale(1.5f);
+        renderer.drawSprite(bird, 20, 5, 50, 40, 250, 100);
+        renderer.restore();
+        renderer.drawSprite(bird, 150, 150, 150 + bird.getWidth() * 1.5f, 150 + bird.getHeight() * 1.5f);
+        // Off the bottom-left corner
+        renderer.drawSprite(bird, -20, HEIGHT - 20);
+    }
+
+    @Test
+    public void rleAndArgbBlittersDrawTheSamePixels() {
+        Sprite pipe = pipeSprite(90, 500);
+        Sprite bird = birdSprite(64, 48);
+        SoftwareRenderer argb = new SoftwareRenderer(WIDTH, HEIGHT);
+        SoftwareRenderer rle = new SoftwareRenderer(WIDTH, HEIGHT);
+        argb.setUseRle(false);
+        rle.setUseRle(true);
+        // Covers pipes clipped at both screen edges
+        for (int frame = 0; frame < 200; frame += 7) {
+            drawFrame(argb, pipe, bird, frame);
+            drawFrame(rle, pipe, bird, frame);
+            assertArrayEquals("frame " + frame, argb.getPixels(), rle.getPixels());
+        }
+    }
+}
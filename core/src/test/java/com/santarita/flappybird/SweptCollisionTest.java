@@ -0,0 +1,151 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Sweeps a bird's bounding box the way GameView and PipeEntity do: linear in x relative to the
+ * pipes, a parabola in y, against pipe rectangles and the ground. Whatever the step size, the
+ * first contact must be the one 1-tick stepping finds, and the one a fine sampling of the
+ * path finds.
+ */
+public class SweptCollisionTest {
+    private static final float GRAVITY = 1f;
+    private static final float JUMP_VELOCITY = -14f;
+    private static final float SCROLL_SPEED = 10f; // The bird's x speed in the pipes' frame
+    private static final float BIRD_WIDTH = 40, BIRD_HEIGHT = 30;
+    private static final float GROUND_TOP = 800;
+    private static final int HORIZON = 240;    // Ticks
+    private static final int JUMP_SPACING = 8; // Ticks; a multiple of every step size tried
+    private static final int[] STEPS = {1, 2, 4, 8};
+
+    private final SweptCollision sweep = new SweptCollision();
+
+    /**
+     * A course in the pipes' frame: rectangles as {left, top, right, bottom}, and the ticks at
+     * which the bird jumps.
+     */
+    private static final class Course {
+        final float startX, startY;
+        final float[][] rects;
+        final boolean[] jumps = new boolean[HORIZON];
+
+        Course(float startX, float startY, float[][] rects) {
+            this.startX = startX;
+            this.startY = startY;
+            this.rects = rects;
+        }
+    }
+
+    /**
+     * Steps through the course `step` ticks at a time, sweeping each step from its start.
+     * @return Time of the first contact in ticks, or NO_CONTACT within the horizon.
+     */
+    private float firstContact(Course course, int step) {
+        float x = course.startX, y = course.startY, velocity = 0;
+        for (int start = 0; start < HORIZON; start += step) {
+            if (course.jumps[start]) velocity = JUMP_VELOCITY;
+            float a = GRAVITY * 0.5f, b = velocity + GRAVITY * 0.5f;
+
+            float first = sweep.quadraticEntry(a, b, y + BIRD_HEIGHT, GROUND_TOP, Float.POSITIVE_INFINITY, 0, step);
+            for (float[] rect : course.rects) {
+                float window = first == SweptCollision.NO_CONTACT ? step : first;
+                float t = sweepRect(x, y, a, b, rect, window);
+                if (t != SweptCollision.NO_CONTACT && (first == SweptCollision.NO_CONTACT || t < first)) first = t;
+            }
+            if (first != SweptCollision.NO_CONTACT) return start + first;
+
+            x += SCROLL_SPEED * step;
+            y += velocity * step + GRAVITY * step * (step + 1) * 0.5f;
+            velocity += GRAVITY * step;
+        }
+        return SweptCollision.NO_CONTACT;
+    }
+
+    private float sweepRect(float x, float y, float a, float b, float[] rect, float ticks) {
+        float xStart = sweep.linearEntry(x, SCROLL_SPEED, rect[0] - BIRD_WIDTH, rect[2], 0, ticks);
+        if (xStart == SweptCollision.NO_CONTACT) return SweptCollision.NO_CONTACT;
+        float xEnd = sweep.linearExit(x, SCROLL_SPEED, rect[0] - BIRD_WIDTH, rect[2], xStart, ticks);
+        return sweep.quadraticEntry(a, b, y, rect[1] - BIRD_HEIGHT, rect[3], xStart, xEnd);
+    }
+
+    /**
+     * Samples the path every `dt` ticks and returns the first sample that overlaps anything.
+     */
+    private static double sampledContact(Course course, double dt) {
+        double x = course.startX, y = course.startY, velocity = 0;
+        for (int tick = 0; tick < HORIZON; tick++) {
+            if (course.jumps[tick]) velocity = JUMP_VELOCITY;
+            for (double t = 0; t < 1; t += dt) {
+                double bx = x + SCROLL_SPEED * t;
+                double by = y + (velocity + GRAVITY * 0.5) * t + GRAVITY * 0.5 * t * t;
+                if (by + BIRD_HEIGHT > GROUND_TOP) return tick + t;
+                for (float[] rect : course.rects) {
+                    if (bx > rect[0] - BIRD_WIDTH && bx < rect[2] && by > rect[1] - BIRD_HEIGHT && by < rect[3]) {
+                        return tick + t;
+                    }
+                }
+            }
+            x += SCROLL_SPEED;
+            y += velocity + GRAVITY;
+            velocity += GRAVITY;
+        }
+        return SweptCollision.NO_CONTACT;
+    }
+
+    private static Course randomCourse(Random random) {
+        float[][] rects = new float[4][];
+        for (int i = 0; i < rects.length; i++) {
+            float left = 300 + i * 500 + random.nextInt(200);
+            // Thin edges (under one tick of travel) as well as pipe-sized blocks
+            float width = random.nextBoolean() ? 1 + random.nextInt(3) : 60 + random.nextInt(120);
+            float gapTop = 150 + random.nextInt(400);
+            rects[i] = random.nextBoolean()
+                    ? new float[]{left, 0, left + width, gapTop}
+                    : new float[]{left, gapTop + 200, left + width, GROUND_TOP};
+        }
+        Course course = new Course(0, 200 + random.nextInt(300), rects);
+        for (int tick = 0; tick < HORIZON; tick += JUMP_SPACING) course.jumps[tick] = random.nextInt(3) != 0;
+        return course;
+    }
+
+    @Test
+    public void largeStepsFindTheSameFirstContact() {
+        Random random = new Random(1);
+        int contacts = 0;
+        for (int c = 0; c < 500; c++) {
+            Course course = randomCourse(random);
+            float reference = firstContact(course, 1);
+            for (int step : STEPS) {
+                assertEquals("course " + c + ", " + step + "-tick steps", reference, firstContact(course, step), 1e-3f);
+            }
+            double sampled = sampledContact(course, 1e-3);
+            if (reference == SweptCollision.NO_CONTACT) {
+                assertEquals("course " + c + " has a contact between ticks", SweptCollision.NO_CONTACT, sampled, 0);
+            } else {
+                assertEquals("course " + c + ", sampled path", reference, sampled, 2e-3);
+                contacts++;
+            }
+        }
+        assertTrue("too few courses hit anything to mean much: " + contacts, contacts > 250);
+    }
+
+    @Test
+    public void thinEdgeCannotBeSteppedOver() {
+        // Overlaps the bird only between t = 2 and t = 6.1, both inside one 8-tick step
+        Course course = new Course(0, 300, new float[][]{{60, 0, 61, GROUND_TOP}});
+        for (int step : STEPS) assertEquals(step + "-tick steps", 2f, firstContact(course, step), 1e-4f);
+    }
+
+    @Test
+    public void groundIsHitAtTheExactTick() {
+        // Falling from rest: y(t) = 500 + t * (t + 1) / 2 reaches 770 (ground minus bird) at t = 22.75...
+        Course course = new Course(0, 500, new float[0][]);
+        double expected = (-1 + Math.sqrt(1 + 8 * (GROUND_TOP - BIRD_HEIGHT - 500))) / 2;
+        for (int step : STEPS) assertEquals(step + "-tick steps", expected, firstContact(course, step), 1e-3);
+    }
+}
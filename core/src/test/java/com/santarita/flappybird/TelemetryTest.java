@@ -0,0 +1,112 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TelemetryTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Everything TelemetryReader hands to its visitor.
+     */
+    private static final class Recorded implements TelemetryReader.Visitor {
+        final List<int[]> records = new ArrayList<>();
+        long lastNanos = Long.MIN_VALUE;
+        boolean inOrder = true;
+
+        @Override
+        public void onRecord(long nanos, int type, int a, int b, int c) {
+            inOrder &= nanos >= lastNanos;
+            lastNanos = nanos;
+            records.add(new int[]{type, a, b, c});
+        }
+    }
+
+    private static Recorded closeAndRead(Telemetry telemetry, File directory) throws Exception {
+        telemetry.close();
+        assertTrue("the writer did not finish", telemetry.awaitClose(5000));
+        byte[] data = Files.readAllBytes(new File(directory, Telemetry.FILE_NAME).toPath());
+        Recorded recorded = new Recorded();
+        int count = TelemetryReader.read(data, recorded);
+        assertEquals(Telemetry.HEADER_SIZE + count * Telemetry.RECORD_SIZE, data.length);
+        assertEquals(count, recorded.records.size());
+        return recorded;
+    }
+
+    @Test
+    public void recordsComeBackThroughTheReader() throws Exception {
+        File directory = new File(folder.getRoot(), "telemetry"); // Created by Telemetry
+        Telemetry telemetry = new Telemetry(directory);
+        int[][] events = {
+                {Telemetry.RUN_START, 2, 1, 1920},
+                {Telemetry.JUMP, 840, 0, 0},
+                {Telemetry.SCORE, 1, 2, 0},
+                {Telemetry.DEATH, Telemetry.CAUSE_PIPE, -35, Integer.MAX_VALUE},
+                {Telemetry.FRAME_STATS, 4100, 16_900, 75},
+                {Telemetry.AUTOPILOT, Integer.MIN_VALUE, -1, 3},
+        };
+        for (int[] event : events) assertTrue(telemetry.record(event[0], event[1], event[2], event[3]));
+
+        Recorded recorded = closeAndRead(telemetry, directory);
+        assertEquals(events.length, recorded.records.size());
+        for (int i = 0; i < events.length; i++) {
+            assertEquals("record " + i, Arrays.toString(events[i]), Arrays.toString(recorded.records.get(i)));
+        }
+        assertTrue("timestamps out of order", recorded.inOrder);
+        assertEquals(0, telemetry.getDroppedCount());
+    }
+
+    @Test
+    public void fullRingDropsAndCountsTheRest() throws Exception {
+        File directory = folder.newFolder();
+        Telemetry telemetry = new Telemetry(directory);
+        int accepted = 0, rejected = 0;
+        for (int i = 0; i < Telemetry.CAPACITY + 100; i++) {
+            if (telemetry.record(Telemetry.JUMP, i, 0, 0)) accepted++; else rejected++;
+        }
+        // The writer only drains once a second, so the ring fills; an early wakeup only frees slots
+        assertTrue(accepted >= Telemetry.CAPACITY);
+        assertTrue("nothing was dropped", rejected > 0);
+        assertEquals(rejected, telemetry.getDroppedCount());
+
+        Recorded recorded = closeAndRead(telemetry, directory);
+        int jumps = 0, dropped = 0, lastJump = -1;
+        for (int[] record : recorded.records) {
+            if (record[0] == Telemetry.JUMP) {
+                assertTrue("jumps out of order", record[1] > lastJump);
+                lastJump = record[1];
+                jumps++;
+            } else {
+                assertEquals(Telemetry.DROPPED, record[0]);
+                dropped += record[1];
+            }
+        }
+        assertEquals(accepted, jumps);
+        assertEquals(rejected, dropped);
+        assertFalse(recorded.records.isEmpty());
+        assertEquals(Telemetry.DROPPED, recorded.records.get(recorded.records.size() - 1)[0]);
+
+        TelemetryReader.Summary summary = new TelemetryReader.Summary();
+        TelemetryReader.read(Files.readAllBytes(new File(directory, Telemetry.FILE_NAME).toPath()), summary);
+        assertEquals(rejected, summary.dropped);
+        assertEquals(accepted, summary.jumps);
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsOtherFiles() throws IOException {
+        TelemetryReader.read(new byte[]{'P', 'K', 3, 4, 0, 0, 0, 0, 0, 0, 0, 0}, (nanos, type, a, b, c) -> { });
+    }
+}
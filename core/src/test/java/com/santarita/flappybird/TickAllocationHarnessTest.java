@@ -0,0 +1,15 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TickAllocationHarnessTest {
+    @Test
+    public void everyStateTicksWithinTheAllocationBudget() {
+        TickAllocationMonitor monitor = new TickAllocationHarness().run(
+                TickAllocationHarness.DEFAULT_TICKS, TickAllocationHarness.DEFAULT_BUDGET_BYTES);
+        assertTrue("This JVM has no per-thread allocation counter", monitor.isSupported());
+        assertTrue(monitor.report(), monitor.isWithinBudget());
+    }
+}
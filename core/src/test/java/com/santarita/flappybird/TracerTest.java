@@ -0,0 +1,134 @@
+package com.santarita.flappybird;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TracerTest {
+    @After
+    public void tearDown() {
+        Tracer.stopCapture();
+        Tracer.setSystemTrace(null);
+    }
+
+    private static String export() throws IOException {
+        StringWriter out = new StringWriter();
+        Tracer.writeChromeTrace(out);
+        return out.toString();
+    }
+
+    private static int count(String haystack, String needle) {
+        int count = 0;
+        for (int i = haystack.indexOf(needle); i >= 0; i = haystack.indexOf(needle, i + 1)) count++;
+        return count;
+    }
+
+    @Test
+    public void exportsNestedSectionsAndCounters() throws IOException {
+        Tracer.startCapture();
+        Tracer.begin("frame");
+        Tracer.begin("update \"quoted\"");
+        Tracer.end();
+        Tracer.counter("drawCalls", 42);
+        Tracer.end();
+
+        String json = export();
+        assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+        assertTrue(json.endsWith("]}\n"));
+        assertEquals(2, count(json, "\"ph\":\"B\""));
+        assertEquals(2, count(json, "\"ph\":\"E\""));
+        assertTrue(json.contains("\"name\":\"frame\""));
+        assertTrue(json.contains("\"name\":\"update \\\"quoted\\\"\""));
+        assertTrue(json.contains("\"ph\":\"C\"") && json.contains("\"args\":{\"value\":42}"));
+        assertTrue(json.contains("\"name\":\"thread_name\"") && json.contains("\"name\":" + quoted(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void coreCodeIsTraced() throws IOException {
+        Tracer.startCapture();
+        new Autopilot().decide(new DeterministicWorld(1));
+        assertTrue(export().contains("\"name\":\"Autopilot.decide\""));
+    }
+
+    @Test
+    public void overflowKeepsTheNewestEventsWithoutUnmatchedEnds() throws IOException {
+        Tracer.startCapture();
+        for (int i = 0; i < 20_000; i++) {
+            Tracer.begin("outer");
+            Tracer.begin("inner");
+            Tracer.end();
+            Tracer.end();
+        }
+        Tracer.begin("last");
+        Tracer.end();
+
+        String json = export();
+        assertTrue(json.contains("\"name\":\"last\""));
+        int begins = count(json, "\"ph\":\"B\""), ends = count(json, "\"ph\":\"E\"");
+        assertTrue(begins + ends < 80_000);
+        // Ends whose begin was overwritten are left out
+        assertEquals(begins, ends);
+    }
+
+    @Test
+    public void newCaptureDropsEndedThreads() throws Exception {
+        Tracer.startCapture();
+        Thread worker = new Thread(() -> {
+            Tracer.begin("work");
+            Tracer.end();
+        }, "TracerTestWorker");
+        worker.start();
+        worker.join();
+        assertTrue(export().contains("TracerTestWorker"));
+
+        Tracer.startCapture();
+        Tracer.begin("again");
+        Tracer.end();
+        String json = export();
+        assertFalse(json.contains("TracerTestWorker"));
+        assertTrue(json.contains("\"name\":\"again\""));
+    }
+
+    @Test
+    public void forwardsToTheSystemTrace() {
+        final List<String> calls = new ArrayList<>();
+        Tracer.setSystemTrace(new Tracer.SystemTrace() {
+            @Override
+            public void beginSection(String name) {
+                calls.add("begin " + name);
+            }
+
+            @Override
+            public void endSection() {
+                calls.add("end");
+            }
+
+            @Override
+            public void setCounter(String name, long value) {
+                calls.add(name + "=" + value);
+            }
+        });
+        assertTrue(Tracer.isEnabled());
+        Tracer.begin("frame");
+        Tracer.counter("drawCalls", 7);
+        Tracer.end();
+        Tracer.setSystemTrace(null);
+        Tracer.begin("ignored");
+        Tracer.end();
+
+        assertEquals("[begin frame, drawCalls=7, end]", calls.toString());
+        assertFalse(Tracer.isEnabled());
+    }
+
+    private static String quoted(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}